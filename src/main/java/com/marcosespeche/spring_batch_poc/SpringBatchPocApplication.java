@@ -1,10 +1,13 @@
 package com.marcosespeche.spring_batch_poc;
 
+import com.marcosespeche.spring_batch_poc.config.NativeRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class SpringBatchPocApplication {
 
 	public static void main(String[] args) {
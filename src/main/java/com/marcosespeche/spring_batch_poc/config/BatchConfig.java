@@ -1,32 +1,76 @@
 package com.marcosespeche.spring_batch_poc.config;
 
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.archive.ArchivedBill;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.archive.BatchMetadataPurgeTasklet;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.archive.BillArchiveProcessor;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.archive.BillArchiveWriter;
 import com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.BillingProcessItemProcessor;
 import com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.BillingProcessItemWriter;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.BillingProcessPartitioner;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.BillingProcessSkipListener;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.BillingProcessSkipPolicy;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.BillingRetryWriteListener;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.MarkBilledServiceRequestsTasklet;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.PrefetchingItemReader;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.async.AsyncItem;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.async.AsyncItemProcessor;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.async.AsyncItemWriter;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.locking.LeaseFencingWriteListener;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.locking.LeaseJobExecutionListener;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.partitioning.IPartitionRequestChannel;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.partitioning.RemotePartitionHandler;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.BillableMinutes;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.backfill.BillableMinutesBackfillItem;
 import com.marcosespeche.spring_batch_poc.entities.BillingProcessCustomer;
 import com.marcosespeche.spring_batch_poc.entities.Customer;
+import com.marcosespeche.spring_batch_poc.enums.BillingProcessDeadLetterState;
 import jakarta.persistence.EntityManagerFactory;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.configuration.annotation.EnableJdbcJobRepository;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.Job;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.launch.support.JobOperatorFactoryBean;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.partition.support.TaskExecutorPartitionHandler;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.Step;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.infrastructure.item.ItemReader;
+import org.springframework.batch.infrastructure.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.infrastructure.item.database.JdbcPagingItemReader;
 import org.springframework.batch.infrastructure.item.database.JpaPagingItemReader;
+import org.springframework.batch.infrastructure.item.database.Order;
+import org.springframework.batch.infrastructure.item.database.builder.JdbcBatchItemWriterBuilder;
+import org.springframework.batch.infrastructure.item.database.builder.JdbcPagingItemReaderBuilder;
 import org.springframework.batch.infrastructure.item.database.builder.JpaPagingItemReaderBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.core.retry.RetryPolicy;
 import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
 
+
+// Batch infrastructure and jobs, not created in the 'api' role. The JobRepository uses the metadata pool when
+// pools are isolated (DataSourceConfig), otherwise the names are aliases of the only pool
 @Configuration
+@Profile("!api")
 @EnableBatchProcessing(taskExecutorRef = "batchTaskExecutor")
-//@EnableJdbcJobRepository
+@EnableJdbcJobRepository(dataSourceRef = "batchMetadataDataSource", transactionManagerRef = "batchMetadataTransactionManager")
 public class BatchConfig {
 
     @Autowired
@@ -35,42 +79,345 @@ public class BatchConfig {
     @Autowired
     private BillingProcessItemWriter billingProcessItemWriter;
 
+    @Autowired
+    private BillingProcessSkipListener billingProcessSkipListener;
+
+    @Autowired
+    private BillingRetryWriteListener billingRetryWriteListener;
+
+    @Autowired
+    private LeaseJobExecutionListener leaseJobExecutionListener;
+
+    @Autowired
+    private LeaseFencingWriteListener leaseFencingWriteListener;
+
+    @Value("${app.billing.skip-limit:100}")
+    private long billingSkipLimit;
+
+    @Value("${app.billing.async.pool-size:4}")
+    private int billingAsyncPoolSize;
+
+    @Value("${app.billing.async.queue-capacity:10}")
+    private int billingAsyncQueueCapacity;
+
+    @Value("${app.billing.reader.prefetch-depth:10}")
+    private int billingReaderPrefetchDepth;
+
+    @Value("${app.billing.partitions.grid-size:4}")
+    private int billingPartitionGridSize;
+
+    // 'local' runs partitions on this instance, 'remote' hands them to PartitionWorkers through IPartitionRequestChannel
+    @Value("${app.billing.partitions.mode:local}")
+    private String billingPartitionMode;
+
+    @Value("${app.billing.partitions.remote.poll-interval:5s}")
+    private Duration remotePartitionPollInterval;
+
+    @Value("${app.billing.partitions.remote.claim-timeout:5m}")
+    private Duration remotePartitionClaimTimeout;
+
+    @Value("${app.billing.partitions.remote.timeout:12h}")
+    private Duration remotePartitionTimeout;
+
+    @Value("${app.service-requests.backfill.chunk-size:500}")
+    private int billableMinutesBackfillChunkSize;
+
+    @Value("${app.archive.chunk-size:50}")
+    private int billArchiveChunkSize;
+
+    // Reads only the id range assigned to the current partition by BillingProcessPartitioner.
+    // The read position is saved on every commit, so a restarted partition resumes after the last committed chunk.
+    // Pages are fetched ahead on a background thread while the current customers are processed
     @Bean
-    public JpaPagingItemReader<Customer> customerItemReader(EntityManagerFactory entityManagerFactory) {
-        return new JpaPagingItemReaderBuilder<Customer>()
+    @StepScope
+    public PrefetchingItemReader<Customer> customerItemReader(EntityManagerFactory entityManagerFactory,
+                                                              @Value("#{stepExecutionContext['minCustomerId']}") Long minCustomerId,
+                                                              @Value("#{stepExecutionContext['maxCustomerId']}") Long maxCustomerId) {
+        JpaPagingItemReader<Customer> reader = new JpaPagingItemReaderBuilder<Customer>()
                 .name("customerItemReader")
                 .entityManagerFactory(entityManagerFactory)
-                .queryString("SELECT c FROM Customer c")
+                .queryString("SELECT c FROM Customer c WHERE c.id BETWEEN :minCustomerId AND :maxCustomerId ORDER BY c.id")
+                .parameterValues(Map.of("minCustomerId", minCustomerId, "maxCustomerId", maxCustomerId))
+                .pageSize(5)
+                .saveState(true)
+                .build();
+
+        return new PrefetchingItemReader<>(reader, "customerItemReader", billingReaderPrefetchDepth);
+    }
+
+    // Reads the customers whose dead letters were pending when the retry was requested. Dead letters reprocessed
+    // by this run still match, so pages don't shift as chunks are committed and a restart reads the same customers
+    @Bean
+    @StepScope
+    public PrefetchingItemReader<Customer> deadLetterCustomerItemReader(EntityManagerFactory entityManagerFactory,
+                                                                        @Value("#{jobParameters['billingProcessId']}") Long billingProcessId,
+                                                                        @Value("#{jobParameters['requestedAt']}") LocalDateTime requestedAt) {
+        JpaPagingItemReader<Customer> reader = new JpaPagingItemReaderBuilder<Customer>()
+                .name("deadLetterCustomerItemReader")
+                .entityManagerFactory(entityManagerFactory)
+                .queryString("""
+                        SELECT c FROM Customer c
+                        WHERE c.id IN (
+                            SELECT d.customerId FROM BillingProcessDeadLetter d
+                            WHERE d.billingProcessId = :billingProcessId
+                            AND (d.state = :state OR d.reprocessedAt >= :requestedAt)
+                        )
+                        ORDER BY c.id
+                        """)
+                .parameterValues(Map.of(
+                        "billingProcessId", billingProcessId,
+                        "state", BillingProcessDeadLetterState.PENDING,
+                        "requestedAt", requestedAt))
                 .pageSize(5)
+                .saveState(true)
                 .build();
+
+        return new PrefetchingItemReader<>(reader, "deadLetterCustomerItemReader", billingReaderPrefetchDepth);
     }
 
     @Bean
     public Step billingProcessStep(JobRepository jobRepository,
                                    PlatformTransactionManager transactionManager,
-                                   ItemReader<Customer> reader) {
+                                   ItemReader<Customer> customerItemReader,
+                                   TaskExecutor billingProcessorTaskExecutor) {
+
+        // Customers with invalid data are skipped and recorded as dead letters instead of failing the whole run
+        return new StepBuilder("billingProcessStep", jobRepository)
+                .<Customer, AsyncItem<Customer, BillingProcessCustomer>>chunk(5).transactionManager(transactionManager)
+                .reader(customerItemReader)
+                .processor(asyncBillingProcessItemProcessor(billingProcessorTaskExecutor))
+                .writer(asyncBillingProcessItemWriter())
+                .listener(leaseFencingWriteListener)
+                .faultTolerant()
+                .retryPolicy(billingRetryPolicy())
+                .skipPolicy(new BillingProcessSkipPolicy(billingSkipLimit))
+                .skipListener(billingProcessSkipListener)
+                .build();
+    }
 
+    // Same processor and writer as the monthly run; customers that fail again keep their dead letter pending
+    @Bean
+    public Step billingRetryStep(JobRepository jobRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 ItemReader<Customer> deadLetterCustomerItemReader,
+                                 TaskExecutor billingProcessorTaskExecutor) {
+        return new StepBuilder("billingRetryStep", jobRepository)
+                .<Customer, AsyncItem<Customer, BillingProcessCustomer>>chunk(5).transactionManager(transactionManager)
+                .reader(deadLetterCustomerItemReader)
+                .processor(asyncBillingProcessItemProcessor(billingProcessorTaskExecutor))
+                .writer(asyncBillingProcessItemWriter())
+                .listener(billingRetryWriteListener)
+                .faultTolerant()
+                .retryPolicy(billingRetryPolicy())
+                .skipPolicy(new BillingProcessSkipPolicy(billingSkipLimit))
+                .skipListener(billingProcessSkipListener)
+                .build();
+    }
+
+    // Customers of a chunk are simulated concurrently on billingProcessorTaskExecutor while the chunk thread keeps
+    // reading; the writer then waits for every result. Each simulation runs in its own transaction on the worker thread,
+    // and is retried there on transient errors
+    private AsyncItemProcessor<Customer, BillingProcessCustomer> asyncBillingProcessItemProcessor(TaskExecutor billingProcessorTaskExecutor) {
+        return new AsyncItemProcessor<>(billingProcessItemProcessor, billingProcessorTaskExecutor, billingRetryPolicy());
+    }
+
+    private AsyncItemWriter<Customer, BillingProcessCustomer> asyncBillingProcessItemWriter() {
+        return new AsyncItemWriter<>(billingProcessItemWriter);
+    }
+
+    // Only transient database errors are retried, with exponential backoff
+    private RetryPolicy billingRetryPolicy() {
         int retryLimit = 3;
-        RetryPolicy retryPolicy = RetryPolicy.builder()
+        return RetryPolicy.builder()
                 .maxRetries(retryLimit)
+                .includes(TransientDataAccessException.class, CannotCreateTransactionException.class)
+                .delay(Duration.ofMillis(500))
+                .multiplier(2)
+                .maxDelay(Duration.ofSeconds(10))
                 .build();
+    }
 
+    @Bean
+    public PartitionHandler billingProcessPartitionHandler(JobRepository jobRepository,
+                                                           Step billingProcessStep,
+                                                           TaskExecutor batchTaskExecutor,
+                                                           IPartitionRequestChannel partitionRequestChannel) {
+        if ("remote".equalsIgnoreCase(billingPartitionMode)) {
+            return new RemotePartitionHandler(
+                    billingProcessStep.getName(),
+                    partitionRequestChannel,
+                    jobRepository,
+                    billingPartitionGridSize,
+                    remotePartitionPollInterval,
+                    remotePartitionClaimTimeout,
+                    remotePartitionTimeout);
+        }
 
-        return new StepBuilder("billingProcessStep", jobRepository)
-                .<Customer, BillingProcessCustomer>chunk(5).transactionManager(transactionManager)
-                .reader(reader)
-                .processor(billingProcessItemProcessor)
-                .writer(billingProcessItemWriter)
-                .retryPolicy(retryPolicy)
+        TaskExecutorPartitionHandler partitionHandler = new TaskExecutorPartitionHandler();
+        partitionHandler.setStep(billingProcessStep);
+        partitionHandler.setGridSize(billingPartitionGridSize);
+        partitionHandler.setTaskExecutor(batchTaskExecutor);
+        return partitionHandler;
+    }
+
+    @Bean
+    public Step billingProcessPartitionedStep(JobRepository jobRepository,
+                                              Step billingProcessStep,
+                                              BillingProcessPartitioner billingProcessPartitioner,
+                                              PartitionHandler billingProcessPartitionHandler) {
+        return new StepBuilder("billingProcessPartitionedStep", jobRepository)
+                .partitioner(billingProcessStep.getName(), billingProcessPartitioner)
+                .partitionHandler(billingProcessPartitionHandler)
                 .build();
     }
 
+    // Scoped to the billingProcessId job parameter when there is one, otherwise every billed request is marked
+    @Bean
+    public Step markBilledServiceRequestsStep(JobRepository jobRepository,
+                                              PlatformTransactionManager transactionManager,
+                                              MarkBilledServiceRequestsTasklet markBilledServiceRequestsTasklet) {
+        return new StepBuilder("markBilledServiceRequestsStep", jobRepository)
+                .tasklet(markBilledServiceRequestsTasklet, transactionManager)
+                .build();
+    }
+
+    // Once the period is billed its requests leave DONE, so later runs and previews no longer scan them.
+    // The scheduler's lease is held until the job ends, not just until it is launched
     @Bean
     public Job billingProcessJob(JobRepository jobRepository,
-                                 Step billingProcessStep) {
+                                 Step billingProcessPartitionedStep,
+                                 Step markBilledServiceRequestsStep) {
         String jobName = "monthlyBillingProcessJob";
         return new JobBuilder(jobName, jobRepository)
-                .start(billingProcessStep)
+                .listener(leaseJobExecutionListener)
+                .start(billingProcessPartitionedStep)
+                .next(markBilledServiceRequestsStep)
+                .build();
+    }
+
+    @Bean
+    public Job billingRetryJob(JobRepository jobRepository,
+                               Step billingRetryStep,
+                               Step markBilledServiceRequestsStep) {
+        String jobName = "billingRetryJob";
+        return new JobBuilder(jobName, jobRepository)
+                .start(billingRetryStep)
+                .next(markBilledServiceRequestsStep)
+                .build();
+    }
+
+    // Service requests finished before billable_minutes existed. Pages are keyed on the id, so updated rows leaving
+    // the WHERE clause don't shift the next page, and a restart resumes after the last committed id
+    @Bean
+    @StepScope
+    public JdbcPagingItemReader<BillableMinutesBackfillItem> billableMinutesBackfillReader(DataSource dataSource) {
+        return new JdbcPagingItemReaderBuilder<BillableMinutesBackfillItem>()
+                .name("billableMinutesBackfillReader")
+                .dataSource(dataSource)
+                .selectClause("SELECT id, registered_at, finished_at")
+                .fromClause("FROM service_request")
+                .whereClause("WHERE billable_minutes IS NULL AND registered_at IS NOT NULL AND finished_at >= registered_at")
+                .sortKeys(Map.of("id", Order.ASCENDING))
+                .rowMapper((rs, rowNum) -> new BillableMinutesBackfillItem(
+                        rs.getLong("id"),
+                        BillableMinutes.between(
+                                rs.getTimestamp("registered_at").toLocalDateTime(),
+                                rs.getTimestamp("finished_at").toLocalDateTime())))
+                .pageSize(billableMinutesBackfillChunkSize)
+                .saveState(true)
+                .build();
+    }
+
+    @Bean
+    public JdbcBatchItemWriter<BillableMinutesBackfillItem> billableMinutesBackfillWriter(DataSource dataSource) {
+        return new JdbcBatchItemWriterBuilder<BillableMinutesBackfillItem>()
+                .dataSource(dataSource)
+                .sql("UPDATE service_request SET billable_minutes = ? WHERE id = ?")
+                .itemPreparedStatementSetter((item, ps) -> {
+                    ps.setInt(1, item.billableMinutes());
+                    ps.setLong(2, item.serviceRequestId());
+                })
+                .build();
+    }
+
+    @Bean
+    public Step billableMinutesBackfillStep(JobRepository jobRepository,
+                                            PlatformTransactionManager transactionManager,
+                                            ItemReader<BillableMinutesBackfillItem> billableMinutesBackfillReader,
+                                            JdbcBatchItemWriter<BillableMinutesBackfillItem> billableMinutesBackfillWriter) {
+        return new StepBuilder("billableMinutesBackfillStep", jobRepository)
+                .<BillableMinutesBackfillItem, BillableMinutesBackfillItem>chunk(billableMinutesBackfillChunkSize).transactionManager(transactionManager)
+                .reader(billableMinutesBackfillReader)
+                .writer(billableMinutesBackfillWriter)
+                .build();
+    }
+
+    @Bean
+    public Job billableMinutesBackfillJob(JobRepository jobRepository,
+                                          Step billableMinutesBackfillStep) {
+        String jobName = "billableMinutesBackfillJob";
+        return new JobBuilder(jobName, jobRepository)
+                .start(billableMinutesBackfillStep)
+                .build();
+    }
+
+    // Bills of billing processes registered before the retention window. Pages are keyed on the id, so the rows
+    // deleted by each chunk don't shift the next page, and a restart resumes after the last archived bill
+    @Bean
+    @StepScope
+    public JdbcPagingItemReader<Long> billArchiveReader(DataSource dataSource,
+                                                        @Value("#{jobParameters['archiveBefore']}") LocalDateTime archiveBefore) {
+        return new JdbcPagingItemReaderBuilder<Long>()
+                .name("billArchiveReader")
+                .dataSource(dataSource)
+                .selectClause("SELECT bpc.id")
+                .fromClause("FROM billing_process_customer bpc JOIN billing_process bp ON bp.id = bpc.billing_process")
+                .whereClause("WHERE bp.registered_at < :archiveBefore")
+                .parameterValues(Map.of("archiveBefore", archiveBefore))
+                .sortKeys(Map.of("bpc.id", Order.ASCENDING))
+                .rowMapper((rs, rowNum) -> rs.getLong("id"))
+                .pageSize(billArchiveChunkSize)
+                .saveState(true)
+                .build();
+    }
+
+    @Bean
+    public Step billArchiveStep(JobRepository jobRepository,
+                                PlatformTransactionManager transactionManager,
+                                ItemReader<Long> billArchiveReader,
+                                BillArchiveProcessor billArchiveProcessor,
+                                BillArchiveWriter billArchiveWriter) {
+        return new StepBuilder("billArchiveStep", jobRepository)
+                .<Long, ArchivedBill>chunk(billArchiveChunkSize).transactionManager(transactionManager)
+                .reader(billArchiveReader)
+                .processor(billArchiveProcessor)
+                .writer(billArchiveWriter)
+                .listener(leaseFencingWriteListener)
+                .build();
+    }
+
+    // Runs on the JobRepository's transaction manager, the BATCH_* tables may live in their own pool
+    @Bean
+    public Step batchMetadataPurgeStep(JobRepository jobRepository,
+                                       @Qualifier("batchMetadataTransactionManager") PlatformTransactionManager batchMetadataTransactionManager,
+                                       BatchMetadataPurgeTasklet batchMetadataPurgeTasklet) {
+        return new StepBuilder("batchMetadataPurgeStep", jobRepository)
+                .tasklet(batchMetadataPurgeTasklet, batchMetadataTransactionManager)
+                .build();
+    }
+
+    // Requests are marked billed first, so the archive step can delete the ones it has archived
+    @Bean
+    public Job billingArchiveJob(JobRepository jobRepository,
+                                 Step markBilledServiceRequestsStep,
+                                 Step billArchiveStep,
+                                 Step batchMetadataPurgeStep) {
+        String jobName = "billingArchiveJob";
+        return new JobBuilder(jobName, jobRepository)
+                .listener(leaseJobExecutionListener)
+                .start(markBilledServiceRequestsStep)
+                .next(billArchiveStep)
+                .next(batchMetadataPurgeStep)
                 .build();
     }
 
@@ -79,11 +426,25 @@ public class BatchConfig {
         return new SimpleAsyncTaskExecutor();
     }
 
+    // Bounded pool shared by every partition. When the queue is full the chunk thread runs the simulation itself,
+    // which caps the simulations in flight and slows the readers down instead of buffering customers without limit
+    @Bean(name = "billingProcessorTaskExecutor")
+    public TaskExecutor billingProcessorTaskExecutor() {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(billingAsyncPoolSize);
+        taskExecutor.setMaxPoolSize(billingAsyncPoolSize);
+        taskExecutor.setQueueCapacity(billingAsyncQueueCapacity);
+        taskExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        taskExecutor.setThreadNamePrefix("billing-processor-");
+        taskExecutor.setWaitForTasksToCompleteOnShutdown(true);
+        return taskExecutor;
+    }
+
     @Bean
-    public JobOperatorFactoryBean jobOperator(JobRepository jobRepository, TaskExecutor taskExecutor) {
+    public JobOperatorFactoryBean jobOperator(JobRepository jobRepository, TaskExecutor batchTaskExecutor) {
         JobOperatorFactoryBean jobOperatorFactoryBean = new JobOperatorFactoryBean();
         jobOperatorFactoryBean.setJobRepository(jobRepository);
-        jobOperatorFactoryBean.setTaskExecutor(taskExecutor);
+        jobOperatorFactoryBean.setTaskExecutor(batchTaskExecutor);
         return jobOperatorFactoryBean;
     }
 
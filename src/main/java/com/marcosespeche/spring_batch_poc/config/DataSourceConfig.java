@@ -0,0 +1,140 @@
+package com.marcosespeche.spring_batch_poc.config;
+
+import com.marcosespeche.spring_batch_poc.config.WorkloadRoutingDataSource.Workload;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Connection pools per workload. By default the application uses the single pool auto-configured from
+ * {@code spring.datasource}. With {@code app.datasource.isolation.enabled=true} it opens three Hikari pools instead,
+ * each sized and tuned under {@code app.datasource.<pool>}:
+ * <ul>
+ *     <li>{@code api}: connections of threads serving HTTP requests</li>
+ *     <li>{@code batch}: business data read and written by jobs, the scheduler and partition workers</li>
+ *     <li>{@code batch-metadata}: the {@code BATCH_*} tables of the JobRepository</li>
+ * </ul>
+ * JPA and JDBC templates go through {@link WorkloadRoutingDataSource}, so the same repositories use either pool.
+ * Pools are started on their first connection, so a role that never uses one doesn't open it.
+ * <p>
+ * With {@code app.datasource.replica.enabled=true} as well, {@link ReadOnlyTransactional} work is served by a
+ * {@code replica} pool through {@link LagAwareReplicaDataSource}. The JobRepository always stays on the primary.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    // The JobRepository (BatchConfig) always references these names, here they point to the only pool
+    @Configuration
+    @ConditionalOnProperty(name = "app.datasource.isolation.enabled", havingValue = "false", matchIfMissing = true)
+    static class SharedPoolConfig {
+
+        @Bean
+        static BeanDefinitionRegistryPostProcessor batchMetadataAliases() {
+            return registry -> {
+                registry.registerAlias("dataSource", "batchMetadataDataSource");
+                registry.registerAlias("transactionManager", "batchMetadataTransactionManager");
+            };
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "app.datasource.isolation.enabled", havingValue = "true")
+    static class IsolatedPoolsConfig {
+
+        // URL and credentials come from spring.datasource, everything under app.datasource.<pool> overrides them
+        @Bean
+        @ConfigurationProperties("app.datasource.api")
+        public HikariDataSource apiDataSource(DataSourceProperties dataSourceProperties) {
+            return createPool(dataSourceProperties, "api");
+        }
+
+        @Bean
+        @ConfigurationProperties("app.datasource.batch")
+        public HikariDataSource batchDataSource(DataSourceProperties dataSourceProperties) {
+            return createPool(dataSourceProperties, "batch");
+        }
+
+        @Bean
+        @ConfigurationProperties("app.datasource.metadata")
+        public HikariDataSource batchMetadataDataSource(DataSourceProperties dataSourceProperties) {
+            return createPool(dataSourceProperties, "batch-metadata");
+        }
+
+        @Bean
+        @ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+        @ConfigurationProperties("app.datasource.replica")
+        public HikariDataSource replicaDataSource(DataSourceProperties dataSourceProperties) {
+            return createPool(dataSourceProperties, "replica");
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(@Qualifier("apiDataSource") DataSource apiDataSource,
+                                     @Qualifier("batchDataSource") DataSource batchDataSource,
+                                     @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                                     @Value("${app.datasource.replica.max-lag:5s}") Duration replicaMaxLag,
+                                     @Value("${app.datasource.replica.lag-check-interval:5s}") Duration replicaLagCheckInterval,
+                                     @Value("${app.datasource.replica.lag-query:}") String replicaLagQuery) {
+            WorkloadRoutingDataSource dataSource = new WorkloadRoutingDataSource();
+            dataSource.setTargetDataSources(Map.of(
+                    Workload.API, apiDataSource,
+                    Workload.BATCH, batchDataSource));
+            dataSource.setDefaultTargetDataSource(batchDataSource);
+            dataSource.afterPropertiesSet();
+
+            DataSource replica = replicaDataSource.getIfAvailable();
+            if (replica == null) return dataSource;
+
+            String lagQuery = replicaLagQuery.isBlank() ? LagAwareReplicaDataSource.POSTGRESQL_LAG_QUERY : replicaLagQuery;
+            return replicaRouting(dataSource, new LagAwareReplicaDataSource(
+                    replica, dataSource, replicaMaxLag, replicaLagCheckInterval, lagQuery));
+        }
+
+        // Declaring any transaction manager turns off the auto-configured JPA one, so it is declared here as well
+        @Bean
+        @Primary
+        public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+
+        // Step metadata is committed on its own connection, before the chunk it describes. If the chunk commit then
+        // fails the step ends UNKNOWN, and the writer skips customers already billed if it is forced to run again
+        @Bean
+        public PlatformTransactionManager batchMetadataTransactionManager(@Qualifier("batchMetadataDataSource") DataSource batchMetadataDataSource) {
+            return new JdbcTransactionManager(batchMetadataDataSource);
+        }
+
+        // Connections are fetched when the first statement runs, after the transaction manager has marked them
+        // read-only, so read-only transactions get a replica connection and the rest a primary one
+        static DataSource replicaRouting(DataSource primaryDataSource, DataSource readOnlyDataSource) {
+            LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+            dataSource.setReadOnlyDataSource(readOnlyDataSource);
+            return dataSource;
+        }
+
+        private static HikariDataSource createPool(DataSourceProperties dataSourceProperties, String poolName) {
+            HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .build();
+            dataSource.setPoolName(poolName);
+            return dataSource;
+        }
+    }
+}
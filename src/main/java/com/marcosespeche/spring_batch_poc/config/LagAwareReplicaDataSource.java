@@ -0,0 +1,100 @@
+package com.marcosespeche.spring_batch_poc.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read replica that steps aside while it is behind. Every {@code checkInterval} the first caller measures the replay
+ * lag with {@code lagQuery} (seconds); while it exceeds {@code maxLag}, or the replica can't be reached, connections
+ * are taken from the primary instead.
+ */
+@Slf4j
+public class LagAwareReplicaDataSource extends DelegatingDataSource {
+
+    // Zero while the replica has replayed everything it received, so an idle primary doesn't look like lag
+    public static final String POSTGRESQL_LAG_QUERY = """
+            SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END
+            """;
+
+    private final DataSource primaryDataSource;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+    private final String lagQuery;
+    private final AtomicLong nextCheckAt = new AtomicLong();
+    private volatile boolean replicaUsable = true;
+
+    public LagAwareReplicaDataSource(DataSource replicaDataSource,
+                                     DataSource primaryDataSource,
+                                     Duration maxLag,
+                                     Duration checkInterval,
+                                     String lagQuery) {
+        super(replicaDataSource);
+        this.primaryDataSource = primaryDataSource;
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+        this.lagQuery = lagQuery;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (isReplicaUsable()) {
+            try {
+                return obtainTargetDataSource().getConnection();
+            } catch (SQLException e) {
+                updateReplicaUsable(false, "unreachable: " + e.getMessage());
+            }
+        }
+        return primaryDataSource.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    private boolean isReplicaUsable() {
+        long now = System.currentTimeMillis();
+        long checkAt = nextCheckAt.get();
+
+        // Only one thread measures per interval, the rest keep the last result
+        if (now >= checkAt && nextCheckAt.compareAndSet(checkAt, now + checkInterval.toMillis())) {
+            checkLag();
+        }
+        return replicaUsable;
+    }
+
+    private void checkLag() {
+        try (Connection connection = obtainTargetDataSource().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+
+            resultSet.next();
+            double lagSeconds = resultSet.getDouble(1);
+            boolean withinLimit = lagSeconds * 1000 <= maxLag.toMillis();
+            updateReplicaUsable(withinLimit, "lag of " + lagSeconds + "s");
+
+        } catch (SQLException e) {
+            updateReplicaUsable(false, "unreachable: " + e.getMessage());
+        }
+    }
+
+    private void updateReplicaUsable(boolean usable, String reason) {
+        if (replicaUsable == usable) return;
+
+        replicaUsable = usable;
+        if (usable) {
+            log.info("Read replica back in use ({})", reason);
+        } else {
+            log.warn("Read replica not used until the next check in {}, reads go to the primary ({})", checkInterval, reason);
+        }
+    }
+}
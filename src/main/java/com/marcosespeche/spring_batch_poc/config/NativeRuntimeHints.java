@@ -0,0 +1,117 @@
+package com.marcosespeche.spring_batch_poc.config;
+
+import com.marcosespeche.spring_batch_poc.aspects.LoggingAspect;
+import com.marcosespeche.spring_batch_poc.domain.agreements.dtos.ReadAgreementDTO;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.archive.BillArchive;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.BillingProcessItemProcessor;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.BillingProcessItemWriter;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.BillingProcessPartitioner;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.BillingProcessSkipListener;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.BillingRetryWriteListener;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.PrefetchingItemReader;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.dtos.ReadBillingProcessDTO;
+import com.marcosespeche.spring_batch_poc.domain.customers.dtos.ReadCustomerDTO;
+import com.marcosespeche.spring_batch_poc.domain.projects.dtos.ReadProjectDTO;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes.dtos.ReadServiceRequestTypeDTO;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.backfill.BillableMinutesBackfillItem;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.CustomerServiceRequestCountDTO;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.ReadServiceRequestDTO;
+import com.marcosespeche.spring_batch_poc.entities.*;
+import com.marcosespeche.spring_batch_poc.mappers.*;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.lang.reflect.Method;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hints for the native image ({@code mvn -Pnative native:compile}) that the AOT engine can't infer from the bean
+ * definitions alone.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<Class<?>> ENTITIES = List.of(
+            Agreement.class,
+            BaseEntity.class,
+            BillingPartitionRequest.class,
+            BillingProcess.class,
+            BillingProcessAgreement.class,
+            BillingProcessArchive.class,
+            BillingProcessCustomer.class,
+            BillingProcessDeadLetter.class,
+            BillingProcessServiceRequestType.class,
+            BillingProcessSimulation.class,
+            Customer.class,
+            Project.class,
+            SchedulerLease.class,
+            ServiceRequest.class,
+            ServiceRequestType.class);
+
+    private static final List<Class<?>> MAPPERS = List.of(
+            AgreementMapper.class,
+            BillingPreviewMapper.class,
+            CustomerMapper.class,
+            ProjectMapper.class,
+            ServiceRequestMapper.class,
+            ServiceRequestTypeMapper.class);
+
+    // Built by JPQL constructor expressions in the repositories
+    private static final List<Class<?>> PROJECTIONS = List.of(
+            CustomerServiceRequestCountDTO.class,
+            ReadAgreementDTO.class,
+            ReadBillingProcessDTO.class,
+            ReadCustomerDTO.class,
+            ReadProjectDTO.class,
+            ReadServiceRequestDTO.class,
+            ReadServiceRequestTypeDTO.class);
+
+    // Instantiated through step-scoped proxies, created when the step starts
+    private static final List<Class<?>> STEP_SCOPED_BEANS = List.of(
+            BillingProcessItemProcessor.class,
+            BillingProcessItemWriter.class,
+            BillingProcessPartitioner.class,
+            BillingProcessSkipListener.class,
+            BillingRetryWriteListener.class,
+            PrefetchingItemReader.class);
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Hibernate reads and writes entity fields and builds lazy proxies reflectively
+        ENTITIES.forEach(entity -> hints.reflection().registerType(entity, MemberCategory.values()));
+
+        // YearMonth columns and the 'period' job parameter, parsed from and written as strings
+        hints.reflection().registerType(YearMonth.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.serialization().registerType(YearMonth.class);
+
+        // Mappers are plain generated beans, but the DTOs they return are serialized by Jackson, sometimes nested
+        // in types (Page, List) the controller hints don't reach
+        BindingReflectionHintsRegistrar bindingHints = new BindingReflectionHintsRegistrar();
+        MAPPERS.stream()
+                .flatMap(mapper -> Arrays.stream(mapper.getDeclaredMethods()))
+                .map(Method::getGenericReturnType)
+                .forEach(type -> bindingHints.registerReflectionHints(hints.reflection(), type));
+
+        // Hibernate looks up their constructors reflectively, and the list endpoints return them to Jackson
+        PROJECTIONS.forEach(projection -> {
+            hints.reflection().registerType(projection, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+            bindingHints.registerReflectionHints(hints.reflection(), projection);
+        });
+
+        // Archived bills are written as JSON by billingArchiveJob
+        bindingHints.registerReflectionHints(hints.reflection(), BillArchive.class);
+
+        // Advice methods are resolved reflectively when the proxies of the services are created
+        hints.reflection().registerType(LoggingAspect.class, MemberCategory.INVOKE_DECLARED_METHODS);
+
+        STEP_SCOPED_BEANS.forEach(bean -> hints.reflection().registerType(bean,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS));
+        hints.reflection().registerType(BillableMinutesBackfillItem.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+        // JCache regions configuration, loaded from classpath:hibernate-caches.conf
+        hints.resources().registerPattern("hibernate-caches.conf");
+    }
+}
@@ -0,0 +1,19 @@
+package com.marcosespeche.spring_batch_poc.config;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Read-only transaction, served by the read replica when {@code app.datasource.replica.enabled=true}.
+ * {@code jakarta.transaction.Transactional} has no read-only flag, so read paths use this one instead.
+ * Methods called from it join the same read-only transaction and must not write.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Transactional(readOnly = true)
+public @interface ReadOnlyTransactional {
+}
@@ -0,0 +1,11 @@
+package com.marcosespeche.spring_batch_poc.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@Profile("!api")
+@EnableScheduling
+public class SchedulingConfig {
+}
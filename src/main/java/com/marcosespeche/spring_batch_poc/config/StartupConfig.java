@@ -0,0 +1,39 @@
+package com.marcosespeche.spring_batch_poc.config;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+
+@Configuration
+@Profile("startup")
+public class StartupConfig {
+
+    private static final String SPRINGDOC_PACKAGE = "org.springdoc.";
+
+    // Only the web layer is created on its first request: controllers and springdoc's beans. Everything else stays
+    // eager, so scheduled methods are registered on startup, the first billing run doesn't pay for building the job
+    // graph, and configuration errors still fail the startup instead of the first request
+    @Bean
+    static BeanFactoryPostProcessor lazyWebBeans() {
+        return beanFactory -> {
+            for (String beanName : beanFactory.getBeanDefinitionNames()) {
+                Class<?> beanType = beanFactory.getType(beanName, false);
+                if (beanType == null || !isWebBean(beanType)) continue;
+
+                BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+                beanDefinition.setLazyInit(true);
+            }
+        };
+    }
+
+    private static boolean isWebBean(Class<?> beanType) {
+        return AnnotatedElementUtils.hasAnnotation(beanType, Controller.class)
+                || AnnotatedElementUtils.hasAnnotation(beanType, ControllerAdvice.class)
+                || beanType.getName().startsWith(SPRINGDOC_PACKAGE);
+    }
+}
@@ -0,0 +1,22 @@
+package com.marcosespeche.spring_batch_poc.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Hands out connections from the API pool to threads serving an HTTP request and from the batch pool to everything
+ * else (chunk and partition threads, async simulations, the scheduler, startup jobs). The pool is chosen when a
+ * transaction or statement first asks for a connection, so a transaction never mixes both pools.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Workload {
+        API,
+        BATCH
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return RequestContextHolder.getRequestAttributes() != null ? Workload.API : Workload.BATCH;
+    }
+}
@@ -1,16 +1,35 @@
 package com.marcosespeche.spring_batch_poc.domain.agreements;
 
+import com.marcosespeche.spring_batch_poc.domain.agreements.dtos.ReadAgreementDTO;
 import com.marcosespeche.spring_batch_poc.entities.Agreement;
 import com.marcosespeche.spring_batch_poc.enums.AgreementState;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface AgreementRepository extends JpaRepository<Agreement, Long> {
 
-    Page<Agreement> findByCustomerNameContainingIgnoreCaseOrProjectNameContainingIgnoreCaseOrderByAcceptedAtDesc(String customerName, String projectName, Pageable pageable);
+    @Query(value = """
+            SELECT new com.marcosespeche.spring_batch_poc.domain.agreements.dtos.ReadAgreementDTO(
+                a.id, a.startingPeriod, a.endingPeriod, a.acceptedAt, a.state, c.name, p.name)
+            FROM Agreement a
+            JOIN a.customer c
+            JOIN a.project p
+            WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :#{escape(#customerName)}, '%')) ESCAPE :#{escapeCharacter()} OR LOWER(p.name) LIKE LOWER(CONCAT('%', :#{escape(#projectName)}, '%')) ESCAPE :#{escapeCharacter()}
+            ORDER BY a.acceptedAt DESC
+            """,
+            countQuery = """
+            SELECT COUNT(a) FROM Agreement a
+            JOIN a.customer c
+            JOIN a.project p
+            WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :#{escape(#customerName)}, '%')) ESCAPE :#{escapeCharacter()} OR LOWER(p.name) LIKE LOWER(CONCAT('%', :#{escape(#projectName)}, '%')) ESCAPE :#{escapeCharacter()}
+            """)
+    Page<ReadAgreementDTO> findByCustomerNameContainingIgnoreCaseOrProjectNameContainingIgnoreCaseOrderByAcceptedAtDesc(
+            @Param("customerName") String customerName, @Param("projectName") String projectName, Pageable pageable);
 
     boolean existsByCustomerIdAndStateNot(Long customerId, AgreementState state);
 
@@ -1,8 +1,11 @@
 package com.marcosespeche.spring_batch_poc.domain.agreements;
 
+import com.marcosespeche.spring_batch_poc.config.AfterCommit;
+import com.marcosespeche.spring_batch_poc.config.ReadOnlyTransactional;
 import com.marcosespeche.spring_batch_poc.domain.agreements.dtos.CreateAgreementDTO;
 import com.marcosespeche.spring_batch_poc.domain.agreements.dtos.ReadAgreementDTO;
 import com.marcosespeche.spring_batch_poc.domain.agreements.dtos.UpdateAgreementDTO;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.BillingPreviewCache;
 import com.marcosespeche.spring_batch_poc.domain.customers.CustomerService;
 import com.marcosespeche.spring_batch_poc.domain.projects.ProjectService;
 import com.marcosespeche.spring_batch_poc.entities.Agreement;
@@ -21,6 +24,10 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -29,18 +36,19 @@ public class AgreementService {
     private final AgreementRepository agreementRepository;
     private final AgreementMapper agreementMapper;
     private final ProjectService projectService;
+    private final BillingPreviewCache billingPreviewCache;
 
     @Autowired
-    public AgreementService(AgreementRepository agreementRepository, AgreementMapper agreementMapper, CustomerService customerService, ProjectService projectService) {
+    public AgreementService(AgreementRepository agreementRepository, AgreementMapper agreementMapper, CustomerService customerService, ProjectService projectService, BillingPreviewCache billingPreviewCache) {
         this.agreementRepository = agreementRepository;
         this.agreementMapper = agreementMapper;
         this.projectService = projectService;
+        this.billingPreviewCache = billingPreviewCache;
     }
 
-    @Transactional
+    @ReadOnlyTransactional
     public Page<ReadAgreementDTO> findByCustomerOrProject(String filter, Pageable pageable) {
-        Page<Agreement> result = agreementRepository.findByCustomerNameContainingIgnoreCaseOrProjectNameContainingIgnoreCaseOrderByAcceptedAtDesc(filter, filter, pageable);
-        return result.map(agreementMapper::toReadAgreementDTO);
+        return agreementRepository.findByCustomerNameContainingIgnoreCaseOrProjectNameContainingIgnoreCaseOrderByAcceptedAtDesc(filter, filter, pageable);
     }
 
     @Transactional
@@ -89,6 +97,7 @@ public class AgreementService {
         agreement.setEndingPeriod(YearMonth.of(dto.endingYear(), dto.endingMonth()));
 
         agreementRepository.save(agreement);
+        evictBillingPreviews(agreement);
         log.info("Agreement with ID {} updated successfully", id);
 
         return agreementMapper.toReadAgreementDTO(agreement);
@@ -104,6 +113,7 @@ public class AgreementService {
         }
 
         agreementRepository.deleteById(id);
+        evictBillingPreviews(agreement);
     }
 
     @Transactional
@@ -122,6 +132,7 @@ public class AgreementService {
         agreement.setState(AgreementState.ACCEPTED);
 
         agreementRepository.save(agreement);
+        evictBillingPreviews(agreement);
         log.info("Agreement with ID {} accepted successfully", id);
 
         return agreementMapper.toReadAgreementDTO(agreement);
@@ -135,9 +146,17 @@ public class AgreementService {
         });
     }
 
+    @Transactional
+    public Map<Long, Agreement> findAllByIds(Collection<Long> ids) {
+        return agreementRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Agreement::getId, Function.identity()));
+    }
+
     @Transactional
     public Agreement save(Agreement agreement) {
-        return agreementRepository.save(agreement);
+        Agreement saved = agreementRepository.save(agreement);
+        evictBillingPreviews(agreement);
+        return saved;
     }
 
     private static void validatePeriods(int startingYear, int endingYear, int startingMonth, int endingMonth) {
@@ -145,4 +164,11 @@ public class AgreementService {
         if (startingYear == endingYear && startingMonth >= endingMonth) throw new IllegalArgumentException("Starting month can not be later than ending month");
     }
 
+    // Previews of the agreement's customer depend on its state and periods. Evicted once the change is visible,
+    // otherwise a concurrent preview could cache the old agreement again
+    private void evictBillingPreviews(Agreement agreement) {
+        if (agreement.getCustomer() == null) return;
+        Long customerId = agreement.getCustomer().getId();
+        AfterCommit.run(() -> billingPreviewCache.evictCustomer(customerId));
+    }
 }
@@ -0,0 +1,73 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.dtos.ReadBillingPreviewDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, time-limited (customer, period) -> bill preview cache.
+ * Entries are evicted per customer when the data a preview is computed from changes. An eviction only removes the
+ * entries already stored, so each one also bumps the customer's generation, and a preview whose computation started
+ * before it is returned to its caller but not stored.
+ */
+@Component
+public class BillingPreviewCache {
+
+    private final Cache<Key, ReadBillingPreviewDTO> cache;
+
+    // One counter per customer ever evicted, plus one for clear(). Both only grow, so their sum changes on any eviction
+    private final ConcurrentMap<Long, Long> generations = new ConcurrentHashMap<>();
+    private final AtomicLong clearGeneration = new AtomicLong();
+
+    @Autowired
+    public BillingPreviewCache(@Value("${app.cache.billing-previews.maximum-size:1000}") long maximumSize,
+                               @Value("${app.cache.billing-previews.expire-after-write:5m}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    public ReadBillingPreviewDTO get(Long customerId, YearMonth period, Supplier<ReadBillingPreviewDTO> loader) {
+        Key key = new Key(customerId, period);
+        ReadBillingPreviewDTO cached = cache.getIfPresent(key);
+        if (cached != null) return cached;
+
+        long generation = generationOf(customerId);
+        ReadBillingPreviewDTO preview = loader.get();
+
+        cache.asMap().compute(key, (k, current) -> generationOf(customerId) == generation ? preview : current);
+
+        // An eviction that bumped the generation while the entry was being stored may not have seen it yet
+        if (generationOf(customerId) != generation) cache.asMap().remove(key, preview);
+        return preview;
+    }
+
+    public void evictCustomer(Long customerId) {
+        if (customerId == null) return;
+        generations.merge(customerId, 1L, Long::sum);
+        cache.asMap().keySet().removeIf(key -> key.customerId().equals(customerId));
+    }
+
+    public void clear() {
+        clearGeneration.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private long generationOf(Long customerId) {
+        return clearGeneration.get() + generations.getOrDefault(customerId, 0L);
+    }
+
+    private record Key(Long customerId, YearMonth period) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess;
+
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.dtos.ReadBillingPreviewDTO;
+import com.marcosespeche.spring_batch_poc.exceptions.ErrorResponseDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+
+@RestController
+@RequestMapping(path = "/api/v1/billing/preview")
+@Tag(name = "Billing preview", description = "Bill simulations that are not persisted")
+public class BillingPreviewController {
+
+    @Autowired
+    private BillingPreviewService service;
+
+    @Operation(
+            summary = "Preview customer bill",
+            description = "Simulates the bill of a customer for a period with the service requests finished so far, without persisting it"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Bill simulated successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ReadBillingPreviewDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Customer not found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Invalid period",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            )
+    })
+    @GetMapping("/{customerId}")
+    public ResponseEntity<ReadBillingPreviewDTO> preview(
+            @PathVariable Long customerId,
+
+            @Parameter(name = "period", description = "Billed month (yyyy-MM), the current month by default")
+            @RequestParam(required = false) YearMonth period) {
+
+        return ResponseEntity.ok(service.preview(customerId, period != null ? period : YearMonth.now()));
+    }
+}
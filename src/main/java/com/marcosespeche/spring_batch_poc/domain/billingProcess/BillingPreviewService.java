@@ -0,0 +1,55 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess;
+
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.billCalculator.IBillCalculator;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.dtos.ReadBillingPreviewDTO;
+import com.marcosespeche.spring_batch_poc.domain.customers.CustomerService;
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessSimulation;
+import com.marcosespeche.spring_batch_poc.entities.Customer;
+import com.marcosespeche.spring_batch_poc.enums.ServiceRequestState;
+import com.marcosespeche.spring_batch_poc.mappers.BillingPreviewMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@Slf4j
+@Service
+public class BillingPreviewService {
+
+    private final IBillCalculator billCalculator;
+    private final CustomerService customerService;
+    private final BillingPreviewMapper billingPreviewMapper;
+    private final BillingPreviewCache billingPreviewCache;
+
+    @Autowired
+    public BillingPreviewService(IBillCalculator billCalculator,
+                                 CustomerService customerService,
+                                 BillingPreviewMapper billingPreviewMapper,
+                                 BillingPreviewCache billingPreviewCache) {
+        this.billCalculator = billCalculator;
+        this.customerService = customerService;
+        this.billingPreviewMapper = billingPreviewMapper;
+        this.billingPreviewCache = billingPreviewCache;
+    }
+
+    // Not transactional on purpose: a cached preview is returned without touching the database
+    public ReadBillingPreviewDTO preview(Long customerId, YearMonth period) {
+        if (period.isAfter(YearMonth.now())) {
+            log.warn("Bill preview requested for future period {}", period);
+            throw new IllegalArgumentException("The period can not be in the future");
+        }
+
+        return billingPreviewCache.get(customerId, period, () -> simulate(customerId, period));
+    }
+
+    private ReadBillingPreviewDTO simulate(Long customerId, YearMonth period) {
+        Customer customer = customerService.findById(customerId);
+
+        BillingProcessSimulation simulation = billCalculator.simulateCustomerBill(customer, period, List.of(ServiceRequestState.DONE));
+        log.info("Bill preview of customer with ID {} for period {} computed", customerId, period);
+
+        return billingPreviewMapper.toReadBillingPreviewDTO(simulation, customerId, period);
+    }
+}
@@ -0,0 +1,60 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess;
+
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.dtos.ReadBillingRetryDTO;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.retries.BillingRetryRequestService;
+import com.marcosespeche.spring_batch_poc.exceptions.ErrorResponseDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping(path = "/api/v1/billing-processes")
+@Tag(name = "Billing processes", description = "Billing processes management")
+public class BillingProcessController {
+
+    @Autowired
+    private BillingRetryRequestService billingRetryRequestService;
+
+    @Operation(
+            summary = "Retry failed customers",
+            description = "Requests a job that bills only the customers recorded as dead letters in the billing process. " +
+                    "It is launched shortly after by an instance that runs the batch jobs"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Retry requested successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ReadBillingRetryDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Billing process not found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "The billing process has no failed customers to reprocess, or a retry is already waiting to be launched",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            )
+    })
+    @PostMapping("/{id}/retries")
+    public ResponseEntity<ReadBillingRetryDTO> retryFailedCustomers(@PathVariable Long id) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(billingRetryRequestService.request(id));
+    }
+}
@@ -0,0 +1,9 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess;
+
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessCustomer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BillingProcessCustomerRepository extends JpaRepository<BillingProcessCustomer, Long> {
+}
@@ -1,14 +1,35 @@
 package com.marcosespeche.spring_batch_poc.domain.billingProcess;
 
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.dtos.ReadBillingProcessDTO;
 import com.marcosespeche.spring_batch_poc.entities.BillingProcess;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.YearMonth;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BillingProcessRepository extends JpaRepository<BillingProcess, Long> {
 
-    Optional<BillingProcess> existsByPeriod(YearMonth period);
+    Optional<BillingProcess> findByPeriod(YearMonth period);
+
+    @Query(value = """
+            SELECT new com.marcosespeche.spring_batch_poc.domain.billingProcess.dtos.ReadBillingProcessDTO(
+                bp.id, bp.period, bp.registeredAt, bp.totalAmountBillingProcess, bp.state)
+            FROM BillingProcess bp
+            """,
+            countQuery = "SELECT COUNT(bp) FROM BillingProcess bp")
+    Page<ReadBillingProcessDTO> findAllReadDTOs(Pageable pageable);
+
+    @Query("""
+            SELECT bpc.customer.id FROM BillingProcess bp
+            JOIN bp.billingProcessCustomerList bpc
+            WHERE bp.id = :billingProcessId AND bpc.customer.id IN :customerIds
+            """)
+    List<Long> findBilledCustomerIds(@Param("billingProcessId") Long billingProcessId, @Param("customerIds") List<Long> customerIds);
 }
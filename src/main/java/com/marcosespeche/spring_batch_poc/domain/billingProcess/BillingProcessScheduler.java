@@ -1,8 +1,16 @@
 package com.marcosespeche.spring_batch_poc.domain.billingProcess;
 
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.locking.Lease;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.locking.LeaseJobExecutionListener;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.locking.LeaseLock;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.retries.BillingRetryRequestService;
 import com.marcosespeche.spring_batch_poc.entities.BillingProcess;
+import com.marcosespeche.spring_batch_poc.entities.BillingRetryRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.job.Job;
+import org.springframework.batch.core.job.JobExecution;
 import org.springframework.batch.core.job.parameters.InvalidJobParametersException;
 import org.springframework.batch.core.job.parameters.JobParameters;
 import org.springframework.batch.core.job.parameters.JobParametersBuilder;
@@ -10,51 +18,194 @@ import org.springframework.batch.core.launch.JobExecutionAlreadyRunningException
 import org.springframework.batch.core.launch.JobInstanceAlreadyCompleteException;
 import org.springframework.batch.core.launch.JobOperator;
 import org.springframework.batch.core.launch.JobRestartException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.StepExecution;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Optional;
+import java.util.function.Function;
+
 @Slf4j
 @Service
+@Profile("!api")
 public class BillingProcessScheduler {
 
+    private static final String MONTHLY_BILLING_LOCK = "monthly-billing-process";
+
     private final BillingProcessService billingProcessService;
+    private final BillingRetryRequestService billingRetryRequestService;
     private final JobOperator jobOperator;
+    private final JobRepository jobRepository;
+    private final LeaseLock leaseLock;
     private final Job billingProcessJob;
+    private final Job billingRetryJob;
 
     @Autowired
-    public BillingProcessScheduler(BillingProcessService billingProcessService, JobOperator jobOperator, Job billingProcessJob) {
+    public BillingProcessScheduler(BillingProcessService billingProcessService,
+                                   BillingRetryRequestService billingRetryRequestService,
+                                   JobOperator jobOperator,
+                                   JobRepository jobRepository,
+                                   LeaseLock leaseLock,
+                                   @Qualifier("billingProcessJob") Job billingProcessJob,
+                                   @Qualifier("billingRetryJob") Job billingRetryJob) {
         this.billingProcessService = billingProcessService;
+        this.billingRetryRequestService = billingRetryRequestService;
         this.jobOperator = jobOperator;
+        this.jobRepository = jobRepository;
+        this.leaseLock = leaseLock;
         this.billingProcessJob = billingProcessJob;
+        this.billingRetryJob = billingRetryJob;
     }
 
-    // First day of the month
+    // First day of the month. The cron fires on every instance running the batch role, only the lease holder launches.
+    // Once launched, the job holds the lease until it ends (LeaseJobExecutionListener)
     @Scheduled(cron = "0 0 2 1 * ?")
     public void executeMonthlyBillingProcess() {
-        log.info("Starting billing process");
+        runWithLease(lease -> {
+            leaseLock.checkHeld(lease);
+            return launchBillingProcess(lease, createMonthlyBillingProcess());
+        });
+    }
+
+    // The monthly cron fires once, so a run of last month that failed or was left running by a crashed instance is
+    // resumed from here. Nothing is launched once it has completed
+    @Scheduled(cron = "${app.billing.resume-cron:0 30 * * * ?}")
+    public void resumeMonthlyBillingProcess() {
+        Optional<BillingProcess> lastMonth = billingProcessService.findByPeriodIfExists(YearMonth.now().minusMonths(1));
+
+        if (lastMonth.isEmpty()) return;
 
-        BillingProcess monthlyBillingProcess = billingProcessService.createMonthlyBillingProcessIfNotExists();
+        runWithLease(lease -> launchBillingProcess(lease, lastMonth.get()));
+    }
+
+    private void runWithLease(Function<Lease, Boolean> launch) {
+        Optional<Lease> acquired = leaseLock.tryAcquire(MONTHLY_BILLING_LOCK);
 
+        if (acquired.isEmpty()) {
+            log.info("Billing process already being launched or run by another instance");
+            return;
+        }
+
+        boolean launched = false;
+        try {
+            launched = launch.apply(acquired.get());
+        } finally {
+            if (!launched) leaseLock.release(acquired.get());
+        }
+    }
+
+    // Returns whether the job was launched, and so whether it will release the lease
+    private boolean launchBillingProcess(Lease lease, BillingProcess billingProcess) {
+        // Only period and billingProcessId identify the job instance: launching again after a failure
+        // restarts the same instance from its last committed chunk instead of billing the month from scratch
         JobParameters jobParameters = new JobParametersBuilder()
-                .addString("period", monthlyBillingProcess.getPeriod().toString())
-                .addLong("billingProcessId", monthlyBillingProcess.getId())
-                .addLong("timestamp", System.currentTimeMillis())
+                .addString("period", billingProcess.getPeriod().toString())
+                .addLong("billingProcessId", billingProcess.getId())
+                .addString(LeaseJobExecutionListener.LEASE_PARAMETER, lease.name(), false)
+                .addLong(LeaseJobExecutionListener.FENCING_TOKEN_PARAMETER, lease.fencingToken(), false)
                 .toJobParameters();
 
+        JobExecution lastExecution = jobRepository.getLastJobExecution(billingProcessJob.getName(), jobParameters);
+        if (lastExecution != null && lastExecution.getStatus() == BatchStatus.COMPLETED) {
+            log.debug("Billing process for period {} already completed", billingProcess.getPeriod());
+            return false;
+        }
+
         try {
+            // A holder that stalled past its TTL must not start the job once another instance has taken over
+            leaseLock.checkHeld(lease);
+            if (lastExecution != null && lastExecution.isRunning()) failAbandonedExecution(lastExecution);
+
+            log.info("Starting billing process for period {} with fencing token {}", billingProcess.getPeriod(), lease.fencingToken());
             jobOperator.start(billingProcessJob, jobParameters);
+            return true;
+
+        } catch (JobInstanceAlreadyCompleteException e) {
+            log.info("Billing process for period {} already completed", billingProcess.getPeriod());
+            return false;
 
-        } catch (JobExecutionAlreadyRunningException | JobRestartException | JobInstanceAlreadyCompleteException |
-                 InvalidJobParametersException e) {
-            log.error("Error during billing process");
+        } catch (JobExecutionAlreadyRunningException | JobRestartException | InvalidJobParametersException e) {
+            log.error("Error launching the billing process for period {}", billingProcess.getPeriod());
             throw new RuntimeException(e.getMessage(), e);
         }
+    }
+
+    // A running job keeps the lease until it ends, so while this instance holds it an execution still marked as running
+    // was abandoned by an instance that crashed. It is failed, like PartitionWorker does with its partitions, so the
+    // job instance can be restarted instead of being rejected as already running
+    private void failAbandonedExecution(JobExecution jobExecution) {
+        log.warn("Job execution with ID {} was abandoned while {}, marking it as failed", jobExecution.getId(), jobExecution.getStatus());
+        LocalDateTime now = LocalDateTime.now();
 
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            if (!stepExecution.getStatus().isRunning()) continue;
+            stepExecution.setStatus(BatchStatus.FAILED);
+            stepExecution.setExitStatus(ExitStatus.FAILED.addExitDescription("Abandoned by a crashed instance"));
+            stepExecution.setEndTime(now);
+            jobRepository.update(stepExecution);
+        }
+
+        jobExecution.setStatus(BatchStatus.FAILED);
+        jobExecution.setExitStatus(ExitStatus.FAILED.addExitDescription("Abandoned by a crashed instance"));
+        jobExecution.setEndTime(now);
+        jobRepository.update(jobExecution);
     }
 
+    // The unique period is the last line of defence: if another instance created it first, reuse its row
+    private BillingProcess createMonthlyBillingProcess() {
+        try {
+            return billingProcessService.createMonthlyBillingProcessIfNotExists();
 
-}
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Billing process for last month was created concurrently, reusing it");
+            return billingProcessService.findByPeriod(YearMonth.now().minusMonths(1));
+        }
+    }
+
+    // Retries are requested through the API (BillingRetryRequestService), possibly from an instance without batch
+    // beans. Each claimed request launches a job that bills only the customers with pending dead letters
+    @Scheduled(fixedDelayString = "${app.billing.retry-requests.poll-interval-ms:5000}")
+    public void launchRequestedRetries() {
+        Optional<BillingRetryRequest> request;
+        while ((request = billingRetryRequestService.claim()).isPresent()) {
+            launchRetry(request.get());
+        }
+    }
 
+    private void launchRetry(BillingRetryRequest request) {
+        BillingProcess billingProcess = billingProcessService.findById(request.getBillingProcessId());
 
+        // Every request is a new job instance, the previous ones have already marked their customers as reprocessed.
+        // A request claimed again after its first claim expired maps to the same instance, so it isn't launched twice
+        JobParameters jobParameters = new JobParametersBuilder()
+                .addString("period", billingProcess.getPeriod().toString())
+                .addLong("billingProcessId", billingProcess.getId())
+                .addLong("retryRequestId", request.getId())
+                .addLocalDateTime("requestedAt", request.getRequestedAt())
+                .toJobParameters();
 
+        JobExecution lastExecution = jobRepository.getLastJobExecution(billingRetryJob.getName(), jobParameters);
+        if (lastExecution != null) {
+            log.info("Retry request with ID {} was already launched as job execution with ID {}", request.getId(), lastExecution.getId());
+            billingRetryRequestService.markLaunched(request.getId(), lastExecution.getId());
+            return;
+        }
+
+        try {
+            JobExecution jobExecution = jobOperator.start(billingRetryJob, jobParameters);
+            billingRetryRequestService.markLaunched(request.getId(), jobExecution.getId());
+            log.info("Reprocessing failed customers of billing process with ID {}", billingProcess.getId());
+
+        } catch (JobExecutionAlreadyRunningException | JobRestartException | JobInstanceAlreadyCompleteException | InvalidJobParametersException e) {
+            log.error("Error launching the retry of billing process with ID {}", billingProcess.getId(), e);
+            billingRetryRequestService.markFailed(request.getId());
+        }
+    }
+}
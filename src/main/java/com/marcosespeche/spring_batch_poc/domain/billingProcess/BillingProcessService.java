@@ -1,9 +1,9 @@
 package com.marcosespeche.spring_batch_poc.domain.billingProcess;
 
+import com.marcosespeche.spring_batch_poc.config.ReadOnlyTransactional;
 import com.marcosespeche.spring_batch_poc.domain.billingProcess.dtos.ReadBillingProcessDTO;
 import com.marcosespeche.spring_batch_poc.entities.*;
 import com.marcosespeche.spring_batch_poc.enums.BillingProcessState;
-import com.marcosespeche.spring_batch_poc.mappers.BillingProcessMapper;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
@@ -14,32 +14,35 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @Service
 public class BillingProcessService {
 
     private final BillingProcessRepository billingProcessRepository;
-    private final BillingProcessMapper billingProcessMapper;
+    private final BillingProcessCustomerRepository billingProcessCustomerRepository;
 
     @Autowired
-    public BillingProcessService(BillingProcessRepository billingProcessRepository, BillingProcessMapper billingProcessMapper) {
+    public BillingProcessService(BillingProcessRepository billingProcessRepository,
+                                 BillingProcessCustomerRepository billingProcessCustomerRepository) {
         this.billingProcessRepository = billingProcessRepository;
-        this.billingProcessMapper = billingProcessMapper;
+        this.billingProcessCustomerRepository = billingProcessCustomerRepository;
     }
 
-    @Transactional
+    @ReadOnlyTransactional
     public Page<ReadBillingProcessDTO> findAll(Pageable pageable) {
-        Page<BillingProcess> result = billingProcessRepository.findAll(pageable);
-        return result.map(billingProcessMapper::toReadBillingProcessDTO);
+        return billingProcessRepository.findAllReadDTOs(pageable);
     }
 
     @Transactional
     public BillingProcess createMonthlyBillingProcessIfNotExists() {
         YearMonth lastMonth = YearMonth.now().minusMonths(1);
 
-        Optional<BillingProcess> billingProcessOptional = billingProcessRepository.existsByPeriod(lastMonth);
+        Optional<BillingProcess> billingProcessOptional = billingProcessRepository.findByPeriod(lastMonth);
 
         if (billingProcessOptional.isEmpty()) {
 
@@ -51,7 +54,8 @@ public class BillingProcessService {
                     .state(BillingProcessState.REGISTERED)
                     .build();
 
-            billingProcessRepository.save(billingProcess);
+            // Flushed here so a concurrent insert of the same period fails on uk_billing_process_period inside this call
+            billingProcessRepository.saveAndFlush(billingProcess);
 
             return billingProcess;
         }
@@ -64,6 +68,21 @@ public class BillingProcessService {
         this.billingProcessRepository.save(billingProcess);
     }
 
+    // Persists the customers directly against a reference to the billing process, so neither the billing process
+    // nor the customers billed in previous chunks are loaded
+    @Transactional
+    public void addCustomers(Long billingProcessId, List<BillingProcessCustomer> billingProcessCustomers) {
+        BillingProcess billingProcess = billingProcessRepository.getReferenceById(billingProcessId);
+        billingProcessCustomers.forEach(billingProcessCustomer -> billingProcessCustomer.setBillingProcess(billingProcess));
+        billingProcessCustomerRepository.saveAll(billingProcessCustomers);
+    }
+
+    @Transactional
+    public Set<Long> findBilledCustomerIds(Long billingProcessId, List<Long> customerIds) {
+        if (customerIds.isEmpty()) return Set.of();
+        return new HashSet<>(billingProcessRepository.findBilledCustomerIds(billingProcessId, customerIds));
+    }
+
     @Transactional
     public BillingProcess findById(Long id) {
         return billingProcessRepository.findById(id).orElseThrow(() -> {
@@ -72,4 +91,15 @@ public class BillingProcessService {
         });
     }
 
+    public Optional<BillingProcess> findByPeriodIfExists(YearMonth period) {
+        return billingProcessRepository.findByPeriod(period);
+    }
+
+    public BillingProcess findByPeriod(YearMonth period) {
+        return billingProcessRepository.findByPeriod(period).orElseThrow(() -> {
+            log.error("Billing process for period {} was not found", period);
+            return new EntityNotFoundException("Billing process not found");
+        });
+    }
+
 }
@@ -0,0 +1,23 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.archive;
+
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessArchive;
+
+import java.util.List;
+
+// Output of BillArchiveProcessor: the archive row and what has to be deleted once it is saved
+public record ArchivedBill(
+
+        Long billingProcessCustomerId,
+
+        BillingProcessArchive archive,
+
+        List<Long> serviceRequestIds,
+
+        // Billing history rows deleted with the bill, evicted one by one from the second-level cache
+        List<Long> simulationIds,
+
+        List<Long> billingProcessAgreementIds,
+
+        List<Long> billingProcessServiceRequestTypeIds
+) {
+}
@@ -0,0 +1,101 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.job.Job;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.StepContribution;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.infrastructure.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Deletes the {@code BATCH_*} rows of job instances that completed before {@code purgeBefore}, including their
+ * earlier failed attempts. Instances that never completed are kept, so they can still be restarted. Instances of the
+ * monthly billing job are never purged: the completed instance of a period is what makes launching it again fail
+ * with {@code JobInstanceAlreadyCompleteException}. Each call deletes one batch of executions in its own transaction
+ * on the JobRepository's connection pool.
+ */
+@Slf4j
+@Component
+@Profile("!api")
+public class BatchMetadataPurgeTasklet implements Tasklet {
+
+    private static final String NEXT_EXECUTIONS_SQL = """
+            SELECT JOB_EXECUTION_ID, JOB_INSTANCE_ID FROM BATCH_JOB_EXECUTION
+            WHERE JOB_INSTANCE_ID IN (
+                SELECT e.JOB_INSTANCE_ID FROM BATCH_JOB_EXECUTION e
+                JOIN BATCH_JOB_INSTANCE i ON i.JOB_INSTANCE_ID = e.JOB_INSTANCE_ID
+                WHERE e.STATUS = 'COMPLETED' AND e.END_TIME < :purgeBefore AND i.JOB_NAME <> :retainedJobName)
+            ORDER BY JOB_EXECUTION_ID
+            LIMIT :batchSize
+            """;
+
+    // Children first: step contexts, steps, job contexts and parameters, executions
+    private static final List<String> DELETE_EXECUTIONS_SQL = List.of(
+            """
+            DELETE FROM BATCH_STEP_EXECUTION_CONTEXT WHERE STEP_EXECUTION_ID IN (
+                SELECT STEP_EXECUTION_ID FROM BATCH_STEP_EXECUTION WHERE JOB_EXECUTION_ID IN (:ids))
+            """,
+            "DELETE FROM BATCH_STEP_EXECUTION WHERE JOB_EXECUTION_ID IN (:ids)",
+            "DELETE FROM BATCH_JOB_EXECUTION_CONTEXT WHERE JOB_EXECUTION_ID IN (:ids)",
+            "DELETE FROM BATCH_JOB_EXECUTION_PARAMS WHERE JOB_EXECUTION_ID IN (:ids)",
+            "DELETE FROM BATCH_JOB_EXECUTION WHERE JOB_EXECUTION_ID IN (:ids)");
+
+    // Instances whose executions span several batches are deleted with the last one
+    private static final String DELETE_INSTANCES_SQL = """
+            DELETE FROM BATCH_JOB_INSTANCE i
+            WHERE i.JOB_INSTANCE_ID IN (:ids)
+            AND NOT EXISTS (SELECT 1 FROM BATCH_JOB_EXECUTION e WHERE e.JOB_INSTANCE_ID = i.JOB_INSTANCE_ID)
+            """;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final String retainedJobName;
+    private final int batchSize;
+
+    @Autowired
+    public BatchMetadataPurgeTasklet(@Qualifier("batchMetadataDataSource") DataSource batchMetadataDataSource,
+                                     @Qualifier("billingProcessJob") Job billingProcessJob,
+                                     @Value("${app.archive.batch-metadata-purge-batch-size:100}") int batchSize) {
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(batchMetadataDataSource);
+        this.retainedJobName = billingProcessJob.getName();
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        LocalDateTime purgeBefore = (LocalDateTime) chunkContext.getStepContext().getJobParameters().get("purgeBefore");
+
+        List<Map<String, Object>> executions = namedParameterJdbcTemplate.queryForList(NEXT_EXECUTIONS_SQL,
+                Map.of("purgeBefore", Timestamp.valueOf(purgeBefore), "retainedJobName", retainedJobName, "batchSize", batchSize));
+
+        if (executions.isEmpty()) return RepeatStatus.FINISHED;
+
+        List<Long> executionIds = executions.stream()
+                .map(execution -> ((Number) execution.get("JOB_EXECUTION_ID")).longValue())
+                .toList();
+        Set<Long> instanceIds = executions.stream()
+                .map(execution -> ((Number) execution.get("JOB_INSTANCE_ID")).longValue())
+                .collect(Collectors.toSet());
+
+        DELETE_EXECUTIONS_SQL.forEach(sql -> namedParameterJdbcTemplate.update(sql, Map.of("ids", executionIds)));
+        int deletedInstances = namedParameterJdbcTemplate.update(DELETE_INSTANCES_SQL, Map.of("ids", instanceIds));
+        contribution.incrementWriteCount(executionIds.size());
+
+        log.info("Purged {} job executions and {} job instances completed before {}", executionIds.size(), deletedInstances, purgeBefore);
+
+        return executions.size() < batchSize ? RepeatStatus.FINISHED : RepeatStatus.CONTINUABLE;
+    }
+}
@@ -0,0 +1,40 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.archive;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+// Payload of BillingProcessArchive: a customer's bill as it was in the billing tables
+public record BillArchive(
+
+        Long billingProcessId,
+
+        YearMonth period,
+
+        Long customerId,
+
+        Double totalAmount,
+
+        List<ArchivedSimulation> simulations
+) {
+
+    public record ArchivedSimulation(LocalDateTime simulatedAt, Double totalAmount, List<ArchivedAgreement> agreements) {
+    }
+
+    public record ArchivedAgreement(Long agreementId, Double totalAmount, List<ArchivedLine> lines) {
+    }
+
+    public record ArchivedLine(Long serviceRequestTypeId,
+                               Double totalHours,
+                               Double hourlyFee,
+                               Double totalAmount,
+                               List<ArchivedServiceRequest> serviceRequests) {
+    }
+
+    public record ArchivedServiceRequest(Long id,
+                                         String description,
+                                         LocalDateTime registeredAt,
+                                         LocalDateTime finishedAt,
+                                         Integer billableMinutes) {
+    }
+}
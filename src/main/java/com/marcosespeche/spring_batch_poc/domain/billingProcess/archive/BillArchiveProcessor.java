@@ -0,0 +1,141 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.archive;
+
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.archive.BillArchive.ArchivedAgreement;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.archive.BillArchive.ArchivedLine;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.archive.BillArchive.ArchivedServiceRequest;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.archive.BillArchive.ArchivedSimulation;
+import com.marcosespeche.spring_batch_poc.entities.BillingProcess;
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessAgreement;
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessArchive;
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessCustomer;
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessServiceRequestType;
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessSimulation;
+import com.marcosespeche.spring_batch_poc.entities.ServiceRequest;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.infrastructure.item.ItemProcessor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+// Loads the bill of a customer inside the chunk transaction and turns it into a compressed archive row
+@Slf4j
+@Component
+@Profile("!api")
+public class BillArchiveProcessor implements ItemProcessor<Long, ArchivedBill> {
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public BillArchiveProcessor(EntityManager entityManager, ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ArchivedBill process(Long billingProcessCustomerId) throws Exception {
+        BillingProcessCustomer billingProcessCustomer = entityManager.find(BillingProcessCustomer.class, billingProcessCustomerId);
+
+        // Deleted since the page was read, nothing left to archive
+        if (billingProcessCustomer == null) return null;
+
+        BillingProcess billingProcess = billingProcessCustomer.getBillingProcess();
+        List<BillingProcessSimulation> simulations = billingProcessCustomer.getBillingProcessSimulations();
+        List<BillingProcessAgreement> billingProcessAgreements = simulations.stream()
+                .flatMap(simulation -> simulation.getBillingProcessAgreementList().stream())
+                .toList();
+        List<BillingProcessServiceRequestType> lines = billingProcessAgreements.stream()
+                .flatMap(billingProcessAgreement -> billingProcessAgreement.getBillingProcessServiceRequestTypeList().stream())
+                .toList();
+
+        BillArchive billArchive = new BillArchive(
+                billingProcess.getId(),
+                billingProcess.getPeriod(),
+                billingProcessCustomer.getCustomer().getId(),
+                billingProcessCustomer.getTotalAmountCustomer(),
+                simulations.stream()
+                        .map(BillArchiveProcessor::toArchivedSimulation)
+                        .toList());
+
+        List<Long> serviceRequestIds = billArchive.simulations().stream()
+                .flatMap(simulation -> simulation.agreements().stream())
+                .flatMap(agreement -> agreement.lines().stream())
+                .flatMap(line -> line.serviceRequests().stream())
+                .map(ArchivedServiceRequest::id)
+                .distinct()
+                .toList();
+
+        BillingProcessArchive archive = BillingProcessArchive.builder()
+                .billingProcessId(billArchive.billingProcessId())
+                .billingProcessCustomerId(billingProcessCustomerId)
+                .customerId(billArchive.customerId())
+                .period(billArchive.period())
+                .totalAmount(billArchive.totalAmount())
+                .archivedAt(LocalDateTime.now())
+                .payload(compress(billArchive))
+                .build();
+
+        return new ArchivedBill(
+                billingProcessCustomerId,
+                archive,
+                serviceRequestIds,
+                simulations.stream().map(BillingProcessSimulation::getId).distinct().toList(),
+                billingProcessAgreements.stream().map(BillingProcessAgreement::getId).distinct().toList(),
+                lines.stream().map(BillingProcessServiceRequestType::getId).distinct().toList());
+    }
+
+    private byte[] compress(BillArchive billArchive) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, billArchive);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ArchivedSimulation toArchivedSimulation(BillingProcessSimulation simulation) {
+        return new ArchivedSimulation(
+                simulation.getSimulatedAt(),
+                simulation.getTotalAmount(),
+                simulation.getBillingProcessAgreementList().stream()
+                        .map(BillArchiveProcessor::toArchivedAgreement)
+                        .toList());
+    }
+
+    private static ArchivedAgreement toArchivedAgreement(BillingProcessAgreement billingProcessAgreement) {
+        return new ArchivedAgreement(
+                billingProcessAgreement.getAgreement().getId(),
+                billingProcessAgreement.getTotalAmountAgreement(),
+                billingProcessAgreement.getBillingProcessServiceRequestTypeList().stream()
+                        .map(BillArchiveProcessor::toArchivedLine)
+                        .toList());
+    }
+
+    private static ArchivedLine toArchivedLine(BillingProcessServiceRequestType line) {
+        return new ArchivedLine(
+                line.getServiceRequestType().getId(),
+                line.getTotalHours(),
+                line.getHourlyFee(),
+                line.getTotalAmountServiceRequestType(),
+                line.getServiceRequests().stream()
+                        .map(BillArchiveProcessor::toArchivedServiceRequest)
+                        .toList());
+    }
+
+    private static ArchivedServiceRequest toArchivedServiceRequest(ServiceRequest serviceRequest) {
+        return new ArchivedServiceRequest(
+                serviceRequest.getId(),
+                serviceRequest.getDescription(),
+                serviceRequest.getRegisteredAt(),
+                serviceRequest.getFinishedAt(),
+                serviceRequest.getBillableMinutes());
+    }
+}
@@ -0,0 +1,115 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.archive;
+
+import com.marcosespeche.spring_batch_poc.config.AfterCommit;
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessAgreement;
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessServiceRequestType;
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessSimulation;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.batch.infrastructure.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Saves the archive rows of a chunk and deletes the bills they replace, in the same transaction. Every delete is
+ * keyed by the billing process customers of the chunk, so locks are held for one chunk only.
+ */
+@Slf4j
+@Component
+@Profile("!api")
+public class BillArchiveWriter implements ItemWriter<ArchivedBill> {
+
+    // Children first, the tree has no cascading foreign keys
+    private static final List<String> DELETE_BILLS_SQL = List.of(
+            """
+            DELETE FROM billing_process_service_request_type_service_request
+            WHERE billing_process_service_request_type_id IN (
+                SELECT t.id FROM billing_process_service_request_type t
+                JOIN billing_process_agreement a ON a.id = t.billing_process_agreement
+                JOIN billing_process_simulation s ON s.id = a.billing_process_simulation
+                WHERE s.billing_process_customer IN (:ids))
+            """,
+            """
+            DELETE FROM billing_process_service_request_type
+            WHERE billing_process_agreement IN (
+                SELECT a.id FROM billing_process_agreement a
+                JOIN billing_process_simulation s ON s.id = a.billing_process_simulation
+                WHERE s.billing_process_customer IN (:ids))
+            """,
+            """
+            DELETE FROM billing_process_agreement
+            WHERE billing_process_simulation IN (
+                SELECT s.id FROM billing_process_simulation s WHERE s.billing_process_customer IN (:ids))
+            """,
+            "DELETE FROM billing_process_simulation WHERE billing_process_customer IN (:ids)",
+            "DELETE FROM billing_process_customer WHERE id IN (:ids)");
+
+    // Only billed requests no other bill still references
+    private static final String DELETE_SERVICE_REQUESTS_SQL = """
+            DELETE FROM service_request sr
+            WHERE sr.id IN (:ids) AND sr.state = 'BILLED'
+            AND NOT EXISTS (
+                SELECT 1 FROM billing_process_service_request_type_service_request j WHERE j.service_request_id = sr.id)
+            """;
+
+    // Bind parameters per statement stay far below the PostgreSQL limit even for customers with many requests
+    private static final int SERVICE_REQUEST_IDS_PER_DELETE = 1000;
+
+    private final BillingProcessArchiveRepository billingProcessArchiveRepository;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Autowired
+    public BillArchiveWriter(BillingProcessArchiveRepository billingProcessArchiveRepository,
+                             NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                             EntityManager entityManager) {
+        this.billingProcessArchiveRepository = billingProcessArchiveRepository;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void write(Chunk<? extends ArchivedBill> chunk) throws Exception {
+        List<Long> billingProcessCustomerIds = chunk.getItems().stream()
+                .map(ArchivedBill::billingProcessCustomerId)
+                .toList();
+
+        List<Long> serviceRequestIds = chunk.getItems().stream()
+                .flatMap(archivedBill -> archivedBill.serviceRequestIds().stream())
+                .distinct()
+                .toList();
+
+        billingProcessArchiveRepository.saveAll(chunk.getItems().stream().map(ArchivedBill::archive).toList());
+
+        // The loaded bills must not be flushed or served from the persistence context once their rows are gone
+        entityManager.flush();
+        entityManager.clear();
+
+        DELETE_BILLS_SQL.forEach(sql -> namedParameterJdbcTemplate.update(sql, Map.of("ids", billingProcessCustomerIds)));
+
+        int deletedServiceRequests = 0;
+        for (int from = 0; from < serviceRequestIds.size(); from += SERVICE_REQUEST_IDS_PER_DELETE) {
+            List<Long> ids = serviceRequestIds.subList(from, Math.min(from + SERVICE_REQUEST_IDS_PER_DELETE, serviceRequestIds.size()));
+            deletedServiceRequests += namedParameterJdbcTemplate.update(DELETE_SERVICE_REQUESTS_SQL, Map.of("ids", ids));
+        }
+
+        // Billing history is cached read-only, deleted rows would otherwise still be served from the cache. Only the
+        // rows of this chunk are evicted, once the deletes are visible, so the rest of the region stays warm
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        List<ArchivedBill> archivedBills = List.copyOf(chunk.getItems());
+        AfterCommit.run(() -> archivedBills.forEach(archivedBill -> {
+            archivedBill.simulationIds().forEach(id -> cache.evict(BillingProcessSimulation.class, id));
+            archivedBill.billingProcessAgreementIds().forEach(id -> cache.evict(BillingProcessAgreement.class, id));
+            archivedBill.billingProcessServiceRequestTypeIds().forEach(id -> cache.evict(BillingProcessServiceRequestType.class, id));
+        }));
+
+        log.info("Archived {} bills and deleted {} billed service requests", billingProcessCustomerIds.size(), deletedServiceRequests);
+    }
+}
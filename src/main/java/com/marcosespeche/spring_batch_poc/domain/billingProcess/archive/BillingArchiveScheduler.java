@@ -0,0 +1,95 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.archive;
+
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.locking.Lease;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.locking.LeaseJobExecutionListener;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.locking.LeaseLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.job.Job;
+import org.springframework.batch.core.job.parameters.InvalidJobParametersException;
+import org.springframework.batch.core.job.parameters.JobParameters;
+import org.springframework.batch.core.job.parameters.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.launch.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.launch.JobOperator;
+import org.springframework.batch.core.launch.JobRestartException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Slf4j
+@Service
+@Profile("!api")
+public class BillingArchiveScheduler {
+
+    private static final String BILLING_ARCHIVE_LOCK = "billing-archive";
+
+    private final JobOperator jobOperator;
+    private final LeaseLock leaseLock;
+    private final Job billingArchiveJob;
+    private final Duration billingRetention;
+    private final Duration batchMetadataRetention;
+
+    @Autowired
+    public BillingArchiveScheduler(JobOperator jobOperator,
+                                   LeaseLock leaseLock,
+                                   @Qualifier("billingArchiveJob") Job billingArchiveJob,
+                                   @Value("${app.archive.billing-retention:730d}") Duration billingRetention,
+                                   @Value("${app.archive.batch-metadata-retention:180d}") Duration batchMetadataRetention) {
+        this.jobOperator = jobOperator;
+        this.leaseLock = leaseLock;
+        this.billingArchiveJob = billingArchiveJob;
+        this.billingRetention = billingRetention;
+        this.batchMetadataRetention = batchMetadataRetention;
+    }
+
+    // Weekly by default, away from the monthly billing run. A cron of "-" disables it.
+    // Once launched, the job holds the lease until it ends (LeaseJobExecutionListener)
+    @Scheduled(cron = "${app.archive.cron:0 0 4 * * SUN}")
+    public void executeBillingArchive() {
+        Optional<Lease> acquired = leaseLock.tryAcquire(BILLING_ARCHIVE_LOCK);
+
+        if (acquired.isEmpty()) {
+            log.info("Billing archive already being launched by another instance");
+            return;
+        }
+
+        boolean launched = false;
+        try {
+            launchBillingArchive(acquired.get());
+            launched = true;
+        } finally {
+            if (!launched) leaseLock.release(acquired.get());
+        }
+    }
+
+    // Every run is a new job instance. Runs are idempotent, so a failed one is simply covered by the next
+    private void launchBillingArchive(Lease lease) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime archiveBefore = now.minus(billingRetention);
+
+        JobParameters jobParameters = new JobParametersBuilder()
+                .addLocalDateTime("archiveBefore", archiveBefore)
+                .addLocalDateTime("purgeBefore", now.minus(batchMetadataRetention))
+                .addLocalDateTime("requestedAt", now)
+                .addString(LeaseJobExecutionListener.LEASE_PARAMETER, lease.name(), false)
+                .addLong(LeaseJobExecutionListener.FENCING_TOKEN_PARAMETER, lease.fencingToken(), false)
+                .toJobParameters();
+
+        try {
+            leaseLock.checkHeld(lease);
+            jobOperator.start(billingArchiveJob, jobParameters);
+            log.info("Billing archive launched for bills registered before {}", archiveBefore);
+
+        } catch (JobExecutionAlreadyRunningException | JobRestartException | JobInstanceAlreadyCompleteException | InvalidJobParametersException e) {
+            log.error("Error launching the billing archive");
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+}
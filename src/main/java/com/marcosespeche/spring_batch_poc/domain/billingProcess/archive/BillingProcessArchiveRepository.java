@@ -0,0 +1,9 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.archive;
+
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BillingProcessArchiveRepository extends JpaRepository<BillingProcessArchive, Long> {
+}
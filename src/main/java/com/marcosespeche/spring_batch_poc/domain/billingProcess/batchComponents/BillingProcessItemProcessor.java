@@ -1,5 +1,6 @@
 package com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents;
 
+import com.marcosespeche.spring_batch_poc.config.ReadOnlyTransactional;
 import com.marcosespeche.spring_batch_poc.domain.billingProcess.billCalculator.IBillCalculator;
 import com.marcosespeche.spring_batch_poc.entities.BillingProcessCustomer;
 import com.marcosespeche.spring_batch_poc.entities.BillingProcessSimulation;
@@ -7,12 +8,11 @@ import com.marcosespeche.spring_batch_poc.entities.Customer;
 import com.marcosespeche.spring_batch_poc.enums.BillingProcessCustomerState;
 import com.marcosespeche.spring_batch_poc.enums.ServiceRequestState;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.batch.core.annotation.BeforeStep;
 import org.springframework.batch.core.configuration.annotation.StepScope;
-import org.springframework.batch.core.job.parameters.JobParameters;
-import org.springframework.batch.core.step.StepExecution;
 import org.springframework.batch.infrastructure.item.ItemProcessor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import java.time.YearMonth;
@@ -20,27 +20,26 @@ import java.util.List;
 
 @Slf4j
 @Component
+@Profile("!api")
 @StepScope
 public class BillingProcessItemProcessor implements ItemProcessor<Customer, BillingProcessCustomer> {
 
     private final IBillCalculator billCalculator;
-    private YearMonth period;
+    private final YearMonth period;
 
+    // Job parameters are injected rather than read in a @BeforeStep callback: the processor is wrapped by
+    // AsyncItemProcessor, so it is not registered as a step listener
     @Autowired
-    public BillingProcessItemProcessor(IBillCalculator billCalculator) {
+    public BillingProcessItemProcessor(IBillCalculator billCalculator,
+                                       @Value("#{jobParameters['period']}") String period) {
         this.billCalculator = billCalculator;
+        this.period = YearMonth.parse(period);
     }
 
-    @BeforeStep
-    public void beforeStep(StepExecution stepExecution) {
-        JobParameters jobParameters = stepExecution.getJobParameters();
-        String periodString = jobParameters.getString("period");
-        if (periodString != null) {
-            this.period = YearMonth.parse(periodString);
-        }
-    }
-
+    // Runs on the async simulation threads outside the chunk transaction, so its reads can be served by the replica.
+    // Bill previews call the calculator without this and keep reading the primary before being cached
     @Override
+    @ReadOnlyTransactional
     public BillingProcessCustomer process(Customer item) throws Exception {
         List<ServiceRequestState> serviceStatesToBill = List.of(ServiceRequestState.DONE);
         BillingProcessSimulation simulation =  billCalculator.simulateCustomerBill(item, period, serviceStatesToBill);
@@ -1,56 +1,119 @@
 package com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents;
 
 import com.marcosespeche.spring_batch_poc.domain.billingProcess.BillingProcessService;
-import com.marcosespeche.spring_batch_poc.entities.BillingProcess;
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessAgreement;
 import com.marcosespeche.spring_batch_poc.entities.BillingProcessCustomer;
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessSimulation;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.batch.core.annotation.BeforeStep;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.batch.core.configuration.annotation.StepScope;
-import org.springframework.batch.core.job.parameters.JobParameters;
-import org.springframework.batch.core.step.StepExecution;
 import org.springframework.batch.infrastructure.item.Chunk;
 import org.springframework.batch.infrastructure.item.ItemWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 @Component
+@Profile("!api")
 @StepScope
 @Slf4j
 public class BillingProcessItemWriter implements ItemWriter<BillingProcessCustomer> {
 
+    private static final String BILLED_CUSTOMER_CONSTRAINT = "uk_billing_process_customer";
+
     private final BillingProcessService billingProcessService;
-    private Long billingProcessId;
+    private final DistributionSummary managedEntitiesPerChunk;
+    private final Long billingProcessId;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
+    // Wrapped by AsyncItemWriter, so the job parameter is injected instead of read in a @BeforeStep callback
     @Autowired
-    public BillingProcessItemWriter(BillingProcessService billingProcessService) {
+    public BillingProcessItemWriter(BillingProcessService billingProcessService,
+                                    MeterRegistry meterRegistry,
+                                    @Value("#{jobParameters['billingProcessId']}") Long billingProcessId) {
         this.billingProcessService = billingProcessService;
-    }
-
-    @BeforeStep
-    public void beforeStep(StepExecution stepExecution) {
-        JobParameters jobParameters = stepExecution.getJobParameters();
-        Long billingProcessId = jobParameters.getLong("billingProcessId");
-        if (billingProcessId != null) {
-            this.billingProcessId = billingProcessId;
-        }
+        this.billingProcessId = billingProcessId;
+        this.managedEntitiesPerChunk = DistributionSummary.builder("billing.chunk.managed.entities")
+                .description("Entities managed by the persistence context when a billing chunk is written")
+                .baseUnit("entities")
+                .register(meterRegistry);
     }
 
     @Override
     public void write(Chunk<? extends BillingProcessCustomer> chunk) throws Exception {
 
-        List<BillingProcessCustomer> billingProcessCustomers = new ArrayList<>(chunk.getItems());
+        List<Long> customerIds = chunk.getItems().stream()
+                .map(billingProcessCustomer -> billingProcessCustomer.getCustomer().getId())
+                .toList();
 
-        BillingProcess billingProcess = billingProcessService.findById(billingProcessId);
+        // Idempotent per (billing process, customer): customers billed by a previous execution are not billed twice
+        Set<Long> alreadyBilledCustomerIds = billingProcessService.findBilledCustomerIds(billingProcessId, customerIds);
 
-        if (billingProcess.getBillingProcessCustomerList() == null) {
-            billingProcess.setBillingProcessCustomerList(new ArrayList<>(billingProcessCustomers));
-        } else {
-            billingProcess.getBillingProcessCustomerList().addAll(billingProcessCustomers);
+        List<BillingProcessCustomer> billingProcessCustomers = chunk.getItems().stream()
+                .filter(billingProcessCustomer -> !alreadyBilledCustomerIds.contains(billingProcessCustomer.getCustomer().getId()))
+                .map(BillingProcessCustomer.class::cast)
+                .toList();
+
+        if (!alreadyBilledCustomerIds.isEmpty()) {
+            log.info("Customers {} already billed in billing process with ID {}, skipping them", alreadyBilledCustomerIds, billingProcessId);
         }
 
-        billingProcessService.save(billingProcess);
+        if (billingProcessCustomers.isEmpty()) return;
+
+        try {
+            billingProcessService.addCustomers(billingProcessId, billingProcessCustomers);
+
+            // The chunk's entities are flushed and detached, so the persistence context doesn't grow with the run
+            entityManager.flush();
+            managedEntitiesPerChunk.record(entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+            entityManager.clear();
+
+        } catch (Exception e) {
+            // Ids were generated by rolled back inserts; they are cleared so a retry or a skip scan inserts the items again
+            billingProcessCustomers.forEach(BillingProcessItemWriter::clearGeneratedIds);
+
+            // Another execution billed one of these customers after the check above. The chunk is retried as a
+            // transient failure, and the retry finds that customer already billed instead of dead-lettering it
+            if (violates(e, BILLED_CUSTOMER_CONSTRAINT)) {
+                log.warn("Customers of the chunk were billed concurrently in billing process with ID {}, retrying", billingProcessId);
+                throw new ConcurrencyFailureException("Customer already billed in billing process " + billingProcessId, e);
+            }
+            throw e;
+        }
+    }
+
+    private static boolean violates(Throwable e, String constraintName) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(constraintName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void clearGeneratedIds(BillingProcessCustomer billingProcessCustomer) {
+        billingProcessCustomer.setId(null);
+        for (BillingProcessSimulation simulation : billingProcessCustomer.getBillingProcessSimulations()) {
+            simulation.setId(null);
+            for (BillingProcessAgreement agreement : simulation.getBillingProcessAgreementList()) {
+                agreement.setId(null);
+                agreement.getBillingProcessServiceRequestTypeList().forEach(serviceRequestType -> serviceRequestType.setId(null));
+            }
+        }
     }
 }
@@ -0,0 +1,112 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents;
+
+import com.marcosespeche.spring_batch_poc.domain.customers.CustomerService;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.ServiceRequestService;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.CustomerServiceRequestCountDTO;
+import com.marcosespeche.spring_batch_poc.enums.AgreementState;
+import com.marcosespeche.spring_batch_poc.enums.ServiceRequestState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.partition.Partitioner;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Splits customers into contiguous id ranges of roughly the same amount of work, measured as billable service
+ * requests in the period. Only the bounds of each range are stored in the partition's execution context, so the
+ * step metadata and the reader's query stay the same size whatever the number of customers.
+ */
+@Slf4j
+@Component
+@Profile("!api")
+@StepScope
+public class BillingProcessPartitioner implements Partitioner {
+
+    public static final String MIN_CUSTOMER_ID_KEY = "minCustomerId";
+    public static final String MAX_CUSTOMER_ID_KEY = "maxCustomerId";
+    public static final String SERVICE_REQUEST_COUNT_KEY = "serviceRequestCount";
+
+    private final ServiceRequestService serviceRequestService;
+    private final CustomerService customerService;
+    private final YearMonth period;
+
+    @Autowired
+    public BillingProcessPartitioner(ServiceRequestService serviceRequestService,
+                                     CustomerService customerService,
+                                     @Value("#{jobParameters['period']}") String period) {
+        this.serviceRequestService = serviceRequestService;
+        this.customerService = customerService;
+        this.period = YearMonth.parse(period);
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        List<ServiceRequestState> serviceStatesToBill = List.of(ServiceRequestState.DONE);
+        List<AgreementState> agreementStatesToBill = List.of(AgreementState.IN_COURSE, AgreementState.FINISHED);
+
+        Map<Long, Long> serviceRequestsByCustomer = serviceRequestService
+                .countByCustomerAndPeriodAndServiceStateAndAgreementState(period, serviceStatesToBill, agreementStatesToBill)
+                .stream()
+                .collect(Collectors.toMap(CustomerServiceRequestCountDTO::customerId, CustomerServiceRequestCountDTO::serviceRequestCount));
+
+        List<Long> customerIds = new ArrayList<>(customerService.findAllIds());
+        customerIds.sort(null);
+
+        int partitionCount = Math.min(Math.max(gridSize, 1), customerIds.size());
+        long totalLoad = customerIds.stream().mapToLong(id -> weightOf(id, serviceRequestsByCustomer)).sum();
+
+        Map<String, ExecutionContext> result = new HashMap<>();
+        int index = 0;
+        int first = 0;
+        long load = 0;
+        long assignedLoad = 0;
+
+        for (int i = 0; i < customerIds.size(); i++) {
+            long weight = weightOf(customerIds.get(i), serviceRequestsByCustomer);
+            load += weight;
+
+            // The range closes at the customer that brings the running total closest to its share of the work,
+            // leaving at least one customer for each of the remaining ranges
+            boolean lastRange = index == partitionCount - 1;
+            double target = (double) totalLoad * (index + 1) / partitionCount;
+            boolean closeHere = customerIds.size() - (i + 1) <= partitionCount - (index + 1);
+            if (!lastRange && !closeHere) {
+                long next = weightOf(customerIds.get(i + 1), serviceRequestsByCustomer);
+                double reached = assignedLoad + load;
+                closeHere = reached >= target || target - reached < reached + next - target;
+            }
+            if (!closeHere) continue;
+
+            ExecutionContext executionContext = new ExecutionContext();
+            executionContext.putLong(MIN_CUSTOMER_ID_KEY, customerIds.get(first));
+            executionContext.putLong(MAX_CUSTOMER_ID_KEY, customerIds.get(i));
+            executionContext.putLong(SERVICE_REQUEST_COUNT_KEY, load);
+            result.put("partition" + index, executionContext);
+
+            log.info("Billing partition {} assigned customers {} to {} ({}) with {} service requests",
+                    index, customerIds.get(first), customerIds.get(i), i - first + 1, load);
+
+            assignedLoad += load;
+            load = 0;
+            first = i + 1;
+            index++;
+        }
+
+        return result;
+    }
+
+    // Customers without service requests still get an (empty) simulation, so they weigh 1
+    private static long weightOf(Long customerId, Map<Long, Long> serviceRequestsByCustomer) {
+        return Math.max(1L, serviceRequestsByCustomer.getOrDefault(customerId, 0L));
+    }
+}
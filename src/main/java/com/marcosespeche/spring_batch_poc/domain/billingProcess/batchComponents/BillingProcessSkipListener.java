@@ -0,0 +1,49 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents;
+
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.async.AsyncItem;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.deadLetters.BillingProcessDeadLetterService;
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessCustomer;
+import com.marcosespeche.spring_batch_poc.entities.Customer;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.listener.SkipListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records every skipped customer in the dead-letter table, so the run can complete and
+ * the failed customers can be billed separately.
+ */
+@Component
+@Profile("!api")
+@StepScope
+public class BillingProcessSkipListener implements SkipListener<Customer, AsyncItem<Customer, BillingProcessCustomer>> {
+
+    private final BillingProcessDeadLetterService billingProcessDeadLetterService;
+    private final Long billingProcessId;
+
+    @Autowired
+    public BillingProcessSkipListener(BillingProcessDeadLetterService billingProcessDeadLetterService,
+                                      @Value("#{jobParameters['billingProcessId']}") Long billingProcessId) {
+        this.billingProcessDeadLetterService = billingProcessDeadLetterService;
+        this.billingProcessId = billingProcessId;
+    }
+
+    @Override
+    public void onSkipInRead(Throwable t) {
+        billingProcessDeadLetterService.register(billingProcessId, null, "READ", t);
+    }
+
+    @Override
+    public void onSkipInProcess(Customer item, Throwable t) {
+        billingProcessDeadLetterService.register(billingProcessId, item.getId(), "PROCESS", t);
+    }
+
+    @Override
+    public void onSkipInWrite(AsyncItem<Customer, BillingProcessCustomer> item, Throwable t) {
+        // Processing runs asynchronously, so its failures only surface when the writer collects the result
+        String phase = item.failed() ? "PROCESS" : "WRITE";
+        billingProcessDeadLetterService.register(billingProcessId, item.item().getId(), phase, t);
+    }
+}
@@ -0,0 +1,39 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents;
+
+import com.marcosespeche.spring_batch_poc.exceptions.InvalidBillingDataException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.step.skip.SkipPolicy;
+
+import java.util.List;
+
+/**
+ * Skips customers whose data can not be billed, up to a limit. Only the calculator's validation errors qualify:
+ * anything else (a bug such as a NullPointerException, a constraint violation, or a transient database error that
+ * exhausted its retries) fails the step instead of dead-lettering every customer it hits, so it can be fixed and the
+ * run restarted.
+ */
+@Slf4j
+public class BillingProcessSkipPolicy implements SkipPolicy {
+
+    private static final List<Class<? extends Throwable>> SKIPPABLE_EXCEPTIONS = List.of(
+            InvalidBillingDataException.class
+    );
+
+    private final long skipLimit;
+
+    public BillingProcessSkipPolicy(long skipLimit) {
+        this.skipLimit = skipLimit;
+    }
+
+    @Override
+    public boolean shouldSkip(Throwable t, long skipCount) {
+        boolean skippable = SKIPPABLE_EXCEPTIONS.stream().anyMatch(type -> type.isInstance(t));
+
+        if (skippable && skipCount >= skipLimit) {
+            log.error("Skip limit of {} reached in billing process", skipLimit);
+            return false;
+        }
+
+        return skippable;
+    }
+}
@@ -0,0 +1,44 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents;
+
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.async.AsyncItem;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.deadLetters.BillingProcessDeadLetterService;
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessCustomer;
+import com.marcosespeche.spring_batch_poc.entities.Customer;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.listener.ItemWriteListener;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Marks the dead letters of the customers written by the retry job as reprocessed.
+ * Runs inside the chunk transaction, so a rolled back chunk leaves its dead letters pending.
+ */
+@Component
+@Profile("!api")
+@StepScope
+public class BillingRetryWriteListener implements ItemWriteListener<AsyncItem<Customer, BillingProcessCustomer>> {
+
+    private final BillingProcessDeadLetterService billingProcessDeadLetterService;
+    private final Long billingProcessId;
+
+    @Autowired
+    public BillingRetryWriteListener(BillingProcessDeadLetterService billingProcessDeadLetterService,
+                                     @Value("#{jobParameters['billingProcessId']}") Long billingProcessId) {
+        this.billingProcessDeadLetterService = billingProcessDeadLetterService;
+        this.billingProcessId = billingProcessId;
+    }
+
+    @Override
+    public void afterWrite(Chunk<? extends AsyncItem<Customer, BillingProcessCustomer>> items) {
+        List<Long> customerIds = items.getItems().stream()
+                .map(item -> item.item().getId())
+                .toList();
+
+        billingProcessDeadLetterService.markReprocessed(billingProcessId, customerIds);
+    }
+}
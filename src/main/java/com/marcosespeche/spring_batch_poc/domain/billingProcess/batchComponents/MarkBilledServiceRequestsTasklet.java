@@ -0,0 +1,89 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.StepContribution;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.batch.infrastructure.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves the {@code DONE} service requests referenced by a bill to {@code BILLED}, so billing queries stop scanning
+ * them. With a {@code billingProcessId} job parameter only the requests billed by that process are moved, otherwise
+ * those of every bill. Each call handles one batch of ids in its own transaction and stores the last id in the step
+ * execution context, so a restart continues after the last committed batch. Requests already billed are left untouched.
+ * Billed requests drop out of their customers' bill previews. Previews are cached by the instances serving the API,
+ * which this job can't evict from, so they are left to expire after {@code app.cache.billing-previews.expire-after-write}.
+ */
+@Slf4j
+@Component
+@Profile("!api")
+public class MarkBilledServiceRequestsTasklet implements Tasklet {
+
+    static final String LAST_SERVICE_REQUEST_ID = "lastServiceRequestId";
+
+    private static final String NEXT_IDS_SQL = """
+            SELECT DISTINCT j.service_request_id FROM billing_process_service_request_type_service_request j
+            WHERE j.service_request_id > :lastId
+            ORDER BY j.service_request_id
+            LIMIT :batchSize
+            """;
+
+    private static final String NEXT_IDS_OF_BILLING_PROCESS_SQL = """
+            SELECT DISTINCT j.service_request_id FROM billing_process_service_request_type_service_request j
+            JOIN billing_process_service_request_type t ON t.id = j.billing_process_service_request_type_id
+            JOIN billing_process_agreement a ON a.id = t.billing_process_agreement
+            JOIN billing_process_simulation s ON s.id = a.billing_process_simulation
+            JOIN billing_process_customer c ON c.id = s.billing_process_customer
+            WHERE c.billing_process = :billingProcessId AND j.service_request_id > :lastId
+            ORDER BY j.service_request_id
+            LIMIT :batchSize
+            """;
+
+    private static final String MARK_BILLED_SQL = """
+            UPDATE service_request SET state = 'BILLED'
+            WHERE id IN (:ids) AND state = 'DONE'
+            """;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final int batchSize;
+
+    @Autowired
+    public MarkBilledServiceRequestsTasklet(NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                                            @Value("${app.billing.mark-billed-batch-size:1000}") int batchSize) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        ExecutionContext executionContext = chunkContext.getStepContext().getStepExecution().getExecutionContext();
+        long lastId = executionContext.getLong(LAST_SERVICE_REQUEST_ID, 0L);
+        Long billingProcessId = (Long) chunkContext.getStepContext().getJobParameters().get("billingProcessId");
+
+        List<Long> ids = billingProcessId == null
+                ? namedParameterJdbcTemplate.queryForList(NEXT_IDS_SQL,
+                        Map.of("lastId", lastId, "batchSize", batchSize), Long.class)
+                : namedParameterJdbcTemplate.queryForList(NEXT_IDS_OF_BILLING_PROCESS_SQL,
+                        Map.of("billingProcessId", billingProcessId, "lastId", lastId, "batchSize", batchSize), Long.class);
+
+        if (ids.isEmpty()) return RepeatStatus.FINISHED;
+
+        int updated = namedParameterJdbcTemplate.update(MARK_BILLED_SQL, Map.of("ids", ids));
+        contribution.incrementReadCount(ids.size());
+        contribution.incrementWriteCount(updated);
+        executionContext.putLong(LAST_SERVICE_REQUEST_ID, ids.getLast());
+
+        log.debug("Marked {} of {} service requests as billed, up to ID {}", updated, ids.size(), ids.getLast());
+
+        return ids.size() < batchSize ? RepeatStatus.FINISHED : RepeatStatus.CONTINUABLE;
+    }
+}
@@ -0,0 +1,153 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.batch.infrastructure.item.ItemStreamException;
+import org.springframework.batch.infrastructure.item.ItemStreamReader;
+import org.springframework.batch.infrastructure.item.support.AbstractItemCountingItemStreamItemReader;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads from the delegate on a background thread and hands the items over through a bounded queue, so the
+ * next page is fetched while the current items are processed.
+ * <p>
+ * The saved position is the number of items handed to the step, not the delegate's own position, which is ahead by
+ * up to {@code prefetchDepth} items. On restart, counting delegates are positioned with
+ * {@link AbstractItemCountingItemStreamItemReader#setCurrentItemCount(int)}; other delegates are read and discarded
+ * up to the saved position. Like the delegate it wraps, an instance must not be shared between steps.
+ */
+@Slf4j
+public class PrefetchingItemReader<T> implements ItemStreamReader<T> {
+
+    private static final Object END_OF_DATA = new Object();
+
+    private final ItemStreamReader<T> delegate;
+    private final String name;
+    private final String readCountKey;
+    private final int prefetchDepth;
+
+    private BlockingQueue<Object> queue;
+    private Thread producer;
+    private boolean exhausted;
+    private int readCount;
+
+    public PrefetchingItemReader(ItemStreamReader<T> delegate, String name, int prefetchDepth) {
+        if (prefetchDepth < 1) throw new IllegalArgumentException("The prefetch depth must be at least 1");
+        this.delegate = delegate;
+        this.name = name;
+        this.readCountKey = name + ".read.count";
+        this.prefetchDepth = prefetchDepth;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        readCount = executionContext.containsKey(readCountKey) ? executionContext.getInt(readCountKey) : 0;
+        exhausted = false;
+        queue = new ArrayBlockingQueue<>(prefetchDepth);
+
+        // The delegate's own saved position may include prefetched items that were never processed, so it is ignored
+        if (delegate instanceof AbstractItemCountingItemStreamItemReader<T> countingReader) {
+            countingReader.setCurrentItemCount(readCount);
+            delegate.open(new ExecutionContext());
+        } else {
+            delegate.open(new ExecutionContext());
+            skipDelegateItems(readCount);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T read() throws Exception {
+        if (exhausted) return null;
+        if (producer == null) startProducer();
+
+        Object next = queue.take();
+
+        if (next == END_OF_DATA) {
+            exhausted = true;
+            producer = null;
+            return null;
+        }
+
+        // The producer stops after a failure; the next read starts a new one, so a skipped read error moves on
+        // exactly as the delegate would on its own
+        if (next instanceof ReadFailure failure) {
+            producer = null;
+            throw failure.cause();
+        }
+
+        readCount++;
+        return (T) next;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putInt(readCountKey, readCount);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        stopProducer();
+        queue = null;
+        delegate.close();
+    }
+
+    private void startProducer() {
+        BlockingQueue<Object> target = queue;
+        producer = Thread.ofPlatform()
+                .name("prefetch-" + name)
+                .daemon()
+                .start(() -> produce(target));
+    }
+
+    private void produce(BlockingQueue<Object> target) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                T item;
+                try {
+                    item = delegate.read();
+                } catch (Exception e) {
+                    target.put(new ReadFailure(e));
+                    return;
+                }
+
+                if (item == null) {
+                    target.put(END_OF_DATA);
+                    return;
+                }
+                target.put(item);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void stopProducer() {
+        Thread running = producer;
+        producer = null;
+        if (running == null) return;
+
+        running.interrupt();
+        try {
+            running.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while stopping the prefetching thread {}", running.getName());
+        }
+    }
+
+    private void skipDelegateItems(int count) {
+        try {
+            for (int i = 0; i < count; i++) {
+                if (delegate.read() == null) return;
+            }
+        } catch (Exception e) {
+            throw new ItemStreamException("Unable to restore the reader position to item " + count, e);
+        }
+    }
+
+    private record ReadFailure(Exception cause) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.async;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * An item handed to the {@link AsyncItemProcessor} together with the future of its processed result.
+ * The input item is kept so listeners can still identify items whose processing failed.
+ */
+public record AsyncItem<I, O>(I item, Future<O> result) {
+
+    public boolean failed() {
+        return result.isDone() && result.state() == Future.State.FAILED;
+    }
+
+    // Waits for the result and rethrows the processor's own exception, so skip and retry policies classify it as usual
+    public O get() throws Exception {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+}
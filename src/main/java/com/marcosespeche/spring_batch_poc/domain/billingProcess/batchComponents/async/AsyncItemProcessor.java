@@ -0,0 +1,62 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.async;
+
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.core.step.StepExecution;
+import org.springframework.batch.infrastructure.item.ItemProcessor;
+import org.springframework.core.retry.RetryException;
+import org.springframework.core.retry.RetryPolicy;
+import org.springframework.core.retry.RetryTemplate;
+import org.springframework.core.task.TaskExecutor;
+
+import java.util.concurrent.FutureTask;
+
+/**
+ * Submits every item to the delegate processor on a task executor and returns immediately, so the items of a chunk
+ * are processed concurrently while the reader keeps reading. {@link AsyncItemWriter} waits for the results.
+ * <p>
+ * The current step execution is registered on the worker thread, so step-scoped delegates resolve as usual.
+ * Tasks run outside the chunk transaction: transactional delegates open their own transaction and persistence
+ * context on the worker thread, and must not rely on entities managed by the chunk thread.
+ * <p>
+ * Failures matching the retry policy are retried here, on the worker thread. A chunk retried by the step reuses the
+ * items' futures instead of processing them again, so retrying in the writer would only rethrow the same failure.
+ */
+public class AsyncItemProcessor<I, O> implements ItemProcessor<I, AsyncItem<I, O>> {
+
+    private final ItemProcessor<I, O> delegate;
+    private final TaskExecutor taskExecutor;
+    private final RetryTemplate retryTemplate;
+
+    public AsyncItemProcessor(ItemProcessor<I, O> delegate, TaskExecutor taskExecutor) {
+        this(delegate, taskExecutor, RetryPolicy.withMaxRetries(0));
+    }
+
+    public AsyncItemProcessor(ItemProcessor<I, O> delegate, TaskExecutor taskExecutor, RetryPolicy retryPolicy) {
+        this.delegate = delegate;
+        this.taskExecutor = taskExecutor;
+        this.retryTemplate = new RetryTemplate(retryPolicy);
+    }
+
+    @Override
+    public AsyncItem<I, O> process(I item) {
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        StepExecution stepExecution = stepContext != null ? stepContext.getStepExecution() : null;
+
+        FutureTask<O> task = new FutureTask<>(() -> {
+            if (stepExecution != null) StepSynchronizationManager.register(stepExecution);
+            try {
+                return retryTemplate.execute(() -> delegate.process(item));
+            } catch (RetryException e) {
+                // The last failure is rethrown as is, so skip policies still see the processor's own exception
+                if (e.getCause() instanceof Exception cause) throw cause;
+                throw e;
+            } finally {
+                if (stepExecution != null) StepSynchronizationManager.close();
+            }
+        });
+
+        taskExecutor.execute(task);
+        return new AsyncItem<>(item, task);
+    }
+}
@@ -0,0 +1,33 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.async;
+
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.batch.infrastructure.item.ItemWriter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Waits for the results of {@link AsyncItemProcessor} and writes them with the delegate writer in the chunk
+ * transaction. Items filtered by the processor (null results) are dropped, and the first processing failure
+ * is rethrown as is.
+ */
+public class AsyncItemWriter<I, O> implements ItemWriter<AsyncItem<I, O>> {
+
+    private final ItemWriter<O> delegate;
+
+    public AsyncItemWriter(ItemWriter<O> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void write(Chunk<? extends AsyncItem<I, O>> chunk) throws Exception {
+        List<O> results = new ArrayList<>(chunk.size());
+        for (AsyncItem<I, O> item : chunk.getItems()) {
+            O result = item.get();
+            if (result != null) results.add(result);
+        }
+
+        if (results.isEmpty()) return;
+        delegate.write(new Chunk<>(results));
+    }
+}
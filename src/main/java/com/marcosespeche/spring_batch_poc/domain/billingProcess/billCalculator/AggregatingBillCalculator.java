@@ -0,0 +1,181 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.billCalculator;
+
+import com.marcosespeche.spring_batch_poc.domain.agreements.AgreementService;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes.ServiceRequestTypeService;
+import com.marcosespeche.spring_batch_poc.entities.*;
+import com.marcosespeche.spring_batch_poc.enums.AgreementState;
+import com.marcosespeche.spring_batch_poc.enums.ServiceRequestState;
+import com.marcosespeche.spring_batch_poc.exceptions.InvalidBillingDataException;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes bills in the database: one query per customer groups the billable service requests by agreement and
+ * type and returns the billed minutes, the hourly fee and the request ids of each bill line. Only the bill lines
+ * reach the JVM, service requests are referenced by id without being loaded.
+ * <p>
+ * Enabled with {@code app.billing.calculator=aggregate}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.billing.calculator", havingValue = "aggregate")
+public class AggregatingBillCalculator implements IBillCalculator {
+
+    // Same filters as ServiceRequestRepository.findByCustomerAndStateInAndPeriod. Requests without stored minutes
+    // (not backfilled yet) are measured from their timestamps, in whole minutes like BillableMinutes.between
+    private static final String BILL_LINES_SQL = """
+            SELECT sr.agreement AS agreement_id,
+                   sr.type AS type_id,
+                   t.hourly_fee AS hourly_fee,
+                   SUM(COALESCE(sr.billable_minutes, FLOOR(EXTRACT(EPOCH FROM (sr.finished_at - sr.registered_at)) / 60))) AS billable_minutes,
+                   MIN(CASE WHEN sr.finished_at < sr.registered_at THEN sr.id END) AS invalid_service_request_id,
+                   array_agg(sr.id ORDER BY sr.id) AS service_request_ids
+            FROM service_request sr
+            JOIN agreement a ON a.id = sr.agreement
+            JOIN service_request_type t ON t.id = sr.type
+            WHERE a.customer = :customerId
+              AND a.state IN (:agreementStates)
+              AND sr.state IN (:serviceStates)
+              AND sr.finished_at IS NOT NULL
+              AND sr.finished_at <= :endingDay AND sr.registered_at >= :startingDay
+            GROUP BY sr.agreement, sr.type, t.hourly_fee
+            ORDER BY sr.agreement, sr.type
+            """;
+
+    private static final RowMapper<BillLine> BILL_LINE_MAPPER = (rs, rowNum) -> new BillLine(
+            rs.getLong("agreement_id"),
+            rs.getLong("type_id"),
+            rs.getObject("hourly_fee", Double.class),
+            rs.getLong("billable_minutes"),
+            rs.getObject("invalid_service_request_id", Long.class),
+            Arrays.stream((Object[]) rs.getArray("service_request_ids").getArray())
+                    .map(id -> ((Number) id).longValue())
+                    .toList());
+
+    private final AgreementService agreementService;
+
+    private final ServiceRequestTypeService serviceRequestTypeService;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    public AggregatingBillCalculator(AgreementService agreementService,
+                                     ServiceRequestTypeService serviceRequestTypeService,
+                                     NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                                     EntityManager entityManager) {
+        this.agreementService = agreementService;
+        this.serviceRequestTypeService = serviceRequestTypeService;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public BillingProcessSimulation simulateCustomerBill(Customer customer, YearMonth period, List<ServiceRequestState> serviceStatesToBill) {
+        List<BillLine> billLines = findBillLines(customer.getId(), period, serviceStatesToBill);
+
+        BillingProcessSimulation simulation = BillingProcessSimulation.builder()
+                .simulatedAt(LocalDateTime.now())
+                .totalAmount(0.0)
+                .billingProcessAgreementList(new ArrayList<>())
+                .build();
+
+        if (billLines.isEmpty()) return simulation;
+
+        for (BillLine billLine : billLines) {
+            validate(billLine);
+        }
+
+        // One IN query each for the agreements and types of every line. findAllById always queries the database:
+        // the second-level cache only serves lookups by a single id
+        Map<Long, Agreement> agreements = agreementService.findAllByIds(billLines.stream().map(BillLine::agreementId).toList());
+        Map<Long, ServiceRequestType> serviceRequestTypes = serviceRequestTypeService.findAllByIds(billLines.stream().map(BillLine::serviceRequestTypeId).toList());
+
+        // Lines arrive ordered by agreement and type, the same order BillCalculator adds them up in
+        Map<Long, BillingProcessAgreement> billingProcessAgreements = new LinkedHashMap<>();
+        for (BillLine billLine : billLines) {
+            BillingProcessAgreement billingProcessAgreement = billingProcessAgreements.computeIfAbsent(billLine.agreementId(),
+                    agreementId -> BillingProcessAgreement.builder()
+                            .agreement(agreements.get(agreementId))
+                            .totalAmountAgreement(0.0)
+                            .billingProcessServiceRequestTypeList(new ArrayList<>())
+                            .build());
+
+            Double totalHours = billLine.billableMinutes() / 60.0;
+            Double totalAmount = billLine.hourlyFee() * totalHours;
+
+            billingProcessAgreement.getBillingProcessServiceRequestTypeList().add(BillingProcessServiceRequestType.builder()
+                    .serviceRequestType(serviceRequestTypes.get(billLine.serviceRequestTypeId()))
+                    .serviceRequests(billLine.serviceRequestIds().stream()
+                            .map(id -> entityManager.getReference(ServiceRequest.class, id))
+                            .toList())
+                    .totalHours(totalHours)
+                    .hourlyFee(billLine.hourlyFee())
+                    .totalAmountServiceRequestType(totalAmount)
+                    .build());
+
+            billingProcessAgreement.setTotalAmountAgreement(billingProcessAgreement.getTotalAmountAgreement() + totalAmount);
+        }
+
+        simulation.getBillingProcessAgreementList().addAll(billingProcessAgreements.values());
+
+        simulation.setTotalAmount(simulation.getBillingProcessAgreementList()
+                .stream()
+                .mapToDouble(BillingProcessAgreement::getTotalAmountAgreement)
+                .sum());
+
+        log.debug("Customer with ID {} billed from {} bill lines", customer.getId(), billLines.size());
+
+        return simulation;
+    }
+
+    List<BillLine> findBillLines(Long customerId, YearMonth period, List<ServiceRequestState> serviceStatesToBill) {
+        List<AgreementState> agreementStatesToBill = List.of(AgreementState.IN_COURSE, AgreementState.FINISHED);
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("customerId", customerId)
+                .addValue("agreementStates", agreementStatesToBill.stream().map(Enum::name).toList())
+                .addValue("serviceStates", serviceStatesToBill.stream().map(Enum::name).toList())
+                .addValue("startingDay", Timestamp.valueOf(period.atDay(1).atStartOfDay()))
+                .addValue("endingDay", Timestamp.valueOf(period.atEndOfMonth().atTime(LocalTime.MAX)));
+
+        return namedParameterJdbcTemplate.query(BILL_LINES_SQL, parameters, BILL_LINE_MAPPER);
+    }
+
+    private static void validate(BillLine billLine) {
+        if (billLine.invalidServiceRequestId() != null) {
+            throw new InvalidBillingDataException("Service Request with ID " + billLine.invalidServiceRequestId() + " finished before it was registered");
+        }
+        if (billLine.hourlyFee() == null) {
+            throw new InvalidBillingDataException("Service Request Type with ID " + billLine.serviceRequestTypeId() + " has no hourly fee");
+        }
+    }
+
+    // One row of the aggregate: the requests of one agreement and type
+    record BillLine(Long agreementId,
+                    Long serviceRequestTypeId,
+                    Double hourlyFee,
+                    long billableMinutes,
+                    Long invalidServiceRequestId,
+                    List<Long> serviceRequestIds) {
+    }
+}
@@ -1,29 +1,60 @@
 package com.marcosespeche.spring_batch_poc.domain.billingProcess.billCalculator;
 
+import com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes.ServiceRequestTypeService;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.BillableMinutes;
 import com.marcosespeche.spring_batch_poc.domain.serviceRequests.ServiceRequestService;
 import com.marcosespeche.spring_batch_poc.entities.*;
 import com.marcosespeche.spring_batch_poc.enums.AgreementState;
 import com.marcosespeche.spring_batch_poc.enums.ServiceRequestState;
+import com.marcosespeche.spring_batch_poc.exceptions.InvalidBillingDataException;
+import jakarta.annotation.PreDestroy;
 import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
+// Default calculator, AggregatingBillCalculator replaces it with app.billing.calculator=aggregate
+@Slf4j
 @Component
+@ConditionalOnProperty(name = "app.billing.calculator", havingValue = "entity", matchIfMissing = true)
 public class BillCalculator implements IBillCalculator{
 
     private final ServiceRequestService serviceRequestService;
 
+    private final ServiceRequestTypeService serviceRequestTypeService;
+
+    // Customers with at least this many billable service requests are computed in parallel, one task per agreement
+    private final int parallelThreshold;
+
+    private final ForkJoinPool agreementPool;
+
     @Autowired
-    public BillCalculator(ServiceRequestService serviceRequestService) {
+    public BillCalculator(ServiceRequestService serviceRequestService,
+                          ServiceRequestTypeService serviceRequestTypeService,
+                          @Value("${app.billing.parallel.threshold:5000}") int parallelThreshold,
+                          @Value("${app.billing.parallel.parallelism:4}") int parallelism) {
         this.serviceRequestService = serviceRequestService;
+        this.serviceRequestTypeService = serviceRequestTypeService;
+        this.parallelThreshold = parallelThreshold;
+        this.agreementPool = new ForkJoinPool(parallelism);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        agreementPool.shutdown();
     }
 
     @Override
@@ -44,57 +75,107 @@ public class BillCalculator implements IBillCalculator{
                 .billingProcessAgreementList(new ArrayList<>())
                 .build();
 
-        Map<Agreement, List<ServiceRequest>> servicesByAgreement = servicesToBill.stream()
-                .collect(Collectors.groupingBy(ServiceRequest::getAgreement));
+        // Groups are ordered by ID so both modes add up the amounts in the same order and produce identical totals
+        Map<Long, List<ServiceRequest>> servicesByAgreement = servicesToBill.stream()
+                .collect(Collectors.groupingBy(service -> service.getAgreement().getId(), TreeMap::new, Collectors.toList()));
+
+        // Fees are resolved and data validated on the calling thread, so parallel tasks never touch the database
+        Map<Long, Double> hourlyFees = new HashMap<>();
+        for (ServiceRequest service : servicesToBill) {
+            validateTimestamps(service);
+
+            Long serviceRequestTypeId = service.getType().getId();
+            if (!hourlyFees.containsKey(serviceRequestTypeId)) {
+                Double hourlyFee = serviceRequestTypeService.findHourlyFee(serviceRequestTypeId);
+                if (hourlyFee == null) {
+                    throw new InvalidBillingDataException("Service Request Type with ID " + serviceRequestTypeId + " has no hourly fee");
+                }
+                hourlyFees.put(serviceRequestTypeId, hourlyFee);
+            }
+        }
+
+        List<List<ServiceRequest>> agreementGroups = new ArrayList<>(servicesByAgreement.values());
+
+        List<BillingProcessAgreement> billingProcessAgreements;
+        if (servicesToBill.size() >= parallelThreshold && agreementGroups.size() > 1) {
+            log.debug("Customer with ID {} has {} service requests to bill, computing {} agreements in parallel",
+                    customer.getId(), servicesToBill.size(), agreementGroups.size());
+
+            billingProcessAgreements = agreementPool.submit(() -> agreementGroups.parallelStream()
+                    .map(servicesForAgreement -> buildBillingProcessAgreement(servicesForAgreement, hourlyFees))
+                    .toList()
+            ).join();
+        } else {
+            billingProcessAgreements = agreementGroups.stream()
+                    .map(servicesForAgreement -> buildBillingProcessAgreement(servicesForAgreement, hourlyFees))
+                    .toList();
+        }
+
+        simulation.getBillingProcessAgreementList().addAll(billingProcessAgreements);
 
-        servicesByAgreement.forEach((agreement, servicesForAgreement) -> {
+        simulation.setTotalAmount(simulation.getBillingProcessAgreementList()
+                .stream()
+                .mapToDouble(BillingProcessAgreement::getTotalAmountAgreement)
+                .sum());
 
-            BillingProcessAgreement billingProcessAgreement = BillingProcessAgreement.builder()
-                    .agreement(agreement)
-                    .totalAmountAgreement(0.0)
-                    .billingProcessServiceRequestTypeList(new ArrayList<>())
-                    .build();
+        return simulation;
+    }
 
-            Map<ServiceRequestType, List<ServiceRequest>> servicesByType = servicesForAgreement.stream()
-                    .collect(Collectors.groupingBy(ServiceRequest::getType));
+    private static void validateTimestamps(ServiceRequest service) {
+        if (service.getRegisteredAt() != null && service.getFinishedAt() != null
+                && service.getFinishedAt().isBefore(service.getRegisteredAt())) {
+            throw new InvalidBillingDataException("Service Request with ID " + service.getId() + " finished before it was registered");
+        }
+    }
+
+    // Requests finished before the column existed and not backfilled yet fall back to their timestamps
+    private static Integer billableMinutes(ServiceRequest service) {
+        if (service.getBillableMinutes() != null) return service.getBillableMinutes();
+        return BillableMinutes.between(service.getRegisteredAt(), service.getFinishedAt());
+    }
 
-            servicesByType.forEach((serviceRequestType, servicesForType) -> {
+    private BillingProcessAgreement buildBillingProcessAgreement(List<ServiceRequest> servicesForAgreement, Map<Long, Double> hourlyFees) {
 
-                Double hourlyFee = serviceRequestType.getHourlyFee();
+        BillingProcessAgreement billingProcessAgreement = BillingProcessAgreement.builder()
+                .agreement(servicesForAgreement.getFirst().getAgreement())
+                .totalAmountAgreement(0.0)
+                .billingProcessServiceRequestTypeList(new ArrayList<>())
+                .build();
+
+        Map<Long, List<ServiceRequest>> servicesByType = servicesForAgreement.stream()
+                .collect(Collectors.groupingBy(service -> service.getType().getId(), TreeMap::new, Collectors.toList()));
 
-                Double totalHours = servicesForType.stream()
-                        .filter(service -> service.getRegisteredAt() != null && service.getFinishedAt() != null)
-                        .mapToDouble(service -> Duration.between(service.getRegisteredAt(), service.getFinishedAt()).toMinutes() / 60.0)
-                        .sum();
+        servicesByType.forEach((serviceRequestTypeId, servicesForType) -> {
 
-                Double totalAmount = hourlyFee * totalHours;
+            ServiceRequestType serviceRequestType = servicesForType.getFirst().getType();
 
-                BillingProcessServiceRequestType billingProcessSRT = BillingProcessServiceRequestType.builder()
-                        .serviceRequestType(serviceRequestType)
-                        .serviceRequests(servicesForType)
-                        .totalHours(totalHours)
-                        .hourlyFee(hourlyFee)
-                        .totalAmountServiceRequestType(totalAmount)
-                        .build();
+            Double hourlyFee = hourlyFees.get(serviceRequestTypeId);
 
-                billingProcessAgreement.getBillingProcessServiceRequestTypeList().add(billingProcessSRT);
-            });
+            Double totalHours = servicesForType.stream()
+                    .map(BillCalculator::billableMinutes)
+                    .filter(Objects::nonNull)
+                    .mapToDouble(minutes -> minutes / 60.0)
+                    .sum();
 
-            billingProcessAgreement.setTotalAmountAgreement(
-                    billingProcessAgreement.getBillingProcessServiceRequestTypeList()
-                            .stream()
-                            .mapToDouble(BillingProcessServiceRequestType::getTotalAmountServiceRequestType)
-                            .sum());
+            Double totalAmount = hourlyFee * totalHours;
 
-            simulation.getBillingProcessAgreementList().add(billingProcessAgreement);
+            BillingProcessServiceRequestType billingProcessSRT = BillingProcessServiceRequestType.builder()
+                    .serviceRequestType(serviceRequestType)
+                    .serviceRequests(servicesForType)
+                    .totalHours(totalHours)
+                    .hourlyFee(hourlyFee)
+                    .totalAmountServiceRequestType(totalAmount)
+                    .build();
 
+            billingProcessAgreement.getBillingProcessServiceRequestTypeList().add(billingProcessSRT);
         });
 
-        simulation.setTotalAmount(simulation.getBillingProcessAgreementList()
-                .stream()
-                .mapToDouble(BillingProcessAgreement::getTotalAmountAgreement)
-                .sum());
+        billingProcessAgreement.setTotalAmountAgreement(
+                billingProcessAgreement.getBillingProcessServiceRequestTypeList()
+                        .stream()
+                        .mapToDouble(BillingProcessServiceRequestType::getTotalAmountServiceRequestType)
+                        .sum());
 
-        return simulation;
+        return billingProcessAgreement;
     }
 }
@@ -0,0 +1,33 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.deadLetters;
+
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessDeadLetter;
+import com.marcosespeche.spring_batch_poc.enums.BillingProcessDeadLetterState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BillingProcessDeadLetterRepository extends JpaRepository<BillingProcessDeadLetter, Long> {
+
+    Optional<BillingProcessDeadLetter> findFirstByBillingProcessIdAndCustomerIdAndState(Long billingProcessId, Long customerId, BillingProcessDeadLetterState state);
+
+    long countByBillingProcessIdAndState(Long billingProcessId, BillingProcessDeadLetterState state);
+
+    @Modifying
+    @Query("""
+            UPDATE BillingProcessDeadLetter d
+            SET d.state = :newState, d.reprocessedAt = :reprocessedAt
+            WHERE d.billingProcessId = :billingProcessId AND d.customerId IN :customerIds AND d.state = :currentState
+            """)
+    int updateState(@Param("billingProcessId") Long billingProcessId,
+                    @Param("customerIds") List<Long> customerIds,
+                    @Param("currentState") BillingProcessDeadLetterState currentState,
+                    @Param("newState") BillingProcessDeadLetterState newState,
+                    @Param("reprocessedAt") LocalDateTime reprocessedAt);
+}
@@ -0,0 +1,68 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.deadLetters;
+
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessDeadLetter;
+import com.marcosespeche.spring_batch_poc.enums.BillingProcessDeadLetterState;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Service
+public class BillingProcessDeadLetterService {
+
+    private static final int MAX_MESSAGE_LENGTH = 2000;
+
+    private final BillingProcessDeadLetterRepository billingProcessDeadLetterRepository;
+
+    @Autowired
+    public BillingProcessDeadLetterService(BillingProcessDeadLetterRepository billingProcessDeadLetterRepository) {
+        this.billingProcessDeadLetterRepository = billingProcessDeadLetterRepository;
+    }
+
+    @Transactional
+    public void register(Long billingProcessId, Long customerId, String phase, Throwable cause) {
+        String message = cause.getMessage();
+        if (message != null && message.length() > MAX_MESSAGE_LENGTH) message = message.substring(0, MAX_MESSAGE_LENGTH);
+
+        // A customer failing again while reprocessed keeps a single pending dead letter with the latest cause
+        BillingProcessDeadLetter deadLetter = billingProcessDeadLetterRepository
+                .findFirstByBillingProcessIdAndCustomerIdAndState(billingProcessId, customerId, BillingProcessDeadLetterState.PENDING)
+                .orElseGet(() -> BillingProcessDeadLetter.builder()
+                        .billingProcessId(billingProcessId)
+                        .customerId(customerId)
+                        .state(BillingProcessDeadLetterState.PENDING)
+                        .build());
+
+        deadLetter.setPhase(phase);
+        deadLetter.setCause(cause.getClass().getName());
+        deadLetter.setMessage(message);
+        deadLetter.setFailedAt(LocalDateTime.now());
+
+        billingProcessDeadLetterRepository.save(deadLetter);
+        log.warn("Customer with ID {} skipped in billing process with ID {} during {}: {}",
+                customerId, billingProcessId, phase, cause.getMessage());
+    }
+
+    @Transactional
+    public long countPending(Long billingProcessId) {
+        return billingProcessDeadLetterRepository.countByBillingProcessIdAndState(billingProcessId, BillingProcessDeadLetterState.PENDING);
+    }
+
+    @Transactional
+    public void markReprocessed(Long billingProcessId, List<Long> customerIds) {
+        if (customerIds.isEmpty()) return;
+
+        int updated = billingProcessDeadLetterRepository.updateState(
+                billingProcessId,
+                customerIds,
+                BillingProcessDeadLetterState.PENDING,
+                BillingProcessDeadLetterState.REPROCESSED,
+                LocalDateTime.now());
+
+        log.info("{} dead letters of billing process with ID {} reprocessed", updated, billingProcessId);
+    }
+}
@@ -0,0 +1,13 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.dtos;
+
+import java.util.List;
+
+public record ReadBillingPreviewAgreementDTO(
+
+        Long agreementId,
+
+        Double totalAmount,
+
+        List<ReadBillingPreviewServiceRequestTypeDTO> serviceRequestTypes
+) {
+}
@@ -0,0 +1,19 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.dtos;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+public record ReadBillingPreviewDTO(
+
+        Long customerId,
+
+        YearMonth period,
+
+        LocalDateTime simulatedAt,
+
+        Double totalAmount,
+
+        List<ReadBillingPreviewAgreementDTO> agreements
+) {
+}
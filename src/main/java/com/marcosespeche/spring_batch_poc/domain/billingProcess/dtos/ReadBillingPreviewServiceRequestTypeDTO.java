@@ -0,0 +1,17 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.dtos;
+
+public record ReadBillingPreviewServiceRequestTypeDTO(
+
+        Long serviceRequestTypeId,
+
+        String name,
+
+        Double hourlyFee,
+
+        Double totalHours,
+
+        Double totalAmount,
+
+        Integer serviceRequestCount
+) {
+}
@@ -0,0 +1,11 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.dtos;
+
+public record ReadBillingRetryDTO(
+
+        Long retryRequestId,
+
+        Long billingProcessId,
+
+        Long pendingCustomers
+) {
+}
@@ -0,0 +1,12 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.locking;
+
+public record Lease(
+
+        String name,
+
+        String owner,
+
+        // Newer holders always have a greater token
+        Long fencingToken
+) {
+}
@@ -0,0 +1,40 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.locking;
+
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.listener.ItemWriteListener;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fails the chunk before it writes when the lease its job was launched under has been taken over, so a job whose
+ * launcher stalled past the TTL stops writing once another instance holds the lease. Runs inside the chunk
+ * transaction, on whichever instance executes the step. Jobs launched without a lease are not checked.
+ */
+@Component
+@Profile("!api")
+@StepScope
+public class LeaseFencingWriteListener implements ItemWriteListener<Object> {
+
+    private final LeaseLock leaseLock;
+    private final String leaseName;
+    private final Long fencingToken;
+
+    @Autowired
+    public LeaseFencingWriteListener(LeaseLock leaseLock,
+                                     @Value("#{jobParameters['lease']}") String leaseName,
+                                     @Value("#{jobParameters['fencingToken']}") Long fencingToken) {
+        this.leaseLock = leaseLock;
+        this.leaseName = leaseName;
+        this.fencingToken = fencingToken;
+    }
+
+    @Override
+    public void beforeWrite(Chunk<? extends Object> items) {
+        if (leaseName == null || fencingToken == null) return;
+
+        leaseLock.verifyHeld(leaseName, fencingToken);
+    }
+}
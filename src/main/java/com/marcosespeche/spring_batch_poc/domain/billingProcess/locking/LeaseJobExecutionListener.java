@@ -0,0 +1,39 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.locking;
+
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.core.job.parameters.JobParameters;
+import org.springframework.batch.core.listener.JobExecutionListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Releases the lease a job was launched under once the job ends. The launcher passes the lease name and fencing
+ * token as the non-identifying {@code lease} and {@code fencingToken} parameters; jobs launched without them are
+ * left alone. A job restarted by another instance can't release the lease, which then expires after its TTL.
+ */
+@Component
+@Profile("!api")
+public class LeaseJobExecutionListener implements JobExecutionListener {
+
+    public static final String LEASE_PARAMETER = "lease";
+    public static final String FENCING_TOKEN_PARAMETER = "fencingToken";
+
+    private final LeaseLock leaseLock;
+
+    @Autowired
+    public LeaseJobExecutionListener(LeaseLock leaseLock) {
+        this.leaseLock = leaseLock;
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        JobParameters jobParameters = jobExecution.getJobParameters();
+        String leaseName = jobParameters.getString(LEASE_PARAMETER);
+        Long fencingToken = jobParameters.getLong(FENCING_TOKEN_PARAMETER);
+
+        if (leaseName == null || fencingToken == null) return;
+
+        leaseLock.release(leaseLock.leaseOf(leaseName, fencingToken));
+    }
+}
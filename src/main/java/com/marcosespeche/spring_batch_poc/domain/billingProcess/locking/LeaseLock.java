@@ -0,0 +1,157 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.locking;
+
+import com.marcosespeche.spring_batch_poc.entities.SchedulerLease;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cluster-wide lock backed by the {@code scheduler_lease} table. A lease is held for {@code app.scheduler.lease.ttl}
+ * and renewed by a heartbeat from {@link #tryAcquire(String)} until {@link #release(Lease)}; if the holder dies, the
+ * lease expires and another instance can take it. Every acquisition increments the fencing token, and
+ * {@link #checkHeld(Lease)} and {@link #verifyHeld(String, Long)} only succeed for the current token, so a holder that
+ * stalled past its TTL can't act after being replaced.
+ * <p>
+ * Expiry uses the clock of each instance, so the TTL must be well above the clock skew between them.
+ */
+@Slf4j
+@Component
+@Profile("!api")
+public class LeaseLock {
+
+    private final SchedulerLeaseRepository schedulerLeaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final ScheduledExecutorService heartbeats;
+    private final Map<Lease, ScheduledFuture<?>> heartbeatsByLease = new ConcurrentHashMap<>();
+    private final String owner;
+
+    @Autowired
+    public LeaseLock(SchedulerLeaseRepository schedulerLeaseRepository,
+                     PlatformTransactionManager transactionManager,
+                     @Value("${app.scheduler.lease.ttl:5m}") Duration ttl) {
+        this.schedulerLeaseRepository = schedulerLeaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lease-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.owner = UUID.randomUUID().toString();
+    }
+
+    // Empty when another instance holds the lease. The lease is renewed until release(), which may happen on
+    // another thread, e.g. when the job it launched ends
+    public Optional<Lease> tryAcquire(String name) {
+        Optional<Lease> acquired = acquire(name);
+
+        if (acquired.isEmpty()) {
+            log.debug("Lease {} held by another instance", name);
+            return Optional.empty();
+        }
+
+        Lease lease = acquired.get();
+        long heartbeatInterval = Math.max(1, ttl.toMillis() / 3);
+        heartbeatsByLease.put(lease, heartbeats.scheduleAtFixedRate(
+                () -> renew(lease), heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS));
+        return acquired;
+    }
+
+    public void release(Lease lease) {
+        ScheduledFuture<?> heartbeat = heartbeatsByLease.remove(lease);
+        if (heartbeat != null) heartbeat.cancel(false);
+
+        transactionTemplate.executeWithoutResult(status -> schedulerLeaseRepository.release(
+                lease.name(), lease.owner(), lease.fencingToken(), LocalDateTime.now()));
+        log.info("Lease {} with fencing token {} released", lease.name(), lease.fencingToken());
+    }
+
+    // The lease this instance acquired with the given token, e.g. rebuilt from the parameters of the job it launched
+    public Lease leaseOf(String name, Long fencingToken) {
+        return new Lease(name, owner, fencingToken);
+    }
+
+    // Fencing check: call right before each side effect the lease protects
+    public void checkHeld(Lease lease) {
+        if (!renew(lease)) {
+            log.warn("Lease {} with fencing token {} is no longer held", lease.name(), lease.fencingToken());
+            throw new IllegalStateException("Lease " + lease.name() + " is no longer held by this instance");
+        }
+    }
+
+    // Read-only fencing check for any instance, e.g. the chunk transactions of a job launched under the lease.
+    // Unlike checkHeld it doesn't lock the lease row, which would block the heartbeat until the chunk commits
+    public void verifyHeld(String name, Long fencingToken) {
+        if (!schedulerLeaseRepository.isHeld(name, fencingToken, LocalDateTime.now())) {
+            log.warn("Lease {} with fencing token {} is no longer held", name, fencingToken);
+            throw new IllegalStateException("Lease " + name + " with fencing token " + fencingToken + " is no longer held");
+        }
+    }
+
+    private Optional<Lease> acquire(String name) {
+        createIfMissing(name);
+
+        LocalDateTime now = LocalDateTime.now();
+        Integer acquired = transactionTemplate.execute(status -> schedulerLeaseRepository.acquire(name, owner, now, now.plus(ttl)));
+
+        if (acquired == null || acquired == 0) return Optional.empty();
+
+        // Nobody else can acquire it until it expires, so the token read here is ours
+        Long fencingToken = schedulerLeaseRepository.findByName(name)
+                .map(SchedulerLease::getFencingToken)
+                .orElseThrow();
+
+        log.info("Lease {} acquired with fencing token {}", name, fencingToken);
+        return Optional.of(new Lease(name, owner, fencingToken));
+    }
+
+    private void createIfMissing(String name) {
+        if (schedulerLeaseRepository.findByName(name).isPresent()) return;
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> schedulerLeaseRepository.saveAndFlush(SchedulerLease.builder()
+                    .name(name)
+                    .fencingToken(0L)
+                    .expiresAt(LocalDateTime.now())
+                    .build()));
+        } catch (DataIntegrityViolationException e) {
+            // Created by another instance at the same time
+            log.debug("Lease {} already created", name);
+        }
+    }
+
+    private boolean renew(Lease lease) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer renewed = transactionTemplate.execute(status -> schedulerLeaseRepository.renew(
+                lease.name(), lease.owner(), lease.fencingToken(), now, now.plus(ttl)));
+
+        if (renewed == null || renewed == 0) {
+            log.warn("Heartbeat of lease {} with fencing token {} failed", lease.name(), lease.fencingToken());
+            return false;
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+    }
+}
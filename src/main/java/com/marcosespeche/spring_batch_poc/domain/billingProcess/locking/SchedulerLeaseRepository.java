@@ -0,0 +1,59 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.locking;
+
+import com.marcosespeche.spring_batch_poc.entities.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, Long> {
+
+    Optional<SchedulerLease> findByName(String name);
+
+    @Query("""
+            SELECT COUNT(l) > 0 FROM SchedulerLease l
+            WHERE l.name = :name AND l.fencingToken = :fencingToken AND l.owner IS NOT NULL AND l.expiresAt >= :now
+            """)
+    boolean isHeld(@Param("name") String name,
+                   @Param("fencingToken") Long fencingToken,
+                   @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("""
+            UPDATE SchedulerLease l
+            SET l.owner = :owner, l.fencingToken = l.fencingToken + 1, l.heartbeatAt = :now, l.expiresAt = :expiresAt
+            WHERE l.name = :name AND (l.owner IS NULL OR l.expiresAt < :now)
+            """)
+    int acquire(@Param("name") String name,
+                @Param("owner") String owner,
+                @Param("now") LocalDateTime now,
+                @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("""
+            UPDATE SchedulerLease l
+            SET l.heartbeatAt = :now, l.expiresAt = :expiresAt
+            WHERE l.name = :name AND l.owner = :owner AND l.fencingToken = :fencingToken AND l.expiresAt >= :now
+            """)
+    int renew(@Param("name") String name,
+              @Param("owner") String owner,
+              @Param("fencingToken") Long fencingToken,
+              @Param("now") LocalDateTime now,
+              @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("""
+            UPDATE SchedulerLease l
+            SET l.owner = NULL, l.expiresAt = :now
+            WHERE l.name = :name AND l.owner = :owner AND l.fencingToken = :fencingToken
+            """)
+    int release(@Param("name") String name,
+                @Param("owner") String owner,
+                @Param("fencingToken") Long fencingToken,
+                @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,67 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.partitioning;
+
+import com.marcosespeche.spring_batch_poc.entities.BillingPartitionRequest;
+import com.marcosespeche.spring_batch_poc.enums.PartitionRequestState;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BillingPartitionRequestRepository extends JpaRepository<BillingPartitionRequest, Long> {
+
+    @Query("""
+            SELECT r FROM BillingPartitionRequest r
+            WHERE r.state = :pendingState
+            OR (r.state = :claimedState AND r.heartbeatAt < :expiredBefore)
+            ORDER BY r.id ASC
+            """)
+    List<BillingPartitionRequest> findClaimable(@Param("expiredBefore") LocalDateTime expiredBefore,
+                                                @Param("pendingState") PartitionRequestState pendingState,
+                                                @Param("claimedState") PartitionRequestState claimedState,
+                                                Limit limit);
+
+    @Modifying
+    @Query("""
+            UPDATE BillingPartitionRequest r
+            SET r.state = :claimedState, r.claimedBy = :workerId, r.claimedAt = :claimedAt, r.heartbeatAt = :claimedAt
+            WHERE r.id = :id
+            AND (r.state = :pendingState OR (r.state = :claimedState AND r.heartbeatAt < :expiredBefore))
+            """)
+    int claim(@Param("id") Long id,
+              @Param("workerId") String workerId,
+              @Param("claimedAt") LocalDateTime claimedAt,
+              @Param("expiredBefore") LocalDateTime expiredBefore,
+              @Param("pendingState") PartitionRequestState pendingState,
+              @Param("claimedState") PartitionRequestState claimedState);
+
+    @Modifying
+    @Query("""
+            UPDATE BillingPartitionRequest r
+            SET r.heartbeatAt = :heartbeatAt
+            WHERE r.stepExecutionId = :stepExecutionId AND r.claimedBy = :workerId AND r.state = :claimedState
+            """)
+    int heartbeat(@Param("stepExecutionId") Long stepExecutionId,
+                  @Param("workerId") String workerId,
+                  @Param("heartbeatAt") LocalDateTime heartbeatAt,
+                  @Param("claimedState") PartitionRequestState claimedState);
+
+    @Modifying
+    @Query("""
+            UPDATE BillingPartitionRequest r
+            SET r.state = :state
+            WHERE r.stepExecutionId = :stepExecutionId AND r.claimedBy = :workerId
+            """)
+    int finish(@Param("stepExecutionId") Long stepExecutionId,
+               @Param("workerId") String workerId,
+               @Param("state") PartitionRequestState state);
+
+    @Modifying
+    @Query("DELETE FROM BillingPartitionRequest r WHERE r.jobExecutionId = :jobExecutionId")
+    int deleteByJobExecution(@Param("jobExecutionId") Long jobExecutionId);
+}
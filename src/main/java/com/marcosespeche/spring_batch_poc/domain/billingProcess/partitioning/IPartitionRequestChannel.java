@@ -0,0 +1,29 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.partitioning;
+
+import java.util.Optional;
+
+public interface IPartitionRequestChannel {
+
+    void send(PartitionRequest request);
+
+    /**
+     * Claims the next pending request. A request is delivered to exactly one worker, unless that worker stops
+     * renewing its claim through {@link #heartbeat}, in which case another worker can claim it again.
+     */
+    Optional<PartitionRequest> receive(String workerId);
+
+    /**
+     * Renews the worker's claim on a request it is still executing.
+     */
+    void heartbeat(PartitionRequest request, String workerId);
+
+    /**
+     * Records the outcome of a claimed request so it is not delivered again.
+     */
+    void finish(PartitionRequest request, String workerId, boolean succeeded);
+
+    /**
+     * Removes every request of a job execution once the manager stops waiting for them.
+     */
+    void purge(Long jobExecutionId);
+}
@@ -0,0 +1,42 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.partitioning;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Single JVM transport, used by default and in tests. Manager and workers must run in the same instance.
+ */
+@Component
+@ConditionalOnProperty(name = "app.billing.partitions.transport", havingValue = "in-memory", matchIfMissing = true)
+public class InMemoryPartitionRequestChannel implements IPartitionRequestChannel {
+
+    private final BlockingQueue<PartitionRequest> queue = new LinkedBlockingQueue<>();
+
+    @Override
+    public void send(PartitionRequest request) {
+        queue.add(request);
+    }
+
+    @Override
+    public Optional<PartitionRequest> receive(String workerId) {
+        return Optional.ofNullable(queue.poll());
+    }
+
+    // Claims do not outlive the JVM, so there is nothing to renew or record
+    @Override
+    public void heartbeat(PartitionRequest request, String workerId) {
+    }
+
+    @Override
+    public void finish(PartitionRequest request, String workerId, boolean succeeded) {
+    }
+
+    @Override
+    public void purge(Long jobExecutionId) {
+        queue.removeIf(request -> request.jobExecutionId().equals(jobExecutionId));
+    }
+}
@@ -0,0 +1,120 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.partitioning;
+
+import com.marcosespeche.spring_batch_poc.entities.BillingPartitionRequest;
+import com.marcosespeche.spring_batch_poc.enums.PartitionRequestState;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Database table transport: requests are rows in {@code billing_partition_request}, and workers on any instance
+ * claim them with a conditional update so each one is processed once. A claim whose heartbeat is older than
+ * {@code app.billing.partitions.worker.claim-ttl} belongs to a worker that died, and can be claimed again.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.billing.partitions.transport", havingValue = "jdbc")
+public class JdbcPartitionRequestChannel implements IPartitionRequestChannel {
+
+    private static final int CLAIM_CANDIDATES = 5;
+
+    private final BillingPartitionRequestRepository billingPartitionRequestRepository;
+    private final Duration claimTtl;
+
+    @Autowired
+    public JdbcPartitionRequestChannel(BillingPartitionRequestRepository billingPartitionRequestRepository,
+                                       @Value("${app.billing.partitions.worker.claim-ttl:2m}") Duration claimTtl) {
+        this.billingPartitionRequestRepository = billingPartitionRequestRepository;
+        this.claimTtl = claimTtl;
+    }
+
+    @Override
+    @Transactional
+    public void send(PartitionRequest request) {
+        BillingPartitionRequest billingPartitionRequest = BillingPartitionRequest.builder()
+                .jobExecutionId(request.jobExecutionId())
+                .stepExecutionId(request.stepExecutionId())
+                .stepName(request.stepName())
+                .state(PartitionRequestState.PENDING)
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        billingPartitionRequestRepository.save(billingPartitionRequest);
+    }
+
+    @Override
+    @Transactional
+    public Optional<PartitionRequest> receive(String workerId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiredBefore = now.minus(claimTtl);
+
+        List<BillingPartitionRequest> candidates = billingPartitionRequestRepository.findClaimable(
+                expiredBefore,
+                PartitionRequestState.PENDING,
+                PartitionRequestState.CLAIMED,
+                Limit.of(CLAIM_CANDIDATES));
+
+        // Another worker may claim the same row first, in that case try the next one
+        for (BillingPartitionRequest candidate : candidates) {
+            int claimed = billingPartitionRequestRepository.claim(
+                    candidate.getId(),
+                    workerId,
+                    now,
+                    expiredBefore,
+                    PartitionRequestState.PENDING,
+                    PartitionRequestState.CLAIMED);
+
+            if (claimed == 1) {
+                if (candidate.getState() == PartitionRequestState.CLAIMED) {
+                    log.warn("Partition request with ID {} reclaimed by worker {} from worker {}",
+                            candidate.getId(), workerId, candidate.getClaimedBy());
+                } else {
+                    log.debug("Partition request with ID {} claimed by worker {}", candidate.getId(), workerId);
+                }
+                return Optional.of(new PartitionRequest(
+                        candidate.getJobExecutionId(),
+                        candidate.getStepExecutionId(),
+                        candidate.getStepName()));
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    @Override
+    @Transactional
+    public void heartbeat(PartitionRequest request, String workerId) {
+        int renewed = billingPartitionRequestRepository.heartbeat(
+                request.stepExecutionId(), workerId, LocalDateTime.now(), PartitionRequestState.CLAIMED);
+
+        if (renewed == 0) {
+            log.warn("Worker {} no longer holds the partition request of step execution ID {}",
+                    workerId, request.stepExecutionId());
+        }
+    }
+
+    @Override
+    @Transactional
+    public void finish(PartitionRequest request, String workerId, boolean succeeded) {
+        billingPartitionRequestRepository.finish(
+                request.stepExecutionId(),
+                workerId,
+                succeeded ? PartitionRequestState.COMPLETED : PartitionRequestState.FAILED);
+    }
+
+    @Override
+    @Transactional
+    public void purge(Long jobExecutionId) {
+        int deleted = billingPartitionRequestRepository.deleteByJobExecution(jobExecutionId);
+        log.debug("{} partition requests of job execution ID {} purged", deleted, jobExecutionId);
+    }
+}
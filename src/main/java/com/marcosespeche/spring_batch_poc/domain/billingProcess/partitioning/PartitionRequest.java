@@ -0,0 +1,15 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.partitioning;
+
+/**
+ * Message sent by the manager step to workers. It only carries identifiers: the worker loads the
+ * partition's {@code StepExecution} (and its execution context) from the shared JobRepository.
+ */
+public record PartitionRequest(
+
+        Long jobExecutionId,
+
+        Long stepExecutionId,
+
+        String stepName
+) {
+}
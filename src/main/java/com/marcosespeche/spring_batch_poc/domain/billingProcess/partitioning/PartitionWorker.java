@@ -0,0 +1,132 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.partitioning;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.Step;
+import org.springframework.batch.core.step.StepExecution;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Worker side of remote partitioning. Claims partition requests and executes the referenced step
+ * against the {@code StepExecution} stored in the shared JobRepository. Claims are renewed while the step runs,
+ * so a request held by a worker that died is claimed again by another one.
+ */
+@Slf4j
+@Component
+@Profile("!api")
+@ConditionalOnProperty(name = "app.billing.partitions.worker.enabled", havingValue = "true")
+public class PartitionWorker {
+
+    private final IPartitionRequestChannel channel;
+    private final JobRepository jobRepository;
+    private final Map<String, Step> steps;
+    private final ExecutorService executor;
+    private final Semaphore slots;
+    private final Set<PartitionRequest> running = ConcurrentHashMap.newKeySet();
+    private final String workerId;
+
+    @Autowired
+    public PartitionWorker(IPartitionRequestChannel channel,
+                           JobRepository jobRepository,
+                           Map<String, Step> steps,
+                           @Value("${app.billing.partitions.worker.concurrency:2}") int concurrency) {
+        this.channel = channel;
+        this.jobRepository = jobRepository;
+        this.steps = steps;
+        this.executor = Executors.newFixedThreadPool(concurrency);
+        this.slots = new Semaphore(concurrency);
+        this.workerId = UUID.randomUUID().toString();
+    }
+
+    @Scheduled(fixedDelayString = "${app.billing.partitions.worker.poll-interval-ms:2000}")
+    public void poll() {
+        while (slots.tryAcquire()) {
+            Optional<PartitionRequest> request = channel.receive(workerId);
+
+            if (request.isEmpty()) {
+                slots.release();
+                return;
+            }
+
+            running.add(request.get());
+            executor.execute(() -> {
+                try {
+                    execute(request.get());
+                } finally {
+                    running.remove(request.get());
+                    slots.release();
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.billing.partitions.worker.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        running.forEach(request -> channel.heartbeat(request, workerId));
+    }
+
+    private void execute(PartitionRequest request) {
+        StepExecution stepExecution = jobRepository.getStepExecution(request.jobExecutionId(), request.stepExecutionId());
+        Step step = steps.get(request.stepName());
+
+        if (stepExecution == null || step == null) {
+            log.error("Partition request for step {} with step execution ID {} can not be resolved",
+                    request.stepName(), request.stepExecutionId());
+            channel.finish(request, workerId, false);
+            return;
+        }
+
+        // A reclaimed request may belong to a partition the previous worker finished before dying
+        if (!stepExecution.getStatus().isRunning()) {
+            log.info("Partition {} already finished with status {}", stepExecution.getStepName(), stepExecution.getStatus());
+            channel.finish(request, workerId, stepExecution.getStatus() == BatchStatus.COMPLETED);
+            return;
+        }
+
+        log.info("Worker {} executing partition {}", workerId, stepExecution.getStepName());
+
+        try {
+            step.execute(stepExecution);
+            channel.finish(request, workerId, stepExecution.getStatus() == BatchStatus.COMPLETED);
+        } catch (Exception e) {
+            log.error("Partition {} failed", stepExecution.getStepName(), e);
+            markFailed(stepExecution, e);
+            channel.finish(request, workerId, false);
+        }
+    }
+
+    // Without this the manager keeps waiting for a running partition until its timeout
+    private void markFailed(StepExecution stepExecution, Exception cause) {
+        try {
+            stepExecution.setStatus(BatchStatus.FAILED);
+            stepExecution.setExitStatus(ExitStatus.FAILED.addExitDescription(cause));
+            stepExecution.setEndTime(LocalDateTime.now());
+            jobRepository.update(stepExecution);
+        } catch (Exception e) {
+            log.error("Partition {} could not be marked as failed", stepExecution.getStepName(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,98 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.partitioning;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.partition.StepExecutionSplitter;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.StepExecution;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Manager side of remote partitioning. Partitions are created in the JobRepository, announced through an
+ * {@link IPartitionRequestChannel}, and executed by {@link PartitionWorker}s on any instance sharing that repository.
+ * The manager then polls the repository until every partition has finished. If no worker starts any partition within
+ * the claim timeout the step fails instead of waiting for the full timeout. The requests are purged once the manager
+ * stops waiting, whatever the outcome.
+ */
+@Slf4j
+public class RemotePartitionHandler implements PartitionHandler {
+
+    private final String workerStepName;
+    private final IPartitionRequestChannel channel;
+    private final JobRepository jobRepository;
+    private final int gridSize;
+    private final Duration pollInterval;
+    private final Duration claimTimeout;
+    private final Duration timeout;
+
+    public RemotePartitionHandler(String workerStepName,
+                                  IPartitionRequestChannel channel,
+                                  JobRepository jobRepository,
+                                  int gridSize,
+                                  Duration pollInterval,
+                                  Duration claimTimeout,
+                                  Duration timeout) {
+        this.workerStepName = workerStepName;
+        this.channel = channel;
+        this.jobRepository = jobRepository;
+        this.gridSize = gridSize;
+        this.pollInterval = pollInterval;
+        this.claimTimeout = claimTimeout;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public Collection<StepExecution> handle(StepExecutionSplitter stepSplitter, StepExecution managerStepExecution) throws Exception {
+        Long jobExecutionId = managerStepExecution.getJobExecutionId();
+        Set<StepExecution> partitions = stepSplitter.split(managerStepExecution, gridSize);
+
+        try {
+            for (StepExecution partition : partitions) {
+                channel.send(new PartitionRequest(partition.getJobExecutionId(), partition.getId(), workerStepName));
+            }
+            log.info("{} partitions of step {} sent to workers", partitions.size(), workerStepName);
+
+            return awaitCompletion(jobExecutionId, partitions);
+        } finally {
+            channel.purge(jobExecutionId);
+        }
+    }
+
+    private Collection<StepExecution> awaitCompletion(Long jobExecutionId, Set<StepExecution> partitions) throws Exception {
+        long start = System.currentTimeMillis();
+        long claimDeadline = start + claimTimeout.toMillis();
+        long deadline = start + timeout.toMillis();
+
+        while (true) {
+            List<StepExecution> current = new ArrayList<>();
+            for (StepExecution partition : partitions) {
+                current.add(jobRepository.getStepExecution(jobExecutionId, partition.getId()));
+            }
+
+            if (current.stream().noneMatch(stepExecution -> stepExecution.getStatus().isRunning())) {
+                return current;
+            }
+
+            // Partitions stay STARTING until a worker executes them
+            boolean noneStarted = current.stream().allMatch(stepExecution -> stepExecution.getStatus() == BatchStatus.STARTING);
+            if (noneStarted && System.currentTimeMillis() > claimDeadline) {
+                log.error("No worker started a partition of step {} within {}", workerStepName, claimTimeout);
+                throw new TimeoutException("No partition worker available");
+            }
+
+            if (System.currentTimeMillis() > deadline) {
+                log.error("Partitions of step {} did not finish within {}", workerStepName, timeout);
+                throw new TimeoutException("Remote partitions did not finish in time");
+            }
+
+            Thread.sleep(pollInterval.toMillis());
+        }
+    }
+}
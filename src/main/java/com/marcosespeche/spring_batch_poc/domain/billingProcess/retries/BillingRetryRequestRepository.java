@@ -0,0 +1,55 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.retries;
+
+import com.marcosespeche.spring_batch_poc.entities.BillingRetryRequest;
+import com.marcosespeche.spring_batch_poc.enums.BillingRetryRequestState;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BillingRetryRequestRepository extends JpaRepository<BillingRetryRequest, Long> {
+
+    boolean existsByBillingProcessIdAndStateIn(Long billingProcessId, Collection<BillingRetryRequestState> states);
+
+    @Query("""
+            SELECT r FROM BillingRetryRequest r
+            WHERE r.state = :pendingState
+            OR (r.state = :claimedState AND r.claimedAt < :expiredBefore)
+            ORDER BY r.id ASC
+            """)
+    List<BillingRetryRequest> findClaimable(@Param("expiredBefore") LocalDateTime expiredBefore,
+                                            @Param("pendingState") BillingRetryRequestState pendingState,
+                                            @Param("claimedState") BillingRetryRequestState claimedState,
+                                            Limit limit);
+
+    @Modifying
+    @Query("""
+            UPDATE BillingRetryRequest r
+            SET r.state = :claimedState, r.claimedAt = :claimedAt
+            WHERE r.id = :id
+            AND (r.state = :pendingState OR (r.state = :claimedState AND r.claimedAt < :expiredBefore))
+            """)
+    int claim(@Param("id") Long id,
+              @Param("claimedAt") LocalDateTime claimedAt,
+              @Param("expiredBefore") LocalDateTime expiredBefore,
+              @Param("pendingState") BillingRetryRequestState pendingState,
+              @Param("claimedState") BillingRetryRequestState claimedState);
+
+    @Modifying
+    @Query("""
+            UPDATE BillingRetryRequest r
+            SET r.state = :state, r.jobExecutionId = :jobExecutionId, r.finishedAt = :finishedAt
+            WHERE r.id = :id
+            """)
+    int finish(@Param("id") Long id,
+               @Param("state") BillingRetryRequestState state,
+               @Param("jobExecutionId") Long jobExecutionId,
+               @Param("finishedAt") LocalDateTime finishedAt);
+}
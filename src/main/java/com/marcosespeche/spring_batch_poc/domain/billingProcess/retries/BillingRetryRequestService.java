@@ -0,0 +1,116 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.retries;
+
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.BillingProcessService;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.deadLetters.BillingProcessDeadLetterService;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.dtos.ReadBillingRetryDTO;
+import com.marcosespeche.spring_batch_poc.entities.BillingRetryRequest;
+import com.marcosespeche.spring_batch_poc.enums.BillingRetryRequestState;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Retries of failed customers are requested through the API, which may run on instances without batch beans (the
+ * {@code api} role). Requests are stored as rows in {@code billing_retry_request} and claimed with a conditional
+ * update by the instances that run the jobs (BillingProcessScheduler), so each one is launched once. A claim older
+ * than {@code app.billing.retry-requests.claim-ttl} belongs to an instance that died before launching, and can be
+ * claimed again.
+ */
+@Slf4j
+@Service
+public class BillingRetryRequestService {
+
+    private static final int CLAIM_CANDIDATES = 5;
+
+    private final BillingRetryRequestRepository billingRetryRequestRepository;
+    private final BillingProcessService billingProcessService;
+    private final BillingProcessDeadLetterService billingProcessDeadLetterService;
+    private final Duration claimTtl;
+
+    @Autowired
+    public BillingRetryRequestService(BillingRetryRequestRepository billingRetryRequestRepository,
+                                      BillingProcessService billingProcessService,
+                                      BillingProcessDeadLetterService billingProcessDeadLetterService,
+                                      @Value("${app.billing.retry-requests.claim-ttl:2m}") Duration claimTtl) {
+        this.billingRetryRequestRepository = billingRetryRequestRepository;
+        this.billingProcessService = billingProcessService;
+        this.billingProcessDeadLetterService = billingProcessDeadLetterService;
+        this.claimTtl = claimTtl;
+    }
+
+    @Transactional
+    public ReadBillingRetryDTO request(Long billingProcessId) {
+        billingProcessService.findById(billingProcessId);
+
+        long pendingCustomers = billingProcessDeadLetterService.countPending(billingProcessId);
+        if (pendingCustomers == 0) {
+            log.warn("Billing process with ID {} has no failed customers to reprocess", billingProcessId);
+            throw new IllegalArgumentException("The billing process has no failed customers to reprocess");
+        }
+
+        boolean alreadyRequested = billingRetryRequestRepository.existsByBillingProcessIdAndStateIn(
+                billingProcessId, List.of(BillingRetryRequestState.PENDING, BillingRetryRequestState.CLAIMED));
+        if (alreadyRequested) {
+            log.warn("Billing process with ID {} already has a retry waiting to be launched", billingProcessId);
+            throw new IllegalArgumentException("A retry of the billing process is already waiting to be launched");
+        }
+
+        BillingRetryRequest request = billingRetryRequestRepository.save(BillingRetryRequest.builder()
+                .billingProcessId(billingProcessId)
+                .state(BillingRetryRequestState.PENDING)
+                .requestedAt(LocalDateTime.now())
+                .build());
+
+        log.info("Retry of {} failed customers of billing process with ID {} requested", pendingCustomers, billingProcessId);
+        return new ReadBillingRetryDTO(request.getId(), billingProcessId, pendingCustomers);
+    }
+
+    @Transactional
+    public Optional<BillingRetryRequest> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiredBefore = now.minus(claimTtl);
+
+        List<BillingRetryRequest> candidates = billingRetryRequestRepository.findClaimable(
+                expiredBefore,
+                BillingRetryRequestState.PENDING,
+                BillingRetryRequestState.CLAIMED,
+                Limit.of(CLAIM_CANDIDATES));
+
+        // Another instance may claim the same row first, in that case try the next one
+        for (BillingRetryRequest candidate : candidates) {
+            int claimed = billingRetryRequestRepository.claim(
+                    candidate.getId(),
+                    now,
+                    expiredBefore,
+                    BillingRetryRequestState.PENDING,
+                    BillingRetryRequestState.CLAIMED);
+
+            if (claimed == 1) {
+                if (candidate.getState() == BillingRetryRequestState.CLAIMED) {
+                    log.warn("Retry request with ID {} claimed again after its claim expired", candidate.getId());
+                }
+                return Optional.of(candidate);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    @Transactional
+    public void markLaunched(Long requestId, Long jobExecutionId) {
+        billingRetryRequestRepository.finish(requestId, BillingRetryRequestState.LAUNCHED, jobExecutionId, LocalDateTime.now());
+    }
+
+    @Transactional
+    public void markFailed(Long requestId) {
+        billingRetryRequestRepository.finish(requestId, BillingRetryRequestState.FAILED, null, LocalDateTime.now());
+    }
+}
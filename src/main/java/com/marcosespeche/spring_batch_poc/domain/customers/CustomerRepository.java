@@ -1,19 +1,43 @@
 package com.marcosespeche.spring_batch_poc.domain.customers;
 
+import com.marcosespeche.spring_batch_poc.domain.customers.dtos.ReadCustomerDTO;
 import com.marcosespeche.spring_batch_poc.entities.Customer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
-    Page<Customer> findByNameContainingIgnoreCase(String name, Pageable pageable);
+    // The filter goes through escape(), so a '%' or '_' typed in a search matches itself instead of any text
+    @Query(value = """
+            SELECT new com.marcosespeche.spring_batch_poc.domain.customers.dtos.ReadCustomerDTO(c.id, c.name, c.email, c.softDeleteDate)
+            FROM Customer c
+            WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :#{escape(#name)}, '%')) ESCAPE :#{escapeCharacter()}
+            """,
+            countQuery = "SELECT COUNT(c) FROM Customer c WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :#{escape(#name)}, '%')) ESCAPE :#{escapeCharacter()}")
+    Page<ReadCustomerDTO> findByNameContainingIgnoreCase(@Param("name") String name, Pageable pageable);
 
-    Page<Customer> findByNameContainingIgnoreCaseAndSoftDeleteDateIsNull(String name, Pageable pageable);
+    @Query(value = """
+            SELECT new com.marcosespeche.spring_batch_poc.domain.customers.dtos.ReadCustomerDTO(c.id, c.name, c.email, c.softDeleteDate)
+            FROM Customer c
+            WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :#{escape(#name)}, '%')) ESCAPE :#{escapeCharacter()} AND c.softDeleteDate IS NULL
+            """,
+            countQuery = """
+            SELECT COUNT(c) FROM Customer c
+            WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :#{escape(#name)}, '%')) ESCAPE :#{escapeCharacter()} AND c.softDeleteDate IS NULL
+            """)
+    Page<ReadCustomerDTO> findByNameContainingIgnoreCaseAndSoftDeleteDateIsNull(@Param("name") String name, Pageable pageable);
 
     boolean existsByName(String name);
 
     boolean existsByEmail(String email);
+
+    @Query("SELECT c.id FROM Customer c ORDER BY c.id")
+    List<Long> findAllIds();
 }
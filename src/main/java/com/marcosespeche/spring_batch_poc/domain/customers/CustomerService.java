@@ -1,5 +1,6 @@
 package com.marcosespeche.spring_batch_poc.domain.customers;
 
+import com.marcosespeche.spring_batch_poc.config.ReadOnlyTransactional;
 import com.marcosespeche.spring_batch_poc.domain.customers.dtos.CreateCustomerDTO;
 import com.marcosespeche.spring_batch_poc.domain.customers.dtos.ReadCustomerDTO;
 import com.marcosespeche.spring_batch_poc.domain.customers.dtos.UpdateCustomerDTO;
@@ -15,6 +16,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Service
 @Slf4j
@@ -30,16 +32,14 @@ public class CustomerService {
         this.customerMapper = customerMapper;
     }
 
-    @Transactional
+    @ReadOnlyTransactional
     public Page<ReadCustomerDTO> getAllPaged(String filter, Pageable pageable) {
-        Page<Customer> customers = customerRepository.findByNameContainingIgnoreCase(filter, pageable);
-        return customers.map(customerMapper::toReadCustomerDTO);
+        return customerRepository.findByNameContainingIgnoreCase(filter, pageable);
     }
 
-    @Transactional
+    @ReadOnlyTransactional
     public Page<ReadCustomerDTO> getAllActivePaged(String filter, Pageable pageable) {
-        Page<Customer> customers = customerRepository.findByNameContainingIgnoreCaseAndSoftDeleteDateIsNull(filter, pageable);
-        return customers.map(customerMapper::toReadCustomerDTO);
+        return customerRepository.findByNameContainingIgnoreCaseAndSoftDeleteDateIsNull(filter, pageable);
     }
 
     @Transactional
@@ -127,6 +127,11 @@ public class CustomerService {
                 });
     }
 
+    @Transactional
+    public List<Long> findAllIds() {
+        return customerRepository.findAllIds();
+    }
+
     private void validateDuplicatedName(String name) {
         if (customerRepository.existsByName(name)) {
             log.warn("Cannot create customer with duplicated name");
@@ -1,9 +1,12 @@
 package com.marcosespeche.spring_batch_poc.domain.projects;
 
+import com.marcosespeche.spring_batch_poc.domain.projects.dtos.ReadProjectDTO;
 import com.marcosespeche.spring_batch_poc.entities.Project;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,9 +15,23 @@ import java.util.Optional;
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Long> {
 
-    Page<Project> findByCustomerIdAndNameContainingIgnoreCase(Long customerId, String filter, Pageable pageable);
+    @Query(value = """
+            SELECT new com.marcosespeche.spring_batch_poc.domain.projects.dtos.ReadProjectDTO(p.id, p.name, p.description, p.softDeleteDate)
+            FROM Project p
+            WHERE p.customer.id = :customerId AND LOWER(p.name) LIKE LOWER(CONCAT('%', :#{escape(#filter)}, '%')) ESCAPE :#{escapeCharacter()}
+            """,
+            countQuery = """
+            SELECT COUNT(p) FROM Project p
+            WHERE p.customer.id = :customerId AND LOWER(p.name) LIKE LOWER(CONCAT('%', :#{escape(#filter)}, '%')) ESCAPE :#{escapeCharacter()}
+            """)
+    Page<ReadProjectDTO> findByCustomerIdAndNameContainingIgnoreCase(@Param("customerId") Long customerId, @Param("filter") String filter, Pageable pageable);
 
-    List<Project> findByCustomerIdAndNameContainingIgnoreCaseAndSoftDeleteDateIsNull(Long customerId, String filter);
+    @Query("""
+            SELECT new com.marcosespeche.spring_batch_poc.domain.projects.dtos.ReadProjectDTO(p.id, p.name, p.description, p.softDeleteDate)
+            FROM Project p
+            WHERE p.customer.id = :customerId AND LOWER(p.name) LIKE LOWER(CONCAT('%', :#{escape(#filter)}, '%')) ESCAPE :#{escapeCharacter()} AND p.softDeleteDate IS NULL
+            """)
+    List<ReadProjectDTO> findByCustomerIdAndNameContainingIgnoreCaseAndSoftDeleteDateIsNull(@Param("customerId") Long customerId, @Param("filter") String filter);
 
     boolean existsByNameAndCustomerId(String name, Long customerId);
 }
@@ -1,5 +1,6 @@
 package com.marcosespeche.spring_batch_poc.domain.projects;
 
+import com.marcosespeche.spring_batch_poc.config.ReadOnlyTransactional;
 import com.marcosespeche.spring_batch_poc.domain.customers.CustomerService;
 import com.marcosespeche.spring_batch_poc.domain.projects.dtos.CreateProjectDTO;
 import com.marcosespeche.spring_batch_poc.domain.projects.dtos.ReadProjectDTO;
@@ -36,26 +37,20 @@ public class ProjectService {
         this.projectMapper = projectMapper;
     }
 
-    @Transactional
+    @ReadOnlyTransactional
     public Page<ReadProjectDTO> findByCustomer(String filter, Pageable pageable, Long customerId) {
 
         customerService.findById(customerId);
 
-        Page<Project> projects = projectRepository.findByCustomerIdAndNameContainingIgnoreCase(customerId, filter, pageable);
-
-        return projects.map(projectMapper::toReadProjectDTO);
+        return projectRepository.findByCustomerIdAndNameContainingIgnoreCase(customerId, filter, pageable);
     }
 
-    @Transactional
+    @ReadOnlyTransactional
     public List<ReadProjectDTO> findActiveByCustomer(String filter, Long customerId) {
 
         customerService.findById(customerId);
 
-        List<Project> projects = projectRepository.findByCustomerIdAndNameContainingIgnoreCaseAndSoftDeleteDateIsNull(customerId, filter);
-
-        return projects.stream()
-                .map(projectMapper::toReadProjectDTO)
-                .toList();
+        return projectRepository.findByCustomerIdAndNameContainingIgnoreCaseAndSoftDeleteDateIsNull(customerId, filter);
     }
 
     @Transactional
@@ -0,0 +1,57 @@
+package com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes.dtos.ReadServiceRequestTypeDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded, time-limited id -> {@link ReadServiceRequestTypeDTO} cache.
+ * Values are immutable records rather than entities, so they can be shared between threads and transactions.
+ * Evictions are local to the instance; with {@code app.cache.service-request-types.enabled=false} every lookup goes
+ * to the loader.
+ */
+@Component
+public class ServiceRequestTypeCache {
+
+    private final Cache<Long, ReadServiceRequestTypeDTO> cache;
+    private final boolean enabled;
+
+    @Autowired
+    public ServiceRequestTypeCache(@Value("${app.cache.service-request-types.enabled:true}") boolean enabled,
+                                   @Value("${app.cache.service-request-types.maximum-size:500}") long maximumSize,
+                                   @Value("${app.cache.service-request-types.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    public ReadServiceRequestTypeDTO get(Long id, Function<Long, ReadServiceRequestTypeDTO> loader) {
+        if (!enabled) return loader.apply(id);
+
+        // Read-only transactions may be served by the replica, which can still return the row an update just evicted.
+        // Their misses are loaded without being stored, so only primary reads fill the cache
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ReadServiceRequestTypeDTO cached = cache.getIfPresent(id);
+            return cached != null ? cached : loader.apply(id);
+        }
+
+        return cache.get(id, loader);
+    }
+
+    public void evict(Long id) {
+        if (id != null) cache.invalidate(id);
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+}
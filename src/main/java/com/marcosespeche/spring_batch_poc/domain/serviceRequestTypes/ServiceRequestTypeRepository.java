@@ -1,9 +1,15 @@
 package com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes;
 
+import com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes.dtos.ReadServiceRequestTypeDTO;
 import com.marcosespeche.spring_batch_poc.entities.ServiceRequestType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,8 +19,22 @@ public interface ServiceRequestTypeRepository extends JpaRepository<ServiceReque
 
     boolean existsByName(String name);
 
-    List<ServiceRequestType> findByNameContainingIgnoreCaseAndSoftDeleteDateIsNull(String name);
+    @Query("""
+            SELECT new com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes.dtos.ReadServiceRequestTypeDTO(
+                t.id, t.name, t.description, t.softDeleteDate, t.hourlyFee)
+            FROM ServiceRequestType t
+            WHERE LOWER(t.name) LIKE LOWER(CONCAT('%', :#{escape(#name)}, '%')) ESCAPE :#{escapeCharacter()} AND t.softDeleteDate IS NULL
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<ReadServiceRequestTypeDTO> findByNameContainingIgnoreCaseAndSoftDeleteDateIsNull(@Param("name") String name);
 
-    Page<ServiceRequestType> findByNameContainingIgnoreCase(String name, Pageable pageable);
+    @Query(value = """
+            SELECT new com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes.dtos.ReadServiceRequestTypeDTO(
+                t.id, t.name, t.description, t.softDeleteDate, t.hourlyFee)
+            FROM ServiceRequestType t
+            WHERE LOWER(t.name) LIKE LOWER(CONCAT('%', :#{escape(#name)}, '%')) ESCAPE :#{escapeCharacter()}
+            """,
+            countQuery = "SELECT COUNT(t) FROM ServiceRequestType t WHERE LOWER(t.name) LIKE LOWER(CONCAT('%', :#{escape(#name)}, '%')) ESCAPE :#{escapeCharacter()}")
+    Page<ReadServiceRequestTypeDTO> findByNameContainingIgnoreCase(@Param("name") String name, Pageable pageable);
 
 }
@@ -1,5 +1,7 @@
 package com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes;
 
+import com.marcosespeche.spring_batch_poc.config.AfterCommit;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.BillingPreviewCache;
 import com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes.dtos.CreateServiceRequestTypeDTO;
 import com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes.dtos.ReadServiceRequestTypeDTO;
 import com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes.dtos.UpdateServiceRequestTypeDTO;
@@ -15,7 +17,11 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -23,25 +29,25 @@ public class ServiceRequestTypeService {
 
     private final ServiceRequestTypeRepository serviceRequestTypeRepository;
     private final ServiceRequestTypeMapper serviceRequestTypeMapper;
+    private final ServiceRequestTypeCache serviceRequestTypeCache;
+    private final BillingPreviewCache billingPreviewCache;
 
     @Autowired
-    public ServiceRequestTypeService(ServiceRequestTypeRepository serviceRequestTypeRepository, ServiceRequestTypeMapper serviceRequestTypeMapper) {
+    public ServiceRequestTypeService(ServiceRequestTypeRepository serviceRequestTypeRepository, ServiceRequestTypeMapper serviceRequestTypeMapper, ServiceRequestTypeCache serviceRequestTypeCache, BillingPreviewCache billingPreviewCache) {
         this.serviceRequestTypeRepository = serviceRequestTypeRepository;
         this.serviceRequestTypeMapper = serviceRequestTypeMapper;
+        this.serviceRequestTypeCache = serviceRequestTypeCache;
+        this.billingPreviewCache = billingPreviewCache;
     }
 
     @Transactional
     public Page<ReadServiceRequestTypeDTO> getAllPaged(String filter, Pageable pageable) {
-        return serviceRequestTypeRepository.findByNameContainingIgnoreCase(filter, pageable)
-                .map(serviceRequestTypeMapper::toReadServiceRequestDTO
-                );
+        return serviceRequestTypeRepository.findByNameContainingIgnoreCase(filter, pageable);
     }
 
     @Transactional
     public List<ReadServiceRequestTypeDTO> getAllActive(String filter) {
-        return serviceRequestTypeRepository.findByNameContainingIgnoreCaseAndSoftDeleteDateIsNull(filter)
-                .stream().map(serviceRequestTypeMapper::toReadServiceRequestDTO)
-                .toList();
+        return serviceRequestTypeRepository.findByNameContainingIgnoreCaseAndSoftDeleteDateIsNull(filter);
     }
 
     @Transactional
@@ -57,6 +63,7 @@ public class ServiceRequestTypeService {
                 .build();
 
         serviceRequestTypeRepository.save(serviceRequestType);
+        evictAfterCommit(serviceRequestType.getId());
         log.info("Service Request Type with ID {} created", serviceRequestType.getId());
 
         return serviceRequestTypeMapper.toReadServiceRequestDTO(serviceRequestType);
@@ -65,7 +72,7 @@ public class ServiceRequestTypeService {
     @Transactional
     public ReadServiceRequestTypeDTO update(Long id, @Valid UpdateServiceRequestTypeDTO dto) {
 
-        ServiceRequestType serviceRequestType = findById(id);
+        ServiceRequestType serviceRequestType = loadById(id);
 
         if (!(serviceRequestType.getName().equalsIgnoreCase(dto.name())) && serviceRequestTypeRepository.existsByName(dto.name()))
             throwDuplicatedNameException(dto.name());
@@ -75,6 +82,8 @@ public class ServiceRequestTypeService {
         serviceRequestType.setHourlyFee(dto.hourlyFee());
 
         serviceRequestTypeRepository.save(serviceRequestType);
+        evictAfterCommit(id);
+        clearBillingPreviewsAfterCommit();
         log.info("Service Request Type with ID {} updated", id);
 
         return serviceRequestTypeMapper.toReadServiceRequestDTO(serviceRequestType);
@@ -82,7 +91,7 @@ public class ServiceRequestTypeService {
 
     @Transactional
     public ReadServiceRequestTypeDTO deleteOrRestore(Long id) {
-        ServiceRequestType serviceRequestType = findById(id);
+        ServiceRequestType serviceRequestType = loadById(id);
 
         String action = "deleted";
 
@@ -94,13 +103,38 @@ public class ServiceRequestTypeService {
         }
 
         serviceRequestTypeRepository.save(serviceRequestType);
+        evictAfterCommit(id);
+        clearBillingPreviewsAfterCommit();
 
         log.info("Service Request Type with ID {} {}", id, action);
 
         return serviceRequestTypeMapper.toReadServiceRequestDTO(serviceRequestType);
     }
 
+    // Managed entity, to be referenced by service requests. Served by the second-level cache when warm
+    @Transactional
     public ServiceRequestType findById(Long id) {
+        return loadById(id);
+    }
+
+    /**
+     * Read-through lookup backed by {@link ServiceRequestTypeCache}, for callers that only read the type's values.
+     */
+    public ReadServiceRequestTypeDTO findCachedById(Long id) {
+        return serviceRequestTypeCache.get(id, key -> serviceRequestTypeMapper.toReadServiceRequestDTO(loadById(key)));
+    }
+
+    @Transactional
+    public Map<Long, ServiceRequestType> findAllByIds(Collection<Long> ids) {
+        return serviceRequestTypeRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(ServiceRequestType::getId, Function.identity()));
+    }
+
+    public Double findHourlyFee(Long id) {
+        return findCachedById(id).hourlyFee();
+    }
+
+    private ServiceRequestType loadById(Long id) {
         return serviceRequestTypeRepository.findById(id)
                 .orElseThrow(() -> {
                     log.warn("Service Request Type with ID {} not found", id);
@@ -108,6 +142,16 @@ public class ServiceRequestTypeService {
                 });
     }
 
+    // Evicted once the change is visible, otherwise a concurrent lookup could cache the old row again
+    private void evictAfterCommit(Long id) {
+        AfterCommit.run(() -> serviceRequestTypeCache.evict(id));
+    }
+
+    // Any customer may have service requests of this type
+    private void clearBillingPreviewsAfterCommit() {
+        AfterCommit.run(billingPreviewCache::clear);
+    }
+
     private void throwDuplicatedNameException(String name) {
         log.warn("Service Request Type with name '{}' already exists", name);
         throw new IllegalArgumentException("Service Request Type's name already exists");
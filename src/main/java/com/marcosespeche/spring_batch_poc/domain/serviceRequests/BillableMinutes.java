@@ -0,0 +1,20 @@
+package com.marcosespeche.spring_batch_poc.domain.serviceRequests;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Billable time of a service request: whole minutes between its registration and its completion.
+ */
+public final class BillableMinutes {
+
+    private BillableMinutes() {
+    }
+
+    // Null when either timestamp is missing or the request finished before it was registered
+    public static Integer between(LocalDateTime registeredAt, LocalDateTime finishedAt) {
+        if (registeredAt == null || finishedAt == null || finishedAt.isBefore(registeredAt)) return null;
+
+        return Math.toIntExact(Duration.between(registeredAt, finishedAt).toMinutes());
+    }
+}
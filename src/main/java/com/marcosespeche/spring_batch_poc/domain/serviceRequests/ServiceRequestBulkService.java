@@ -0,0 +1,344 @@
+package com.marcosespeche.spring_batch_poc.domain.serviceRequests;
+
+import com.marcosespeche.spring_batch_poc.config.AfterCommit;
+import com.marcosespeche.spring_batch_poc.domain.agreements.AgreementService;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.BillingPreviewCache;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes.ServiceRequestTypeService;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.BulkServiceRequestResultDTO;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.BulkStateTransitionDTO;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.CreateServiceRequestDTO;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.ReadBulkServiceRequestDTO;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.ReadBulkStateTransitionDTO;
+import com.marcosespeche.spring_batch_poc.entities.Agreement;
+import com.marcosespeche.spring_batch_poc.entities.ServiceRequestType;
+import com.marcosespeche.spring_batch_poc.enums.AgreementState;
+import com.marcosespeche.spring_batch_poc.enums.BulkItemStatus;
+import com.marcosespeche.spring_batch_poc.enums.ServiceRequestState;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Creates service requests in bulk. Items are handled in batches of {@code app.service-requests.bulk.batch-size}, each
+ * in its own transaction: the referenced agreements and types are loaded with one IN query each, items are validated
+ * in memory and the valid ones are inserted with a single JDBC batch. Invalid items are rejected individually and
+ * don't affect the rest of their batch.
+ * <p>
+ * Also starts and finishes many service requests at once with a conditional UPDATE per
+ * {@value #MAX_IDS_PER_STATEMENT} ids, reporting the ids whose state didn't allow the transition.
+ */
+@Slf4j
+@Service
+public class ServiceRequestBulkService {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO service_request (description, registered_at, finished_at, state, agreement, type)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    // The state check and the update are one statement, so concurrent transitions of the same request can't both win
+    private static final String START_SQL = """
+            UPDATE service_request sr
+            SET state = :targetState
+            FROM agreement a
+            WHERE a.id = sr.agreement AND sr.id IN (:ids) AND sr.state = :expectedState
+            RETURNING sr.id, a.customer
+            """;
+
+    // Same minutes as BillableMinutes.between: whole minutes, null if the request has no registration date or was
+    // registered after it finished (e.g. a registration date set in the future)
+    private static final String FINISH_SQL = """
+            UPDATE service_request sr
+            SET state = :targetState,
+                finished_at = :finishedAt,
+                billable_minutes = CASE
+                    WHEN CAST(:finishedAt AS timestamp) >= sr.registered_at
+                    THEN CAST(FLOOR(EXTRACT(EPOCH FROM (CAST(:finishedAt AS timestamp) - sr.registered_at)) / 60) AS integer)
+                END
+            FROM agreement a
+            WHERE a.id = sr.agreement AND sr.id IN (:ids) AND sr.state = :expectedState
+            RETURNING sr.id, a.customer
+            """;
+
+    private static final int MAX_IDS_PER_STATEMENT = 1000;
+
+    private final AgreementService agreementService;
+    private final ServiceRequestTypeService serviceRequestTypeService;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BillingPreviewCache billingPreviewCache;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    @Autowired
+    public ServiceRequestBulkService(AgreementService agreementService,
+                                     ServiceRequestTypeService serviceRequestTypeService,
+                                     JdbcTemplate jdbcTemplate,
+                                     NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     BillingPreviewCache billingPreviewCache,
+                                     ObjectMapper objectMapper,
+                                     @Value("${app.service-requests.bulk.batch-size:500}") int batchSize) {
+        this.agreementService = agreementService;
+        this.serviceRequestTypeService = serviceRequestTypeService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.billingPreviewCache = billingPreviewCache;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    public ReadBulkServiceRequestDTO createAll(List<CreateServiceRequestDTO> dtos) {
+        return createAll(dtos.iterator());
+    }
+
+    // One JSON object per line. Lines are parsed as they arrive, so the body is never held in memory as a whole
+    public ReadBulkServiceRequestDTO createAllFromNdjson(InputStream body) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+
+        Iterator<CreateServiceRequestDTO> items = reader.lines()
+                .filter(line -> !line.isBlank())
+                .map(this::parseLine)
+                .iterator();
+
+        try (reader) {
+            return createAll(items);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Transactional
+    public ReadBulkStateTransitionDTO transition(BulkStateTransitionDTO dto) {
+        if (dto.ids() == null || dto.ids().isEmpty()) {
+            log.warn("Bulk transition requested without service requests");
+            throw new IllegalArgumentException("At least one Service Request is required");
+        }
+
+        ServiceRequestState targetState = dto.targetState();
+        ServiceRequestState expectedState = expectedStateFor(targetState);
+
+        List<Long> ids = dto.ids().stream().filter(Objects::nonNull).distinct().toList();
+        Set<Long> updatedIds = new LinkedHashSet<>();
+        Set<Long> customerIds = new HashSet<>();
+
+        RowCallbackHandler collectUpdated = rs -> {
+            updatedIds.add(rs.getLong(1));
+            customerIds.add(rs.getLong(2));
+        };
+
+        String sql = targetState == ServiceRequestState.DONE ? FINISH_SQL : START_SQL;
+        LocalDateTime finishedAt = LocalDateTime.now();
+
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_STATEMENT) {
+            MapSqlParameterSource parameters = new MapSqlParameterSource()
+                    .addValue("ids", ids.subList(from, Math.min(from + MAX_IDS_PER_STATEMENT, ids.size())))
+                    .addValue("targetState", targetState.name())
+                    .addValue("expectedState", expectedState.name())
+                    .addValue("finishedAt", Timestamp.valueOf(finishedAt));
+
+            namedParameterJdbcTemplate.query(sql, parameters, collectUpdated);
+        }
+
+        // Evicted once the new states are visible, otherwise a concurrent preview could cache the old ones again
+        if (targetState == ServiceRequestState.DONE) AfterCommit.run(() -> customerIds.forEach(billingPreviewCache::evictCustomer));
+
+        List<Long> failedIds = ids.stream().filter(id -> !updatedIds.contains(id)).toList();
+        if (!failedIds.isEmpty()) {
+            log.warn("Service Requests with IDs {} could not be moved to {}", failedIds, targetState);
+        }
+        log.info("{} Service Requests moved to {}", updatedIds.size(), targetState);
+
+        return new ReadBulkStateTransitionDTO(targetState, List.copyOf(updatedIds), failedIds);
+    }
+
+    private static ServiceRequestState expectedStateFor(ServiceRequestState targetState) {
+        if (targetState == ServiceRequestState.IN_PROGRESS) return ServiceRequestState.TO_DO;
+        if (targetState == ServiceRequestState.DONE) return ServiceRequestState.IN_PROGRESS;
+
+        log.warn("Bulk transition to state {} is not supported", targetState);
+        throw new IllegalArgumentException("Service Requests can only be started or finished in bulk");
+    }
+
+    private ReadBulkServiceRequestDTO createAll(Iterator<CreateServiceRequestDTO> items) {
+        List<BulkServiceRequestResultDTO> results = new ArrayList<>();
+        List<IndexedItem> batch = new ArrayList<>(batchSize);
+        int index = 0;
+
+        while (items.hasNext()) {
+            batch.add(new IndexedItem(index++, items.next()));
+            if (batch.size() == batchSize) {
+                results.addAll(createBatch(batch));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) results.addAll(createBatch(batch));
+
+        int created = (int) results.stream().filter(result -> result.status() == BulkItemStatus.CREATED).count();
+        log.info("Bulk creation of service requests finished: {} received, {} created", results.size(), created);
+
+        return new ReadBulkServiceRequestDTO(results.size(), created, results.size() - created, results);
+    }
+
+    private List<BulkServiceRequestResultDTO> createBatch(List<IndexedItem> batch) {
+        try {
+            return transactionTemplate.execute(status -> insertBatch(batch));
+        } catch (RuntimeException e) {
+            log.error("Bulk creation batch of {} service requests rolled back", batch.size(), e);
+            return batch.stream()
+                    .map(item -> rejected(item.index(), "Batch rolled back: " + e.getMessage()))
+                    .toList();
+        }
+    }
+
+    private List<BulkServiceRequestResultDTO> insertBatch(List<IndexedItem> batch) {
+        Set<Long> agreementIds = new HashSet<>();
+        Set<Long> typeIds = new HashSet<>();
+        for (IndexedItem item : batch) {
+            if (item.dto() == null) continue;
+            if (item.dto().agreementId() != null) agreementIds.add(item.dto().agreementId());
+            if (item.dto().typeId() != null) typeIds.add(item.dto().typeId());
+        }
+
+        Map<Long, Agreement> agreements = agreementService.findAllByIds(agreementIds);
+        Map<Long, ServiceRequestType> types = serviceRequestTypeService.findAllByIds(typeIds);
+
+        List<BulkServiceRequestResultDTO> results = new ArrayList<>(batch.size());
+        List<IndexedItem> valid = new ArrayList<>(batch.size());
+
+        for (IndexedItem item : batch) {
+            String error = validate(item.dto(), agreements, types);
+            if (error == null) {
+                valid.add(item);
+            } else {
+                results.add(rejected(item.index(), error));
+            }
+        }
+
+        // Same rule as the single create: the first service request moves an accepted agreement to 'in course'
+        valid.stream()
+                .map(item -> agreements.get(item.dto().agreementId()))
+                .filter(agreement -> agreement.getState().equals(AgreementState.ACCEPTED))
+                .distinct()
+                .forEach(agreement -> {
+                    agreement.setState(AgreementState.IN_COURSE);
+                    agreementService.save(agreement);
+                });
+
+        List<Long> ids = insert(valid);
+        for (int i = 0; i < valid.size(); i++) {
+            results.add(new BulkServiceRequestResultDTO(valid.get(i).index(), ids.get(i), BulkItemStatus.CREATED, null));
+        }
+
+        results.sort(Comparator.comparingInt(BulkServiceRequestResultDTO::index));
+        return results;
+    }
+
+    private String validate(CreateServiceRequestDTO dto, Map<Long, Agreement> agreements, Map<Long, ServiceRequestType> types) {
+        if (dto == null) return "Malformed or empty item";
+
+        // Same constraints as CreateServiceRequestDTO
+        if (dto.typeId() == null) return "Service Request Type is required";
+        if (dto.agreementId() == null) return "Agreement is required";
+        if (dto.description() == null || dto.description().length() < 5 || dto.description().length() > 500) {
+            return "Description must contain between 5 and 500 characters";
+        }
+
+        Agreement agreement = agreements.get(dto.agreementId());
+        if (agreement == null) return "Agreement not found";
+
+        AgreementState agreementState = agreement.getState();
+        if (!(agreementState.equals(AgreementState.IN_COURSE) || agreementState.equals(AgreementState.ACCEPTED))) {
+            return "Agreement is not available for creating service requests";
+        }
+
+        ServiceRequestType type = types.get(dto.typeId());
+        if (type == null) return "Service Request Type not found";
+        if (type.getSoftDeleteDate() != null) return "Service Request Type not available";
+
+        return null;
+    }
+
+    private List<Long> insert(List<IndexedItem> items) {
+        if (items.isEmpty()) return List.of();
+
+        Timestamp registeredAt = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        CreateServiceRequestDTO dto = items.get(i).dto();
+                        ps.setString(1, dto.description());
+                        ps.setTimestamp(2, registeredAt);
+                        ps.setTimestamp(3, null);
+                        ps.setString(4, ServiceRequestState.TO_DO.name());
+                        ps.setLong(5, dto.agreementId());
+                        ps.setLong(6, dto.typeId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return items.size();
+                    }
+                },
+                keyHolder);
+
+        return keyHolder.getKeyList().stream()
+                .map(keys -> ((Number) Objects.requireNonNull(keys.get("id"))).longValue())
+                .toList();
+    }
+
+    private CreateServiceRequestDTO parseLine(String line) {
+        try {
+            return objectMapper.readValue(line, CreateServiceRequestDTO.class);
+        } catch (JacksonException e) {
+            // Reported as a rejected item instead of failing the whole stream
+            return null;
+        }
+    }
+
+    private static BulkServiceRequestResultDTO rejected(int index, String error) {
+        return new BulkServiceRequestResultDTO(index, null, BulkItemStatus.REJECTED, error);
+    }
+
+    private record IndexedItem(int index, CreateServiceRequestDTO dto) {
+    }
+}
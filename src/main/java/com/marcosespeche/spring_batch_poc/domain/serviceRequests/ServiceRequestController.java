@@ -1,6 +1,9 @@
 package com.marcosespeche.spring_batch_poc.domain.serviceRequests;
 
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.BulkStateTransitionDTO;
 import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.CreateServiceRequestDTO;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.ReadBulkServiceRequestDTO;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.ReadBulkStateTransitionDTO;
 import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.ReadServiceRequestDTO;
 import com.marcosespeche.spring_batch_poc.exceptions.ErrorResponseDTO;
 import io.swagger.v3.oas.annotations.Operation;
@@ -15,9 +18,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+import java.util.List;
+
 @RestController
 @RequestMapping(path = "/api/v1/service-requests")
 @Tag(name = "Service Requests", description = "Service Request management")
@@ -26,6 +33,9 @@ public class ServiceRequestController {
     @Autowired
     private ServiceRequestService service;
 
+    @Autowired
+    private ServiceRequestBulkService bulkService;
+
     @Operation(
             summary = "Find service requests",
             description = "Find service requests filtering by customer or project name"
@@ -126,6 +136,60 @@ public class ServiceRequestController {
     }
 
 
+    @Operation(
+            summary = "Create service requests in bulk",
+            description = "Creates many service requests at once, from a JSON array or an NDJSON stream (one object per line). " +
+                    "Every item is validated on its own and reported in the results"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Items processed, see the result of each one",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ReadBulkServiceRequestDTO.class)
+                    )
+            )
+    })
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ReadBulkServiceRequestDTO> createAll(@RequestBody List<CreateServiceRequestDTO> dtos) {
+        return ResponseEntity.ok(bulkService.createAll(dtos));
+    }
+
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ReadBulkServiceRequestDTO> createAllFromNdjson(InputStream body) {
+        return ResponseEntity.ok(bulkService.createAllFromNdjson(body));
+    }
+
+    @Operation(
+            summary = "Start or finish service requests in bulk",
+            description = "Moves many service requests to 'IN_PROGRESS' (from 'TO_DO') or to 'DONE' (from 'IN_PROGRESS') " +
+                    "with a single conditional update. Requests that don't exist or aren't in the required state are reported back"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Transition applied, see the updated and failed IDs",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ReadBulkStateTransitionDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "No service requests or unsupported target state",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            )
+    })
+    @PutMapping(path = "/bulk/state")
+    public ResponseEntity<ReadBulkStateTransitionDTO> transitionAll(@Valid @RequestBody BulkStateTransitionDTO dto) {
+        return ResponseEntity.ok(bulkService.transition(dto));
+    }
+
+
     @Operation(
             summary = "Start service request",
             description = "Changes Service Request state to 'IN PROGRESS'"
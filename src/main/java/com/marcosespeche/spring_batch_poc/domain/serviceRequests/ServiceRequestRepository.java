@@ -1,5 +1,7 @@
 package com.marcosespeche.spring_batch_poc.domain.serviceRequests;
 
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.CustomerServiceRequestCountDTO;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.ReadServiceRequestDTO;
 import com.marcosespeche.spring_batch_poc.entities.ServiceRequest;
 import com.marcosespeche.spring_batch_poc.enums.AgreementState;
 import com.marcosespeche.spring_batch_poc.enums.ServiceRequestState;
@@ -17,14 +19,24 @@ import java.util.List;
 public interface ServiceRequestRepository extends JpaRepository<ServiceRequest, Long> {
 
 
-    @Query("""
-            SELECT sr FROM ServiceRequest sr
+    @Query(value = """
+            SELECT new com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.ReadServiceRequestDTO(
+                sr.id, sr.description, sr.registeredAt, sr.finishedAt, sr.state, p.name, c.name, t.name)
+            FROM ServiceRequest sr
+            JOIN sr.agreement a
+            JOIN a.project p
+            JOIN a.customer c
+            JOIN sr.type t
+            WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :#{escape(#customerName)}, '%')) ESCAPE :#{escapeCharacter()} OR LOWER(p.name) LIKE LOWER(CONCAT('%', :#{escape(#projectName)}, '%')) ESCAPE :#{escapeCharacter()}
+            """,
+            countQuery = """
+            SELECT COUNT(sr) FROM ServiceRequest sr
             JOIN sr.agreement a
             JOIN a.project p
             JOIN a.customer c
-            WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :customerName, '%')) OR LOWER(p.name) LIKE LOWER(CONCAT('%', :projectName, '%'))
+            WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :#{escape(#customerName)}, '%')) ESCAPE :#{escapeCharacter()} OR LOWER(p.name) LIKE LOWER(CONCAT('%', :#{escape(#projectName)}, '%')) ESCAPE :#{escapeCharacter()}
             """)
-    Page<ServiceRequest> findByCustomerOrProject(@Param("customerName") String customerName, @Param("projectName") String projectName, Pageable pageable);
+    Page<ReadServiceRequestDTO> findByCustomerOrProject(@Param("customerName") String customerName, @Param("projectName") String projectName, Pageable pageable);
 
 
     @Query("""
@@ -45,4 +57,22 @@ public interface ServiceRequestRepository extends JpaRepository<ServiceRequest,
             @Param("serviceStateList") List<ServiceRequestState> serviceStateList,
             @Param("agreementStateList")List<AgreementState> agreementStateList);
 
+    @Query("""
+            SELECT new com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.CustomerServiceRequestCountDTO(c.id, COUNT(sr))
+            FROM ServiceRequest sr
+            JOIN sr.agreement a
+            JOIN a.customer c
+            WHERE
+            a.state IN :agreementStateList AND
+            sr.finishedAt IS NOT NULL AND
+            sr.finishedAt <= :endingDay AND sr.registeredAt >= :startingDay
+            AND sr.state IN :serviceStateList
+            GROUP BY c.id
+            """)
+    List<CustomerServiceRequestCountDTO> countByCustomerAndStateInAndPeriod(
+            @Param("startingDay") LocalDateTime startingDay,
+            @Param("endingDay") LocalDateTime endingDay,
+            @Param("serviceStateList") List<ServiceRequestState> serviceStateList,
+            @Param("agreementStateList") List<AgreementState> agreementStateList);
+
 }
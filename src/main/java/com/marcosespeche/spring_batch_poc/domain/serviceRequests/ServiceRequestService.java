@@ -1,8 +1,12 @@
 package com.marcosespeche.spring_batch_poc.domain.serviceRequests;
 
+import com.marcosespeche.spring_batch_poc.config.AfterCommit;
+import com.marcosespeche.spring_batch_poc.config.ReadOnlyTransactional;
 import com.marcosespeche.spring_batch_poc.domain.agreements.AgreementService;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.BillingPreviewCache;
 import com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes.ServiceRequestTypeService;
 import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.CreateServiceRequestDTO;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.CustomerServiceRequestCountDTO;
 import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.ReadServiceRequestDTO;
 import com.marcosespeche.spring_batch_poc.entities.Agreement;
 import com.marcosespeche.spring_batch_poc.entities.Customer;
@@ -37,18 +41,20 @@ public class ServiceRequestService {
 
     private final ServiceRequestTypeService serviceRequestTypeService;
 
+    private final BillingPreviewCache billingPreviewCache;
+
     @Autowired
-    public ServiceRequestService(ServiceRequestRepository serviceRequestRepository, ServiceRequestMapper serviceRequestMapper, AgreementService agreementService, ServiceRequestTypeService serviceRequestTypeService) {
+    public ServiceRequestService(ServiceRequestRepository serviceRequestRepository, ServiceRequestMapper serviceRequestMapper, AgreementService agreementService, ServiceRequestTypeService serviceRequestTypeService, BillingPreviewCache billingPreviewCache) {
         this.serviceRequestRepository = serviceRequestRepository;
         this.serviceRequestMapper = serviceRequestMapper;
         this.agreementService = agreementService;
         this.serviceRequestTypeService = serviceRequestTypeService;
+        this.billingPreviewCache = billingPreviewCache;
     }
 
-    @Transactional
+    @ReadOnlyTransactional
     public Page<ReadServiceRequestDTO> findByCustomerAndProject(String filter, Pageable pageable) {
-        Page<ServiceRequest> result = serviceRequestRepository.findByCustomerOrProject(filter, filter, pageable);
-        return result.map(serviceRequestMapper::toReadServiceRequestDTO);
+        return serviceRequestRepository.findByCustomerOrProject(filter, filter, pageable);
     }
 
     @Transactional
@@ -115,9 +121,14 @@ public class ServiceRequestService {
             throw new IllegalArgumentException("Service Request not available for finishing");
         }
 
+        LocalDateTime finishedAt = LocalDateTime.now();
         serviceRequest.setState(ServiceRequestState.DONE);
+        serviceRequest.setFinishedAt(finishedAt);
+        serviceRequest.setBillableMinutes(BillableMinutes.between(serviceRequest.getRegisteredAt(), finishedAt));
 
         serviceRequestRepository.save(serviceRequest);
+        Long customerId = serviceRequest.getAgreement().getCustomer().getId();
+        AfterCommit.run(() -> billingPreviewCache.evictCustomer(customerId));
         log.info("Service Request with ID {} finished", id);
 
         return serviceRequestMapper.toReadServiceRequestDTO(serviceRequest);
@@ -153,6 +164,21 @@ public class ServiceRequestService {
                 agreementStates);
     }
 
+    @Transactional
+    public List<CustomerServiceRequestCountDTO> countByCustomerAndPeriodAndServiceStateAndAgreementState(
+            YearMonth period,
+            List<ServiceRequestState> serviceStatesToBill,
+            List<AgreementState> agreementStates) {
+
+        LocalDateTime startingDayOfMonth = period.atDay(1).atStartOfDay();
+        LocalDateTime endingDayOfMonth = period.atEndOfMonth().atTime(LocalTime.MAX);
+        return serviceRequestRepository.countByCustomerAndStateInAndPeriod(
+                startingDayOfMonth,
+                endingDayOfMonth,
+                serviceStatesToBill,
+                agreementStates);
+    }
+
     private ServiceRequest findById(Long id) {
         return serviceRequestRepository.findById(id).orElseThrow(() -> {
             log.warn("Service Request with ID {} not found", id);
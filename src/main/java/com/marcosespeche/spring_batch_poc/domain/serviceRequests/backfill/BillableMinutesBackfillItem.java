@@ -0,0 +1,9 @@
+package com.marcosespeche.spring_batch_poc.domain.serviceRequests.backfill;
+
+public record BillableMinutesBackfillItem(
+
+        Long serviceRequestId,
+
+        Integer billableMinutes
+) {
+}
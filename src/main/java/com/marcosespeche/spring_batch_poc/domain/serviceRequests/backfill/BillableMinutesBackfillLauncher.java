@@ -0,0 +1,59 @@
+package com.marcosespeche.spring_batch_poc.domain.serviceRequests.backfill;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.job.Job;
+import org.springframework.batch.core.job.parameters.InvalidJobParametersException;
+import org.springframework.batch.core.job.parameters.JobParameters;
+import org.springframework.batch.core.job.parameters.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.launch.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.launch.JobOperator;
+import org.springframework.batch.core.launch.JobRestartException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Launches the billable minutes backfill on startup. The job always has the same parameters, so it runs once:
+ * after it completes, later startups only log that there is nothing to do, and a failed run is restarted from its
+ * last committed chunk.
+ */
+@Slf4j
+@Component
+@Profile("!api")
+@ConditionalOnProperty(name = "app.service-requests.backfill.enabled", havingValue = "true")
+public class BillableMinutesBackfillLauncher {
+
+    private final JobOperator jobOperator;
+    private final Job billableMinutesBackfillJob;
+
+    @Autowired
+    public BillableMinutesBackfillLauncher(JobOperator jobOperator,
+                                           @Qualifier("billableMinutesBackfillJob") Job billableMinutesBackfillJob) {
+        this.jobOperator = jobOperator;
+        this.billableMinutesBackfillJob = billableMinutesBackfillJob;
+    }
+
+    // Runs on the batch task executor, so startup isn't delayed by the backfill
+    @EventListener(ApplicationReadyEvent.class)
+    public void launch() {
+        JobParameters jobParameters = new JobParametersBuilder()
+                .addString("column", "billable_minutes")
+                .toJobParameters();
+
+        try {
+            jobOperator.start(billableMinutesBackfillJob, jobParameters);
+            log.info("Billable minutes backfill launched");
+
+        } catch (JobInstanceAlreadyCompleteException e) {
+            log.debug("Billable minutes backfill already completed");
+
+        } catch (JobExecutionAlreadyRunningException | JobRestartException | InvalidJobParametersException e) {
+            log.error("Error launching the billable minutes backfill", e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos;
+
+import com.marcosespeche.spring_batch_poc.enums.BulkItemStatus;
+
+public record BulkServiceRequestResultDTO(
+
+        // Position of the item in the request body, starting at 0
+        int index,
+
+        Long id,
+
+        BulkItemStatus status,
+
+        String error
+) {
+}
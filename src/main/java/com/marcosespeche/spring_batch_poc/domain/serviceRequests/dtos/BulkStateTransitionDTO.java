@@ -0,0 +1,26 @@
+package com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos;
+
+import com.marcosespeche.spring_batch_poc.enums.ServiceRequestState;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record BulkStateTransitionDTO(
+
+        @Schema(
+                description = "Service Request identifiers",
+                example = "[10, 11, 12]"
+        )
+        @NotEmpty(message = "At least one Service Request is required")
+        List<Long> ids,
+
+        @Schema(
+                description = "State to move the service requests to: 'IN_PROGRESS' (from 'TO_DO') or 'DONE' (from 'IN_PROGRESS')",
+                example = "DONE"
+        )
+        @NotNull(message = "Target state is required")
+        ServiceRequestState targetState
+) {
+}
@@ -0,0 +1,9 @@
+package com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos;
+
+public record CustomerServiceRequestCountDTO(
+
+        Long customerId,
+
+        Long serviceRequestCount
+) {
+}
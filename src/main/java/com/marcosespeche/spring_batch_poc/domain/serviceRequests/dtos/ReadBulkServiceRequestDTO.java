@@ -0,0 +1,15 @@
+package com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos;
+
+import java.util.List;
+
+public record ReadBulkServiceRequestDTO(
+
+        int received,
+
+        int created,
+
+        int rejected,
+
+        List<BulkServiceRequestResultDTO> results
+) {
+}
@@ -0,0 +1,16 @@
+package com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos;
+
+import com.marcosespeche.spring_batch_poc.enums.ServiceRequestState;
+
+import java.util.List;
+
+public record ReadBulkStateTransitionDTO(
+
+        ServiceRequestState targetState,
+
+        List<Long> updatedIds,
+
+        // Not found or not in the state required by the transition
+        List<Long> failedIds
+) {
+}
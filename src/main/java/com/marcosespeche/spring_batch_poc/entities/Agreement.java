@@ -4,11 +4,14 @@ import com.marcosespeche.spring_batch_poc.enums.AgreementState;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "agreements")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,41 @@
+package com.marcosespeche.spring_batch_poc.entities;
+
+import com.marcosespeche.spring_batch_poc.enums.PartitionRequestState;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@SuperBuilder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(indexes = @Index(name = "idx_billing_partition_request_state", columnList = "state"))
+public class BillingPartitionRequest extends BaseEntity {
+
+    @Column(nullable = false)
+    private Long jobExecutionId;
+
+    @Column(nullable = false)
+    private Long stepExecutionId;
+
+    @Column(nullable = false)
+    private String stepName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state", length = 20, nullable = false)
+    private PartitionRequestState state;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime claimedAt;
+
+    // Renewed by the worker while the partition runs. A claim without a recent heartbeat can be taken over
+    private LocalDateTime heartbeatAt;
+
+    private String claimedBy;
+}
@@ -17,6 +17,7 @@ import java.util.List;
 @SuperBuilder
 @AllArgsConstructor
 @NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_billing_process_period", columnNames = "period"))
 public class BillingProcess extends BaseEntity{
 
     private LocalDateTime registeredAt;
@@ -27,7 +28,7 @@ public class BillingProcess extends BaseEntity{
 
     private BillingProcessState state;
 
-    @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    @JoinColumn(name = "billingProcess", nullable = false)
+    // Owned by BillingProcessCustomer, so customers are added without loading the ones already billed
+    @OneToMany(mappedBy = "billingProcess", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<BillingProcessCustomer> billingProcessCustomerList = new ArrayList<>();
 }
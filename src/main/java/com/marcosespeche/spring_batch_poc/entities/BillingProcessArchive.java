@@ -0,0 +1,39 @@
+package com.marcosespeche.spring_batch_poc.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+// Bill of a customer moved out of the billing tables by billingArchiveJob. The whole simulation tree,
+// with its service requests, is kept as gzip-compressed JSON (see BillArchive)
+@Entity
+@Data
+@SuperBuilder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(indexes = @Index(name = "idx_billing_process_archive_customer_period", columnList = "customerId, period"))
+public class BillingProcessArchive extends BaseEntity {
+
+    @Column(nullable = false)
+    private Long billingProcessId;
+
+    @Column(nullable = false)
+    private Long billingProcessCustomerId;
+
+    @Column(nullable = false)
+    private Long customerId;
+
+    private YearMonth period;
+
+    private Double totalAmount;
+
+    private LocalDateTime archivedAt;
+
+    @Column(nullable = false)
+    private byte[] payload;
+}
@@ -4,7 +4,9 @@ import com.marcosespeche.spring_batch_poc.enums.BillingProcessCustomerState;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import lombok.experimental.SuperBuilder;
 
 import java.util.ArrayList;
@@ -15,6 +17,7 @@ import java.util.List;
 @SuperBuilder
 @AllArgsConstructor
 @NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_billing_process_customer", columnNames = {"billingProcess", "customer"}))
 public class BillingProcessCustomer extends BaseEntity {
 
     private Double totalAmountCustomer;
@@ -25,6 +28,12 @@ public class BillingProcessCustomer extends BaseEntity {
     @JoinColumn(nullable = false, name = "customer")
     private Customer customer;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(nullable = false, name = "billingProcess")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private BillingProcess billingProcess;
+
     @OneToMany(cascade = CascadeType.ALL)
     @JoinColumn(name = "billingProcessCustomer")
     private List<BillingProcessSimulation> billingProcessSimulations = new ArrayList<>();
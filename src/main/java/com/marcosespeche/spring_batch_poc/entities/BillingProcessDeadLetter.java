@@ -0,0 +1,42 @@
+package com.marcosespeche.spring_batch_poc.entities;
+
+import com.marcosespeche.spring_batch_poc.enums.BillingProcessDeadLetterState;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@SuperBuilder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(indexes = @Index(name = "idx_billing_process_dead_letter_process_state", columnList = "billingProcessId, state"))
+public class BillingProcessDeadLetter extends BaseEntity {
+
+    @Column(nullable = false)
+    private Long billingProcessId;
+
+    // Null when the item could not even be read
+    private Long customerId;
+
+    @Column(nullable = false, length = 20)
+    private String phase;
+
+    @Column(nullable = false)
+    private String cause;
+
+    @Column(length = 2000)
+    private String message;
+
+    private LocalDateTime failedAt;
+
+    private LocalDateTime reprocessedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state", length = 20, nullable = false)
+    private BillingProcessDeadLetterState state;
+}
@@ -5,11 +5,14 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "billing-history")
 @Data
 @SuperBuilder
 @AllArgsConstructor
@@ -30,7 +33,12 @@ public class BillingProcessServiceRequestType extends BaseEntity {
     @JoinTable(
             name = "billingProcessServiceRequestType_ServiceRequest",
             joinColumns = @JoinColumn(name = "billingProcessServiceRequestTypeId"),
-            inverseJoinColumns = @JoinColumn(name = "serviceRequestId")
+            inverseJoinColumns = @JoinColumn(name = "serviceRequestId"),
+            // Billed requests are marked and archived walking this table by either side
+            indexes = {
+                    @Index(name = "idx_billing_process_srt_sr_type", columnList = "billingProcessServiceRequestTypeId"),
+                    @Index(name = "idx_billing_process_srt_sr_service_request", columnList = "serviceRequestId")
+            }
     )
     private List<ServiceRequest> serviceRequests = new ArrayList<>();
 }
@@ -0,0 +1,36 @@
+package com.marcosespeche.spring_batch_poc.entities;
+
+import com.marcosespeche.spring_batch_poc.enums.BillingRetryRequestState;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@SuperBuilder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(indexes = @Index(name = "idx_billing_retry_request_state", columnList = "state"))
+public class BillingRetryRequest extends BaseEntity {
+
+    @Column(nullable = false)
+    private Long billingProcessId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state", length = 20, nullable = false)
+    private BillingRetryRequestState state;
+
+    @Column(nullable = false)
+    private LocalDateTime requestedAt;
+
+    // A claim that wasn't followed by a launch within the claim TTL belongs to an instance that died, and can be taken over
+    private LocalDateTime claimedAt;
+
+    private LocalDateTime finishedAt;
+
+    private Long jobExecutionId;
+}
@@ -0,0 +1,33 @@
+package com.marcosespeche.spring_batch_poc.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@SuperBuilder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_scheduler_lease_name", columnNames = "name"))
+public class SchedulerLease extends BaseEntity {
+
+    @Column(nullable = false)
+    private String name;
+
+    // Null while nobody holds the lease
+    private String owner;
+
+    // Incremented on every acquisition, so a previous holder can't act after losing the lease
+    @Column(nullable = false)
+    private Long fencingToken;
+
+    private LocalDateTime heartbeatAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -23,6 +23,9 @@ public class ServiceRequest extends BaseEntity {
 
     private LocalDateTime finishedAt;
 
+    // Whole minutes between registeredAt and finishedAt, stored when the request is finished
+    private Integer billableMinutes;
+
     @Enumerated(EnumType.STRING)
     private ServiceRequestState state;
 
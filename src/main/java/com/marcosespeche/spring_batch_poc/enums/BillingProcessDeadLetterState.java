@@ -0,0 +1,6 @@
+package com.marcosespeche.spring_batch_poc.enums;
+
+public enum BillingProcessDeadLetterState {
+    PENDING,
+    REPROCESSED
+}
@@ -0,0 +1,8 @@
+package com.marcosespeche.spring_batch_poc.enums;
+
+public enum BillingRetryRequestState {
+    PENDING,
+    CLAIMED,
+    LAUNCHED,
+    FAILED
+}
@@ -0,0 +1,12 @@
+package com.marcosespeche.spring_batch_poc.exceptions;
+
+/**
+ * Data that can not be billed (missing fee, inconsistent timestamps...). Retrying does not help:
+ * the billing job skips the customer and records it as a dead letter.
+ */
+public class InvalidBillingDataException extends RuntimeException {
+
+    public InvalidBillingDataException(String message) {
+        super(message);
+    }
+}
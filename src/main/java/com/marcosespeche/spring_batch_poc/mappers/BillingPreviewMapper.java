@@ -0,0 +1,34 @@
+package com.marcosespeche.spring_batch_poc.mappers;
+
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.dtos.ReadBillingPreviewAgreementDTO;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.dtos.ReadBillingPreviewDTO;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.dtos.ReadBillingPreviewServiceRequestTypeDTO;
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessAgreement;
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessServiceRequestType;
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessSimulation;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.time.YearMonth;
+
+@Mapper(componentModel = "spring")
+public interface BillingPreviewMapper {
+
+    @Mapping(target = "customerId", source = "customerId")
+    @Mapping(target = "period", source = "period")
+    @Mapping(target = "simulatedAt", source = "simulation.simulatedAt")
+    @Mapping(target = "totalAmount", source = "simulation.totalAmount")
+    @Mapping(target = "agreements", source = "simulation.billingProcessAgreementList")
+    ReadBillingPreviewDTO toReadBillingPreviewDTO(BillingProcessSimulation simulation, Long customerId, YearMonth period);
+
+    @Mapping(target = "agreementId", source = "agreement.id")
+    @Mapping(target = "totalAmount", source = "totalAmountAgreement")
+    @Mapping(target = "serviceRequestTypes", source = "billingProcessServiceRequestTypeList")
+    ReadBillingPreviewAgreementDTO toReadBillingPreviewAgreementDTO(BillingProcessAgreement billingProcessAgreement);
+
+    @Mapping(target = "serviceRequestTypeId", source = "serviceRequestType.id")
+    @Mapping(target = "name", source = "serviceRequestType.name")
+    @Mapping(target = "totalAmount", source = "totalAmountServiceRequestType")
+    @Mapping(target = "serviceRequestCount", expression = "java(billingProcessServiceRequestType.getServiceRequests().size())")
+    ReadBillingPreviewServiceRequestTypeDTO toReadBillingPreviewServiceRequestTypeDTO(BillingProcessServiceRequestType billingProcessServiceRequestType);
+}
@@ -0,0 +1,118 @@
+package com.marcosespeche.spring_batch_poc;
+
+import com.marcosespeche.spring_batch_poc.config.SyncTaskExecutorConfiguration;
+import com.marcosespeche.spring_batch_poc.entities.*;
+import com.marcosespeche.spring_batch_poc.enums.AgreementState;
+import com.marcosespeche.spring_batch_poc.enums.BillingProcessState;
+import com.marcosespeche.spring_batch_poc.enums.ServiceRequestState;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.job.Job;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.core.job.parameters.JobParametersBuilder;
+import org.springframework.batch.test.JobOperatorTestUtils;
+import org.springframework.batch.test.context.SpringBatchTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Boots the whole application on H2 and runs the monthly billing job. Also compiled to a native image and run with
+ * {@code mvn -PnativeTest test}, which checks the runtime hints cover entities, YearMonth and the step-scoped beans.
+ */
+@SpringBatchTest
+@SpringBootTest
+@Import(SyncTaskExecutorConfiguration.class)
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@TestPropertySource(properties = {
+        "spring.main.allow-bean-definition-overriding=true",
+        "spring.batch.jdbc.initialize-schema=always",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.service-requests.backfill.enabled=false"
+})
+class NativeSmokeTest {
+
+    @Autowired
+    private JobOperatorTestUtils jobOperatorTestUtils;
+
+    @Autowired
+    private Job billingProcessJob;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void shouldRunMonthlyBillingProcessJob() throws Exception {
+        // Arrange
+        YearMonth period = YearMonth.now();
+        Long billingProcessId = new TransactionTemplate(transactionManager).execute(status -> persistBillingData(period));
+        jobOperatorTestUtils.setJob(billingProcessJob);
+
+        // Act
+        JobExecution jobExecution = jobOperatorTestUtils.startJob(new JobParametersBuilder()
+                .addString("period", period.toString())
+                .addLong("billingProcessId", billingProcessId)
+                .toJobParameters());
+
+        // Assert
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+    }
+
+    private Long persistBillingData(YearMonth period) {
+        BillingProcess billingProcess = BillingProcess.builder()
+                .state(BillingProcessState.REGISTERED)
+                .totalAmountBillingProcess(0.0)
+                .period(period)
+                .registeredAt(LocalDateTime.now())
+                .billingProcessCustomerList(new ArrayList<>())
+                .build();
+        entityManager.persist(billingProcess);
+
+        Customer customer = Customer.builder().email("smoke@gmail.com").name("Smoke customer").build();
+        entityManager.persist(customer);
+
+        Project project = Project.builder().name("Smoke project").description("Description").customer(customer).build();
+        entityManager.persist(project);
+
+        Agreement agreement = Agreement.builder()
+                .acceptedAt(LocalDateTime.now().minusMonths(1))
+                .state(AgreementState.IN_COURSE)
+                .startingPeriod(period.minusMonths(1))
+                .endingPeriod(period.plusMonths(1))
+                .customer(customer)
+                .project(project)
+                .build();
+        entityManager.persist(agreement);
+
+        ServiceRequestType type = ServiceRequestType.builder().name("Smoke type").description("Description").hourlyFee(10.0).build();
+        entityManager.persist(type);
+
+        entityManager.persist(ServiceRequest.builder()
+                .description("Description")
+                .registeredAt(LocalDateTime.now().minusHours(2))
+                .finishedAt(LocalDateTime.now())
+                .billableMinutes(120)
+                .state(ServiceRequestState.DONE)
+                .agreement(agreement)
+                .type(type)
+                .build());
+
+        return billingProcess.getId();
+    }
+}
@@ -0,0 +1,94 @@
+package com.marcosespeche.spring_batch_poc.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Two H2 databases stand in for the primary and the replica, each one answers with its own name
+class LagAwareReplicaDataSourceTest {
+
+    private static final String LAG_QUERY = "SELECT lag_seconds FROM replica_status";
+
+    private final DataSource primary = h2("primary");
+    private final DataSource replica = h2("replica");
+
+    @BeforeEach
+    void setUp() {
+        for (DataSource dataSource : new DataSource[]{primary, replica}) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+            jdbcTemplate.execute("DELETE FROM node");
+        }
+        new JdbcTemplate(primary).update("INSERT INTO node VALUES ('primary')");
+        new JdbcTemplate(replica).update("INSERT INTO node VALUES ('replica')");
+        new JdbcTemplate(replica).execute("CREATE TABLE IF NOT EXISTS replica_status (lag_seconds DOUBLE)");
+        setReplicaLag(0);
+    }
+
+    @Test
+    void shouldReadFromReplicaOnlyInReadOnlyTransactions() {
+        // Arrange
+        DataSource dataSource = routing(replica);
+
+        // Act & Assert
+        assertEquals("replica", nodeName(dataSource, true));
+        assertEquals("primary", nodeName(dataSource, false));
+    }
+
+    @Test
+    void shouldReadFromPrimaryWhileReplicaLagsBehind() {
+        // Arrange
+        setReplicaLag(60);
+        DataSource dataSource = routing(replica);
+
+        // Act & Assert
+        assertEquals("primary", nodeName(dataSource, true));
+
+        setReplicaLag(1);
+        assertEquals("replica", nodeName(dataSource, true), "Replica should be used again once it catches up");
+    }
+
+    @Test
+    void shouldReadFromPrimaryWhenReplicaIsUnreachable() throws SQLException {
+        // Arrange
+        DataSource unreachable = mock(DataSource.class);
+        when(unreachable.getConnection()).thenThrow(new SQLException("Connection refused"));
+        DataSource dataSource = routing(unreachable);
+
+        // Act & Assert
+        assertEquals("primary", nodeName(dataSource, true));
+    }
+
+    // Lag is measured on every connection so each assertion sees the current lag
+    private DataSource routing(DataSource replicaDataSource) {
+        return DataSourceConfig.IsolatedPoolsConfig.replicaRouting(primary,
+                new LagAwareReplicaDataSource(replicaDataSource, primary, Duration.ofSeconds(5), Duration.ZERO, LAG_QUERY));
+    }
+
+    private String nodeName(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private void setReplicaLag(double lagSeconds) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(replica);
+        jdbcTemplate.execute("DELETE FROM replica_status");
+        jdbcTemplate.update("INSERT INTO replica_status VALUES (?)", lagSeconds);
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
@@ -0,0 +1,35 @@
+package com.marcosespeche.spring_batch_poc.config;
+
+import com.marcosespeche.spring_batch_poc.config.WorkloadRoutingDataSource.Workload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class WorkloadRoutingDataSourceTest {
+
+    private final WorkloadRoutingDataSource dataSource = new WorkloadRoutingDataSource();
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void shouldRouteRequestThreadsToApiPool() {
+        // Arrange
+        RequestContextHolder.setRequestAttributes(mock(RequestAttributes.class));
+
+        // Act & Assert
+        assertEquals(Workload.API, dataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void shouldRouteThreadsOutsideRequestsToBatchPool() {
+        // Act & Assert
+        assertEquals(Workload.BATCH, dataSource.determineCurrentLookupKey());
+    }
+}
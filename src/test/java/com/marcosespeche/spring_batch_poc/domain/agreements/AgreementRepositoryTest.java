@@ -1,5 +1,6 @@
 package com.marcosespeche.spring_batch_poc.domain.agreements;
 
+import com.marcosespeche.spring_batch_poc.domain.agreements.dtos.ReadAgreementDTO;
 import com.marcosespeche.spring_batch_poc.entities.Agreement;
 import com.marcosespeche.spring_batch_poc.entities.Customer;
 import com.marcosespeche.spring_batch_poc.entities.Project;
@@ -99,7 +100,7 @@ class AgreementRepositoryTest {
             entityManager.flush();
 
             // Act
-            Page<Agreement> result = agreementRepository
+            Page<ReadAgreementDTO> result = agreementRepository
                     .findByCustomerNameContainingIgnoreCaseOrProjectNameContainingIgnoreCaseOrderByAcceptedAtDesc(
                             "ABC", "ABC", PageRequest.of(0, 2));
 
@@ -107,9 +108,9 @@ class AgreementRepositoryTest {
             assertAll(
                     () -> assertNotNull(result),
                     () -> assertEquals(2, result.getTotalElements()),
-                    () -> assertEquals("Customer ABC", result.getContent().getFirst().getCustomer().getName()),
-                    () -> assertEquals(starting1, result.getContent().getFirst().getStartingPeriod(), "Starting period should match"),
-                    () -> assertEquals("Project ABC", result.getContent().getLast().getProject().getName())
+                    () -> assertEquals("Customer ABC", result.getContent().getFirst().customerName()),
+                    () -> assertEquals(starting1, result.getContent().getFirst().startingPeriod(), "Starting period should match"),
+                    () -> assertEquals("Project ABC", result.getContent().getLast().projectName())
             );
         }
 
@@ -3,6 +3,7 @@ package com.marcosespeche.spring_batch_poc.domain.agreements;
 import com.marcosespeche.spring_batch_poc.domain.agreements.dtos.CreateAgreementDTO;
 import com.marcosespeche.spring_batch_poc.domain.agreements.dtos.ReadAgreementDTO;
 import com.marcosespeche.spring_batch_poc.domain.agreements.dtos.UpdateAgreementDTO;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.BillingPreviewCache;
 import com.marcosespeche.spring_batch_poc.domain.projects.ProjectService;
 import com.marcosespeche.spring_batch_poc.entities.Agreement;
 import com.marcosespeche.spring_batch_poc.entities.Customer;
@@ -37,6 +38,9 @@ class AgreementServiceTest {
     @Mock
     private ProjectService projectService;
 
+    @Mock
+    private BillingPreviewCache billingPreviewCache;
+
     @Spy
     private AgreementMapper agreementMapper = Mappers.getMapper(AgreementMapper.class);
 
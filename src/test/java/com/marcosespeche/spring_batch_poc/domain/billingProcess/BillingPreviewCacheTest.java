@@ -0,0 +1,125 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess;
+
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.dtos.ReadBillingPreviewDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BillingPreviewCacheTest {
+
+    private static final YearMonth PERIOD = YearMonth.of(2025, 6);
+
+    private BillingPreviewCache billingPreviewCache;
+
+    @BeforeEach
+    void setUp() {
+        billingPreviewCache = new BillingPreviewCache(100, Duration.ofMinutes(5));
+    }
+
+    @Nested
+    @DisplayName("get method")
+    class GetTests {
+
+        @Test
+        void shouldReturnStoredPreviewWithoutLoadingAgain() {
+            // Arrange
+            ReadBillingPreviewDTO stored = billingPreviewCache.get(1L, PERIOD, () -> preview(100.0));
+
+            // Act
+            ReadBillingPreviewDTO cached = billingPreviewCache.get(1L, PERIOD, () -> fail("Preview should come from the cache"));
+
+            // Assert
+            assertSame(stored, cached);
+        }
+
+        @Test
+        void shouldNotStorePreviewComputedWhileCustomerWasEvicted() throws Exception {
+            // Arrange
+            CountDownLatch loading = new CountDownLatch(1);
+            CountDownLatch evicted = new CountDownLatch(1);
+
+            // Started before the change commits, finished after its eviction
+            CompletableFuture<ReadBillingPreviewDTO> stale = CompletableFuture.supplyAsync(() ->
+                    billingPreviewCache.get(1L, PERIOD, () -> {
+                        loading.countDown();
+                        await(evicted);
+                        return preview(100.0);
+                    }));
+
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            // Act
+            billingPreviewCache.evictCustomer(1L);
+            evicted.countDown();
+            ReadBillingPreviewDTO returnedToCaller = stale.get(5, TimeUnit.SECONDS);
+            ReadBillingPreviewDTO next = billingPreviewCache.get(1L, PERIOD, () -> preview(150.0));
+
+            // Assert
+            assertAll(
+                    () -> assertEquals(100.0, returnedToCaller.totalAmount()),
+                    () -> assertEquals(150.0, next.totalAmount(), "The stale preview should not be cached")
+            );
+        }
+
+        @Test
+        void shouldNotStorePreviewComputedWhileCacheWasCleared() throws Exception {
+            // Arrange
+            CountDownLatch loading = new CountDownLatch(1);
+            CountDownLatch cleared = new CountDownLatch(1);
+
+            CompletableFuture<ReadBillingPreviewDTO> stale = CompletableFuture.supplyAsync(() ->
+                    billingPreviewCache.get(1L, PERIOD, () -> {
+                        loading.countDown();
+                        await(cleared);
+                        return preview(100.0);
+                    }));
+
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            // Act
+            billingPreviewCache.clear();
+            cleared.countDown();
+            stale.get(5, TimeUnit.SECONDS);
+            ReadBillingPreviewDTO next = billingPreviewCache.get(1L, PERIOD, () -> preview(150.0));
+
+            // Assert
+            assertEquals(150.0, next.totalAmount());
+        }
+
+        @Test
+        void shouldKeepPreviewsOfOtherCustomersWhenOneIsEvicted() {
+            // Arrange
+            ReadBillingPreviewDTO other = billingPreviewCache.get(2L, PERIOD, () -> preview(100.0));
+
+            // Act
+            billingPreviewCache.evictCustomer(1L);
+
+            // Assert
+            assertSame(other, billingPreviewCache.get(2L, PERIOD, () -> fail("Preview should come from the cache")));
+        }
+    }
+
+    private static ReadBillingPreviewDTO preview(Double totalAmount) {
+        return new ReadBillingPreviewDTO(1L, PERIOD, LocalDateTime.now(), totalAmount, List.of());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
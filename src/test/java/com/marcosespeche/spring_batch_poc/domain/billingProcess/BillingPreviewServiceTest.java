@@ -0,0 +1,92 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess;
+
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.billCalculator.IBillCalculator;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.dtos.ReadBillingPreviewDTO;
+import com.marcosespeche.spring_batch_poc.domain.customers.CustomerService;
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessSimulation;
+import com.marcosespeche.spring_batch_poc.entities.Customer;
+import com.marcosespeche.spring_batch_poc.mappers.BillingPreviewMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BillingPreviewServiceTest {
+
+    @Mock
+    private IBillCalculator billCalculator;
+
+    @Mock
+    private CustomerService customerService;
+
+    @Spy
+    private BillingPreviewMapper billingPreviewMapper = Mappers.getMapper(BillingPreviewMapper.class);
+
+    @Spy
+    private BillingPreviewCache billingPreviewCache = new BillingPreviewCache(100, Duration.ofMinutes(5));
+
+    @InjectMocks
+    private BillingPreviewService billingPreviewService;
+
+    @Nested
+    @DisplayName("preview method")
+    class PreviewTests {
+
+        @Test
+        void shouldReturnCachedPreviewUntilCustomerIsEvicted() {
+            // Arrange
+            Long customerId = 1L;
+            YearMonth period = YearMonth.now();
+            Customer customer = Customer.builder().id(customerId).build();
+
+            when(customerService.findById(customerId))
+                    .thenReturn(customer);
+            when(billCalculator.simulateCustomerBill(eq(customer), eq(period), any()))
+                    .thenReturn(BillingProcessSimulation.builder()
+                            .totalAmount(150.0)
+                            .simulatedAt(LocalDateTime.now())
+                            .billingProcessAgreementList(new ArrayList<>())
+                            .build());
+
+            // Act
+            ReadBillingPreviewDTO first = billingPreviewService.preview(customerId, period);
+            ReadBillingPreviewDTO second = billingPreviewService.preview(customerId, period);
+            billingPreviewCache.evictCustomer(customerId);
+            billingPreviewService.preview(customerId, period);
+
+            // Assert
+            assertAll(
+                    () -> assertEquals(150.0, first.totalAmount()),
+                    () -> assertEquals(customerId, first.customerId()),
+                    () -> assertSame(first, second, "Second preview should come from the cache"),
+                    () -> verify(billCalculator, times(2)).simulateCustomerBill(any(), any(), any())
+            );
+        }
+
+        @Test
+        void shouldThrowExceptionWhenPeriodIsInTheFuture() {
+            // Act & Assert
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> billingPreviewService.preview(1L, YearMonth.now().plusMonths(1)));
+
+            assertEquals("The period can not be in the future", exception.getMessage());
+            verifyNoInteractions(customerService, billCalculator);
+        }
+    }
+}
@@ -1,13 +1,16 @@
 package com.marcosespeche.spring_batch_poc.domain.billingProcess;
 
 import com.marcosespeche.spring_batch_poc.config.SyncTaskExecutorConfiguration;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.dtos.ReadBillingRetryDTO;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.retries.BillingRetryRequestService;
 import com.marcosespeche.spring_batch_poc.entities.*;
 import com.marcosespeche.spring_batch_poc.enums.AgreementState;
+import com.marcosespeche.spring_batch_poc.enums.BillingProcessDeadLetterState;
 import com.marcosespeche.spring_batch_poc.enums.BillingProcessState;
+import com.marcosespeche.spring_batch_poc.enums.BillingRetryRequestState;
 import com.marcosespeche.spring_batch_poc.enums.ServiceRequestState;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
-import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.batch.core.BatchStatus;
@@ -16,6 +19,8 @@ import org.springframework.batch.core.job.Job;
 import org.springframework.batch.core.job.JobExecution;
 import org.springframework.batch.core.job.parameters.JobParameters;
 import org.springframework.batch.core.job.parameters.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.test.JobOperatorTestUtils;
 import org.springframework.batch.test.JobRepositoryTestUtils;
 import org.springframework.batch.test.context.SpringBatchTest;
@@ -25,16 +30,28 @@ import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabas
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 
 @SpringBatchTest
 @SpringBootTest
@@ -44,7 +61,8 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
         "spring.main.allow-bean-definition-overriding=true",
         "spring.batch.job.enabled=false", // Prevents automatic execution
         "spring.batch.jdbc.initialize-schema=always",
-        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.billing.retry-requests.poll-interval-ms=3600000" // Retry requests are only launched by the tests
 })
 public class BillingProcessJobIntegrationTest {
 
@@ -55,23 +73,257 @@ public class BillingProcessJobIntegrationTest {
     private JobRepositoryTestUtils jobRepositoryTestUtils;
 
     @Autowired
-    private Job job;
+    private JobRepository jobRepository;
+
+    @Autowired
+    private Job billingProcessJob;
+
+    @Autowired
+    private Job billingRetryJob;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BillingProcessScheduler billingProcessScheduler;
+
+    @Autowired
+    private BillingRetryRequestService billingRetryRequestService;
+
+    @MockitoSpyBean
+    private BillingProcessService billingProcessService;
 
     @PersistenceContext
     private EntityManager entityManager;
 
+    private TransactionTemplate transactionTemplate;
+
     @BeforeEach
     void setUp() {
         jobRepositoryTestUtils.removeJobExecutions();
-        jobOperatorTestUtils.setJob(job);
+        jobOperatorTestUtils.setJob(billingProcessJob);
+        transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
+    // The JDBC JobRepository rejects jobs launched inside an existing transaction, so test data is committed first
     @Test
-    @Transactional
     public void testJob() throws Exception {
         // Arrange
-        YearMonth actualPeriod = YearMonth.now();
+        YearMonth actualPeriod = YearMonth.now().minusMonths(2);
+        Long billingProcessId = transactionTemplate.execute(status -> persistBillingData(actualPeriod)).billingProcessId();
+
+        JobParameters jobParameters = new JobParametersBuilder()
+                .addString("period", actualPeriod.toString())
+                .addLong("billingProcessId", billingProcessId)
+                .toJobParameters();
+
+        // Act
+        JobExecution jobExecution = jobOperatorTestUtils.startJob(jobParameters);
+
+        await()
+                .atMost(30, SECONDS)
+                .pollInterval(200, MILLISECONDS)
+                .untilAsserted(() -> {
+                    assertFalse(jobExecution.isRunning());
+                });
+
+        // Assert
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+        assertEquals(ExitStatus.COMPLETED, jobExecution.getExitStatus());
+
+        List<Long> billedCustomerIds = transactionTemplate.execute(status ->
+                entityManager.find(BillingProcess.class, billingProcessId).getBillingProcessCustomerList().stream()
+                        .map(billingProcessCustomer -> billingProcessCustomer.getCustomer().getId())
+                        .toList());
+        assertFalse(billedCustomerIds.isEmpty());
+        assertEquals(billedCustomerIds.size(), new HashSet<>(billedCustomerIds).size(), "Each customer should be billed once");
+
+        List<ServiceRequestState> billedRequestStates = transactionTemplate.execute(status ->
+                entityManager.createQuery("""
+                                SELECT sr.state FROM ServiceRequest sr
+                                WHERE sr.agreement.customer.id IN :customerIds""", ServiceRequestState.class)
+                        .setParameter("customerIds", billedCustomerIds)
+                        .getResultList());
+        assertFalse(billedRequestStates.isEmpty());
+        assertTrue(billedRequestStates.stream().allMatch(ServiceRequestState.BILLED::equals), "Billed requests should leave DONE");
+    }
+
+    @Test
+    public void shouldNotRelaunchCompletedBillingProcess() throws Exception {
+        // Arrange
+        YearMonth actualPeriod = YearMonth.now().minusMonths(3);
+        Long billingProcessId = transactionTemplate.execute(status -> persistBillingData(actualPeriod)).billingProcessId();
+
+        JobParameters jobParameters = new JobParametersBuilder()
+                .addString("period", actualPeriod.toString())
+                .addLong("billingProcessId", billingProcessId)
+                .toJobParameters();
+
+        JobExecution jobExecution = jobOperatorTestUtils.startJob(jobParameters);
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+
+        // Act & Assert
+        assertThrows(JobInstanceAlreadyCompleteException.class, () -> jobOperatorTestUtils.startJob(jobParameters));
+    }
+
+    @Test
+    public void shouldResumeFailedRunWithoutRebillingCompletedPartitions() throws Exception {
+        // Arrange
+        YearMonth actualPeriod = YearMonth.now().minusMonths(5);
+        BillingData billingData = transactionTemplate.execute(status -> persistBillingData(actualPeriod));
+        List<Long> customerIds = new ArrayList<>(List.of(billingData.customerId()));
+        for (int i = 0; i < 3; i++) {
+            customerIds.add(transactionTemplate.execute(status -> persistBillableCustomer(actualPeriod)));
+        }
+
+        // The partition of the last customer fails, the ones before it complete
+        Long failingCustomerId = customerIds.getLast();
+        AtomicBoolean failWrites = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            List<BillingProcessCustomer> written = invocation.getArgument(1);
+            if (failWrites.get() && written.stream().anyMatch(bill -> bill.getCustomer().getId().equals(failingCustomerId))) {
+                throw new IllegalStateException("Simulated worker failure");
+            }
+            return invocation.callRealMethod();
+        }).when(billingProcessService).addCustomers(any(), any());
+
+        JobParameters jobParameters = new JobParametersBuilder()
+                .addString("period", actualPeriod.toString())
+                .addLong("billingProcessId", billingData.billingProcessId())
+                .toJobParameters();
+
+        JobExecution failedExecution = jobOperatorTestUtils.startJob(jobParameters);
+        assertEquals(BatchStatus.FAILED, failedExecution.getStatus());
+        failWrites.set(false);
+
+        // Act
+        JobExecution resumedExecution = jobOperatorTestUtils.startJob(jobParameters);
+
+        // Assert
+        assertEquals(BatchStatus.COMPLETED, resumedExecution.getStatus());
+        assertEquals(failedExecution.getJobInstance().getInstanceId(), resumedExecution.getJobInstance().getInstanceId(), "The failed instance should be restarted");
+        assertEquals(1, resumedExecution.getStepExecutions().stream()
+                .filter(stepExecution -> stepExecution.getStepName().startsWith("billingProcessStep:"))
+                .count(), "Only the failed partition should run again");
+
+        List<Long> billedCustomerIds = transactionTemplate.execute(status ->
+                entityManager.find(BillingProcess.class, billingData.billingProcessId()).getBillingProcessCustomerList().stream()
+                        .map(billingProcessCustomer -> billingProcessCustomer.getCustomer().getId())
+                        .toList());
+        assertTrue(billedCustomerIds.containsAll(customerIds));
+        assertEquals(billedCustomerIds.size(), new HashSet<>(billedCustomerIds).size(), "Each customer should be billed once");
+    }
+
+    @Test
+    public void shouldFailJobLaunchedUnderLeaseThatIsNoLongerHeld() throws Exception {
+        // Arrange
+        YearMonth actualPeriod = YearMonth.now().minusMonths(4);
+        Long billingProcessId = transactionTemplate.execute(status -> persistBillingData(actualPeriod)).billingProcessId();
 
+        JobParameters jobParameters = new JobParametersBuilder()
+                .addString("period", actualPeriod.toString())
+                .addLong("billingProcessId", billingProcessId)
+                .addString("lease", "monthly-billing-process", false)
+                .addLong("fencingToken", Long.MAX_VALUE, false)
+                .toJobParameters();
+
+        // Act
+        JobExecution jobExecution = jobOperatorTestUtils.startJob(jobParameters);
+
+        // Assert
+        assertEquals(BatchStatus.FAILED, jobExecution.getStatus());
+
+        List<BillingProcessCustomer> bills = transactionTemplate.execute(status ->
+                new ArrayList<>(entityManager.find(BillingProcess.class, billingProcessId).getBillingProcessCustomerList()));
+        assertTrue(bills.isEmpty(), "A fenced off job should not write bills");
+    }
+
+    @Test
+    public void shouldBillDeadLetteredCustomerAndMarkItReprocessed() throws Exception {
+        // Arrange
+        YearMonth period = YearMonth.now().minusMonths(1);
+        BillingData billingData = transactionTemplate.execute(status -> persistBillingData(period));
+
+        Long deadLetterId = transactionTemplate.execute(status -> {
+            BillingProcessDeadLetter deadLetter = BillingProcessDeadLetter.builder()
+                    .billingProcessId(billingData.billingProcessId())
+                    .customerId(billingData.customerId())
+                    .phase("PROCESS")
+                    .cause("InvalidBillingDataException")
+                    .failedAt(LocalDateTime.now().minusMinutes(5))
+                    .state(BillingProcessDeadLetterState.PENDING)
+                    .build();
+            entityManager.persist(deadLetter);
+            return deadLetter.getId();
+        });
+
+        JobParameters jobParameters = new JobParametersBuilder()
+                .addString("period", period.toString())
+                .addLong("billingProcessId", billingData.billingProcessId())
+                .addLocalDateTime("requestedAt", LocalDateTime.now())
+                .toJobParameters();
+
+        jobOperatorTestUtils.setJob(billingRetryJob);
+
+        // Act
+        JobExecution jobExecution = jobOperatorTestUtils.startJob(jobParameters);
+
+        // Assert
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+
+        BillingProcessDeadLetter deadLetter = transactionTemplate.execute(status ->
+                entityManager.find(BillingProcessDeadLetter.class, deadLetterId));
+        assertEquals(BillingProcessDeadLetterState.REPROCESSED, deadLetter.getState());
+        assertNotNull(deadLetter.getReprocessedAt());
+
+        List<Long> billedCustomerIds = transactionTemplate.execute(status ->
+                entityManager.find(BillingProcess.class, billingData.billingProcessId()).getBillingProcessCustomerList().stream()
+                        .map(billingProcessCustomer -> billingProcessCustomer.getCustomer().getId())
+                        .toList());
+        assertEquals(List.of(billingData.customerId()), billedCustomerIds);
+    }
+
+    @Test
+    public void shouldLaunchRetryRequestedThroughTheApiOnce() {
+        // Arrange
+        YearMonth period = YearMonth.now().minusMonths(6);
+        BillingData billingData = transactionTemplate.execute(status -> persistBillingData(period));
+
+        transactionTemplate.executeWithoutResult(status -> entityManager.persist(BillingProcessDeadLetter.builder()
+                .billingProcessId(billingData.billingProcessId())
+                .customerId(billingData.customerId())
+                .phase("PROCESS")
+                .cause("InvalidBillingDataException")
+                .failedAt(LocalDateTime.now().minusMinutes(5))
+                .state(BillingProcessDeadLetterState.PENDING)
+                .build()));
+
+        ReadBillingRetryDTO retry = billingRetryRequestService.request(billingData.billingProcessId());
+
+        // Act
+        billingProcessScheduler.launchRequestedRetries();
+        billingProcessScheduler.launchRequestedRetries();
+
+        // Assert
+        BillingRetryRequest request = transactionTemplate.execute(status ->
+                entityManager.find(BillingRetryRequest.class, retry.retryRequestId()));
+        assertEquals(BillingRetryRequestState.LAUNCHED, request.getState());
+        assertNotNull(request.getJobExecutionId());
+
+        List<Long> billedCustomerIds = transactionTemplate.execute(status ->
+                entityManager.find(BillingProcess.class, billingData.billingProcessId()).getBillingProcessCustomerList().stream()
+                        .map(billingProcessCustomer -> billingProcessCustomer.getCustomer().getId())
+                        .toList());
+        assertEquals(List.of(billingData.customerId()), billedCustomerIds);
+        assertEquals(1, jobRepository.getJobInstances(billingRetryJob.getName(), 0, 10).size());
+    }
+
+    private record BillingData(Long billingProcessId, Long customerId) {
+    }
+
+    // Service requests are registered and finished inside the period, so the calculator bills them.
+    // billing_process.period is unique, so every test bills its own month
+    private BillingData persistBillingData(YearMonth actualPeriod) {
         BillingProcess billingProcess = BillingProcess.builder()
                 .state(BillingProcessState.REGISTERED)
                 .totalAmountBillingProcess(0.0)
@@ -82,11 +334,16 @@ public class BillingProcessJobIntegrationTest {
 
         entityManager.persist(billingProcess);
 
-        Long billingProcessId = billingProcess.getId();
+        return new BillingData(billingProcess.getId(), persistBillableCustomer(actualPeriod));
+    }
+
+    // A customer with two billable service requests in the period
+    private Long persistBillableCustomer(YearMonth actualPeriod) {
+        String suffix = UUID.randomUUID().toString();
 
         Customer customer = Customer.builder()
-                .email("customer@gmail.com")
-                .name("Customer 1")
+                .email("customer-" + suffix + "@gmail.com")
+                .name("Customer " + suffix)
                 .softDeleteDate(null)
                 .build();
 
@@ -116,52 +373,34 @@ public class BillingProcessJobIntegrationTest {
                 .softDeleteDate(null)
                 .hourlyFee(10.0)
                 .description("Description")
-                .name("Name")
+                .name("Name " + suffix)
                 .build();
 
         entityManager.persist(serviceRequestType);
 
+        LocalDateTime registeredAt = actualPeriod.atDay(1).atTime(9, 0);
+
         ServiceRequest serviceRequest1 = ServiceRequest.builder()
-                .finishedAt(LocalDateTime.now())
+                .finishedAt(registeredAt.plusHours(2))
                 .type(serviceRequestType)
                 .state(ServiceRequestState.DONE)
                 .description("Description")
-                .registeredAt(LocalDateTime.now().minusDays(15))
+                .registeredAt(registeredAt)
                 .agreement(agreement)
                 .build();
 
         ServiceRequest serviceRequest2 = ServiceRequest.builder()
-                .finishedAt(LocalDateTime.now())
+                .finishedAt(registeredAt.plusHours(5))
                 .type(serviceRequestType)
                 .state(ServiceRequestState.DONE)
                 .description("Description")
-                .registeredAt(LocalDateTime.now().minusDays(15))
+                .registeredAt(registeredAt)
                 .agreement(agreement)
                 .build();
 
         entityManager.persist(serviceRequest1);
         entityManager.persist(serviceRequest2);
 
-        entityManager.flush();
-
-        JobParameters jobParameters = new JobParametersBuilder()
-                .addString("period", actualPeriod.toString())
-                .addLong("billingProcessId", billingProcessId)
-                .addLong("timestamp", System.currentTimeMillis())
-                .toJobParameters();
-
-        // Act
-        JobExecution jobExecution = jobOperatorTestUtils.startJob(jobParameters);
-
-        await()
-                .atMost(30, SECONDS)
-                .pollInterval(200, MILLISECONDS)
-                .untilAsserted(() -> {
-                    assertFalse(jobExecution.isRunning());
-                });
-
-        // Assert
-        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
-        assertEquals(ExitStatus.COMPLETED, jobExecution.getExitStatus());
+        return customer.getId();
     }
 }
@@ -7,6 +7,6 @@ import static org.junit.jupiter.api.Assertions.*;
 class BillingProcessRepositoryTest {
 
     @Test
-    void existsByPeriod() {
+    void findByPeriod() {
     }
 }
\ No newline at end of file
@@ -0,0 +1,223 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess;
+
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.locking.Lease;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.locking.LeaseLock;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.retries.BillingRetryRequestService;
+import com.marcosespeche.spring_batch_poc.entities.BillingProcess;
+import com.marcosespeche.spring_batch_poc.entities.BillingRetryRequest;
+import com.marcosespeche.spring_batch_poc.enums.BillingRetryRequestState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.job.Job;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.core.job.parameters.JobParameters;
+import org.springframework.batch.core.launch.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.launch.JobOperator;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.StepExecution;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BillingProcessSchedulerTest {
+
+    private static final String LEASE_NAME = "monthly-billing-process";
+
+    @Mock
+    private BillingProcessService billingProcessService;
+
+    @Mock
+    private BillingRetryRequestService billingRetryRequestService;
+
+    @Mock
+    private JobOperator jobOperator;
+
+    @Mock
+    private JobRepository jobRepository;
+
+    @Mock
+    private LeaseLock leaseLock;
+
+    @Mock
+    private Job billingProcessJob;
+
+    @Mock
+    private Job billingRetryJob;
+
+    private BillingProcessScheduler scheduler;
+
+    private final Lease lease = new Lease(LEASE_NAME, "owner", 3L);
+
+    private final BillingProcess lastMonth = BillingProcess.builder()
+            .id(1L)
+            .period(YearMonth.now().minusMonths(1))
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new BillingProcessScheduler(billingProcessService, billingRetryRequestService, jobOperator,
+                jobRepository, leaseLock, billingProcessJob, billingRetryJob);
+    }
+
+    @Nested
+    @DisplayName("resumeMonthlyBillingProcess method")
+    class ResumeMonthlyBillingProcessTests {
+
+        @Test
+        void shouldFailAbandonedExecutionBeforeRestartingTheJob() throws Exception {
+            // Arrange
+            StepExecution partition = mock(StepExecution.class);
+            when(partition.getStatus()).thenReturn(BatchStatus.STARTED);
+            JobExecution abandoned = mock(JobExecution.class);
+            when(abandoned.getStatus()).thenReturn(BatchStatus.STARTED);
+            when(abandoned.isRunning()).thenReturn(true);
+            when(abandoned.getStepExecutions()).thenReturn(List.of(partition));
+
+            when(billingProcessService.findByPeriodIfExists(lastMonth.getPeriod())).thenReturn(Optional.of(lastMonth));
+            when(leaseLock.tryAcquire(LEASE_NAME)).thenReturn(Optional.of(lease));
+            when(billingProcessJob.getName()).thenReturn("monthlyBillingProcessJob");
+            when(jobRepository.getLastJobExecution(eq("monthlyBillingProcessJob"), any())).thenReturn(abandoned);
+
+            // Act
+            scheduler.resumeMonthlyBillingProcess();
+
+            // Assert
+            InOrder inOrder = inOrder(partition, abandoned, jobRepository, jobOperator);
+            inOrder.verify(partition).setStatus(BatchStatus.FAILED);
+            inOrder.verify(jobRepository).update(partition);
+            inOrder.verify(abandoned).setStatus(BatchStatus.FAILED);
+            inOrder.verify(jobRepository).update(abandoned);
+            inOrder.verify(jobOperator).start(eq(billingProcessJob), any());
+            verify(leaseLock, never()).release(any());
+        }
+
+        @Test
+        void shouldReleaseLeaseWithoutLaunchingWhenRunCompleted() throws Exception {
+            // Arrange
+            JobExecution completed = mock(JobExecution.class);
+            when(completed.getStatus()).thenReturn(BatchStatus.COMPLETED);
+
+            when(billingProcessService.findByPeriodIfExists(lastMonth.getPeriod())).thenReturn(Optional.of(lastMonth));
+            when(leaseLock.tryAcquire(LEASE_NAME)).thenReturn(Optional.of(lease));
+            when(billingProcessJob.getName()).thenReturn("monthlyBillingProcessJob");
+            when(jobRepository.getLastJobExecution(eq("monthlyBillingProcessJob"), any())).thenReturn(completed);
+
+            // Act
+            scheduler.resumeMonthlyBillingProcess();
+
+            // Assert
+            verify(jobOperator, never()).start(any(Job.class), any());
+            verify(leaseLock).release(lease);
+        }
+
+        @Test
+        void shouldDoNothingBeforeLastMonthIsCreated() {
+            // Arrange
+            when(billingProcessService.findByPeriodIfExists(lastMonth.getPeriod())).thenReturn(Optional.empty());
+
+            // Act
+            scheduler.resumeMonthlyBillingProcess();
+
+            // Assert
+            verifyNoInteractions(leaseLock, jobOperator);
+        }
+
+        @Test
+        void shouldDoNothingWhileAnotherInstanceHoldsTheLease() {
+            // Arrange
+            when(billingProcessService.findByPeriodIfExists(lastMonth.getPeriod())).thenReturn(Optional.of(lastMonth));
+            when(leaseLock.tryAcquire(LEASE_NAME)).thenReturn(Optional.empty());
+
+            // Act
+            scheduler.resumeMonthlyBillingProcess();
+
+            // Assert
+            verifyNoInteractions(jobRepository, jobOperator);
+        }
+    }
+
+    @Nested
+    @DisplayName("launchRequestedRetries method")
+    class LaunchRequestedRetriesTests {
+
+        private final BillingRetryRequest request = BillingRetryRequest.builder()
+                .id(7L)
+                .billingProcessId(lastMonth.getId())
+                .state(BillingRetryRequestState.PENDING)
+                .requestedAt(LocalDateTime.of(2026, 1, 5, 10, 0))
+                .build();
+
+        @Test
+        void shouldLaunchEveryClaimedRequestAndRecordItsJobExecution() throws Exception {
+            // Arrange
+            JobExecution jobExecution = mock(JobExecution.class);
+            when(jobExecution.getId()).thenReturn(42L);
+
+            when(billingRetryRequestService.claim()).thenReturn(Optional.of(request), Optional.empty());
+            when(billingProcessService.findById(lastMonth.getId())).thenReturn(lastMonth);
+            when(billingRetryJob.getName()).thenReturn("billingRetryJob");
+            when(jobOperator.start(eq(billingRetryJob), any())).thenReturn(jobExecution);
+
+            // Act
+            scheduler.launchRequestedRetries();
+
+            // Assert
+            ArgumentCaptor<JobParameters> parameters = ArgumentCaptor.forClass(JobParameters.class);
+            verify(jobOperator).start(eq(billingRetryJob), parameters.capture());
+            assertEquals(7L, parameters.getValue().getLong("retryRequestId"));
+            assertEquals(request.getRequestedAt(), parameters.getValue().getLocalDateTime("requestedAt"));
+            verify(billingRetryRequestService).markLaunched(7L, 42L);
+        }
+
+        @Test
+        void shouldNotLaunchAgainARequestLaunchedBeforeItsClaimExpired() throws Exception {
+            // Arrange
+            JobExecution launched = mock(JobExecution.class);
+            when(launched.getId()).thenReturn(42L);
+
+            when(billingRetryRequestService.claim()).thenReturn(Optional.of(request), Optional.empty());
+            when(billingProcessService.findById(lastMonth.getId())).thenReturn(lastMonth);
+            when(billingRetryJob.getName()).thenReturn("billingRetryJob");
+            when(jobRepository.getLastJobExecution(eq("billingRetryJob"), any())).thenReturn(launched);
+
+            // Act
+            scheduler.launchRequestedRetries();
+
+            // Assert
+            verify(jobOperator, never()).start(any(Job.class), any());
+            verify(billingRetryRequestService).markLaunched(7L, 42L);
+        }
+
+        @Test
+        void shouldMarkRequestFailedWhenTheJobCanNotBeLaunched() throws Exception {
+            // Arrange
+            when(billingRetryRequestService.claim()).thenReturn(Optional.of(request), Optional.empty());
+            when(billingProcessService.findById(lastMonth.getId())).thenReturn(lastMonth);
+            when(billingRetryJob.getName()).thenReturn("billingRetryJob");
+            when(jobOperator.start(eq(billingRetryJob), any())).thenThrow(new JobExecutionAlreadyRunningException("Running"));
+
+            // Act
+            scheduler.launchRequestedRetries();
+
+            // Assert
+            verify(billingRetryRequestService).markFailed(7L);
+            verify(billingRetryRequestService, never()).markLaunched(any(), any());
+        }
+    }
+}
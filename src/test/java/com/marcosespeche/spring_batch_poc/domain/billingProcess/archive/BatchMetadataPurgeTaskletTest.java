@@ -0,0 +1,142 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.archive;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.job.Job;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.StepContribution;
+import org.springframework.batch.infrastructure.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Runs the purge statements against the Spring Batch H2 schema
+class BatchMetadataPurgeTaskletTest {
+
+    private static final String BILLING_JOB = "monthlyBillingProcessJob";
+
+    private static final LocalDateTime PURGE_BEFORE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private BatchMetadataPurgeTasklet tasklet;
+
+    private ChunkContext chunkContext;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("org/springframework/batch/core/schema-h2.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+
+        Job billingProcessJob = mock(Job.class);
+        when(billingProcessJob.getName()).thenReturn(BILLING_JOB);
+        tasklet = new BatchMetadataPurgeTasklet(database, billingProcessJob, 100);
+
+        chunkContext = mock(ChunkContext.class, RETURNS_DEEP_STUBS);
+        when(chunkContext.getStepContext().getJobParameters()).thenReturn(Map.of("purgeBefore", PURGE_BEFORE));
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Nested
+    @DisplayName("execute method")
+    class ExecuteTests {
+
+        @Test
+        void shouldPurgeInstanceCompletedBeforeRetentionWithItsEarlierAttempts() {
+            // Arrange
+            insertInstance(1L, "billingArchiveJob");
+            insertExecution(10L, 1L, "FAILED", PURGE_BEFORE.minusDays(3));
+            insertExecution(11L, 1L, "COMPLETED", PURGE_BEFORE.minusDays(2));
+
+            // Act
+            RepeatStatus status = tasklet.execute(mock(StepContribution.class), chunkContext);
+
+            // Assert
+            assertAll(
+                    () -> assertEquals(RepeatStatus.FINISHED, status),
+                    () -> assertEquals(0, count("BATCH_JOB_INSTANCE")),
+                    () -> assertEquals(0, count("BATCH_JOB_EXECUTION")),
+                    () -> assertEquals(0, count("BATCH_JOB_EXECUTION_PARAMS")),
+                    () -> assertEquals(0, count("BATCH_JOB_EXECUTION_CONTEXT")),
+                    () -> assertEquals(0, count("BATCH_STEP_EXECUTION")),
+                    () -> assertEquals(0, count("BATCH_STEP_EXECUTION_CONTEXT"))
+            );
+        }
+
+        @Test
+        void shouldKeepMonthlyBillingInstances() {
+            // Arrange
+            insertInstance(1L, BILLING_JOB);
+            insertExecution(10L, 1L, "COMPLETED", PURGE_BEFORE.minusDays(2));
+
+            // Act
+            tasklet.execute(mock(StepContribution.class), chunkContext);
+
+            // Assert
+            assertEquals(1, count("BATCH_JOB_INSTANCE"));
+            assertEquals(1, count("BATCH_STEP_EXECUTION"));
+        }
+
+        @Test
+        void shouldKeepRecentAndNeverCompletedInstances() {
+            // Arrange
+            insertInstance(1L, "billingArchiveJob");
+            insertExecution(10L, 1L, "COMPLETED", PURGE_BEFORE.plusDays(1));
+            insertInstance(2L, "billingRetryJob");
+            insertExecution(20L, 2L, "FAILED", PURGE_BEFORE.minusDays(2));
+
+            // Act
+            tasklet.execute(mock(StepContribution.class), chunkContext);
+
+            // Assert
+            assertEquals(2, count("BATCH_JOB_INSTANCE"));
+            assertEquals(2, count("BATCH_JOB_EXECUTION"));
+        }
+    }
+
+    private void insertInstance(Long instanceId, String jobName) {
+        jdbcTemplate.update("INSERT INTO BATCH_JOB_INSTANCE (JOB_INSTANCE_ID, VERSION, JOB_NAME, JOB_KEY) VALUES (?, 0, ?, ?)",
+                instanceId, jobName, "key-" + instanceId);
+    }
+
+    // An execution with one parameter, one step and both execution contexts
+    private void insertExecution(Long executionId, Long instanceId, String status, LocalDateTime endTime) {
+        Timestamp timestamp = Timestamp.valueOf(endTime);
+        jdbcTemplate.update("""
+                INSERT INTO BATCH_JOB_EXECUTION (JOB_EXECUTION_ID, VERSION, JOB_INSTANCE_ID, CREATE_TIME, START_TIME, END_TIME, STATUS, LAST_UPDATED)
+                VALUES (?, 0, ?, ?, ?, ?, ?, ?)""", executionId, instanceId, timestamp, timestamp, timestamp, status, timestamp);
+        jdbcTemplate.update("""
+                INSERT INTO BATCH_JOB_EXECUTION_PARAMS (JOB_EXECUTION_ID, PARAMETER_NAME, PARAMETER_TYPE, PARAMETER_VALUE, IDENTIFYING)
+                VALUES (?, 'requestedAt', 'java.time.LocalDateTime', ?, 'Y')""", executionId, endTime.toString());
+        jdbcTemplate.update("INSERT INTO BATCH_JOB_EXECUTION_CONTEXT (JOB_EXECUTION_ID, SHORT_CONTEXT) VALUES (?, '{}')", executionId);
+        jdbcTemplate.update("""
+                INSERT INTO BATCH_STEP_EXECUTION (STEP_EXECUTION_ID, VERSION, STEP_NAME, JOB_EXECUTION_ID, CREATE_TIME, STATUS)
+                VALUES (?, 0, 'step', ?, ?, ?)""", executionId * 10, executionId, timestamp, status);
+        jdbcTemplate.update("INSERT INTO BATCH_STEP_EXECUTION_CONTEXT (STEP_EXECUTION_ID, SHORT_CONTEXT) VALUES (?, '{}')", executionId * 10);
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+}
@@ -0,0 +1,112 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.archive;
+
+import com.marcosespeche.spring_batch_poc.entities.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BillArchiveProcessorTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private BillArchiveProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        processor = new BillArchiveProcessor(entityManager, jsonMapper);
+    }
+
+    @Nested
+    @DisplayName("process method")
+    class ProcessTests {
+
+        @Test
+        void shouldCompressWholeBillAndCollectTheRowsToDelete() throws Exception {
+            // Arrange
+            ServiceRequest first = ServiceRequest.builder().id(100L).description("Backend development")
+                    .registeredAt(LocalDateTime.of(2024, 1, 3, 9, 0)).finishedAt(LocalDateTime.of(2024, 1, 3, 11, 0))
+                    .billableMinutes(120).build();
+            ServiceRequest second = ServiceRequest.builder().id(101L).description("Frontend development").build();
+
+            BillingProcessServiceRequestType line = BillingProcessServiceRequestType.builder()
+                    .id(60L)
+                    .serviceRequestType(ServiceRequestType.builder().id(10L).build())
+                    .serviceRequests(List.of(first, second))
+                    .totalHours(2.0).hourlyFee(50.0).totalAmountServiceRequestType(100.0)
+                    .build();
+            BillingProcessAgreement agreement = BillingProcessAgreement.builder()
+                    .id(50L)
+                    .agreement(Agreement.builder().id(20L).build())
+                    .totalAmountAgreement(100.0)
+                    .billingProcessServiceRequestTypeList(List.of(line))
+                    .build();
+            // A retried customer can have a second simulation referencing the same requests
+            BillingProcessSimulation simulation = BillingProcessSimulation.builder()
+                    .id(40L)
+                    .totalAmount(100.0)
+                    .billingProcessAgreementList(List.of(agreement))
+                    .build();
+
+            BillingProcessCustomer billingProcessCustomer = BillingProcessCustomer.builder()
+                    .id(7L)
+                    .customer(Customer.builder().id(30L).build())
+                    .billingProcess(BillingProcess.builder().id(1L).period(YearMonth.of(2024, 1)).build())
+                    .totalAmountCustomer(100.0)
+                    .billingProcessSimulations(List.of(simulation, simulation))
+                    .build();
+
+            when(entityManager.find(BillingProcessCustomer.class, 7L)).thenReturn(billingProcessCustomer);
+
+            // Act
+            ArchivedBill archivedBill = processor.process(7L);
+
+            // Assert
+            BillArchive payload;
+            try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(archivedBill.archive().getPayload()))) {
+                payload = jsonMapper.readValue(gzip, BillArchive.class);
+            }
+
+            assertAll(
+                    () -> assertEquals(List.of(100L, 101L), archivedBill.serviceRequestIds()),
+                    () -> assertEquals(List.of(40L), archivedBill.simulationIds()),
+                    () -> assertEquals(List.of(50L), archivedBill.billingProcessAgreementIds()),
+                    () -> assertEquals(List.of(60L), archivedBill.billingProcessServiceRequestTypeIds()),
+                    () -> assertEquals(30L, archivedBill.archive().getCustomerId()),
+                    () -> assertEquals(YearMonth.of(2024, 1), archivedBill.archive().getPeriod()),
+                    () -> assertEquals(2, payload.simulations().size()),
+                    () -> assertEquals("Backend development",
+                            payload.simulations().getFirst().agreements().getFirst().lines().getFirst().serviceRequests().getFirst().description()),
+                    () -> assertEquals(120,
+                            payload.simulations().getFirst().agreements().getFirst().lines().getFirst().serviceRequests().getFirst().billableMinutes())
+            );
+        }
+
+        @Test
+        void shouldSkipBillDeletedSinceItWasRead() throws Exception {
+            // Arrange
+            when(entityManager.find(BillingProcessCustomer.class, 7L)).thenReturn(null);
+
+            // Act & Assert
+            assertNull(processor.process(7L));
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.archive;
+
+import com.marcosespeche.spring_batch_poc.entities.*;
+import com.marcosespeche.spring_batch_poc.enums.AgreementState;
+import com.marcosespeche.spring_batch_poc.enums.BillingProcessState;
+import com.marcosespeche.spring_batch_poc.enums.ServiceRequestState;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Runs the delete statements of BillArchiveWriter against the schema generated from the entities
+@DataJpaTest
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class BillArchiveWriterTest {
+
+    private static final YearMonth PERIOD = YearMonth.of(2023, 6);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BillingProcessArchiveRepository billingProcessArchiveRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private BillArchiveWriter writer;
+
+    private BillingProcess billingProcess;
+
+    private Agreement agreement;
+
+    private ServiceRequestType type;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        writer = new BillArchiveWriter(billingProcessArchiveRepository, new NamedParameterJdbcTemplate(dataSource), entityManager.getEntityManager());
+
+        billingProcess = entityManager.persist(BillingProcess.builder()
+                .period(PERIOD)
+                .registeredAt(PERIOD.plusMonths(1).atDay(1).atStartOfDay())
+                .state(BillingProcessState.REGISTERED)
+                .totalAmountBillingProcess(0.0)
+                .build());
+        Customer customer = persistCustomer("archived");
+        Project project = entityManager.persist(Project.builder()
+                .customer(customer)
+                .name("Project")
+                .description("Description")
+                .build());
+        agreement = entityManager.persist(Agreement.builder()
+                .customer(customer)
+                .project(project)
+                .state(AgreementState.IN_COURSE)
+                .startingPeriod(PERIOD.minusMonths(2))
+                .endingPeriod(PERIOD.plusMonths(2))
+                .build());
+        type = entityManager.persist(ServiceRequestType.builder()
+                .name("Development")
+                .description("Description")
+                .hourlyFee(60.0)
+                .build());
+    }
+
+    @Nested
+    @DisplayName("write method")
+    class WriteTests {
+
+        @Test
+        void shouldDeleteArchivedBillTreeAndOnlyItsUnreferencedBilledRequests() throws Exception {
+            // Arrange
+            ServiceRequest archivedOnly = persistRequest(ServiceRequestState.BILLED);
+            // Also referenced by a bill that is not archived
+            ServiceRequest shared = persistRequest(ServiceRequestState.BILLED);
+            // Not marked billed yet
+            ServiceRequest done = persistRequest(ServiceRequestState.DONE);
+
+            BillingProcessCustomer archived = persistBill(persistCustomer("first"), List.of(archivedOnly, shared, done));
+            BillingProcessCustomer kept = persistBill(persistCustomer("second"), List.of(shared));
+            entityManager.flush();
+
+            ArchivedBill archivedBill = new ArchivedBill(archived.getId(), BillingProcessArchive.builder()
+                    .billingProcessId(billingProcess.getId())
+                    .billingProcessCustomerId(archived.getId())
+                    .customerId(archived.getCustomer().getId())
+                    .period(PERIOD)
+                    .totalAmount(60.0)
+                    .archivedAt(LocalDateTime.now())
+                    .payload(new byte[]{1})
+                    .build(), List.of(archivedOnly.getId(), shared.getId(), done.getId()), List.of(), List.of(), List.of());
+
+            // Act
+            writer.write(new Chunk<>(List.of(archivedBill)));
+
+            // Assert
+            assertAll(
+                    () -> assertEquals(1, count("billing_process_archive")),
+                    () -> assertEquals(List.of(kept.getId()), ids("billing_process_customer")),
+                    () -> assertEquals(1, count("billing_process_simulation")),
+                    () -> assertEquals(1, count("billing_process_agreement")),
+                    () -> assertEquals(1, count("billing_process_service_request_type")),
+                    () -> assertEquals(1, count("billing_process_service_request_type_service_request")),
+                    () -> assertEquals(List.of(shared.getId(), done.getId()), ids("service_request"))
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("second-level cache eviction")
+    class CacheEvictionTests {
+
+        @Test
+        void shouldEvictOnlyTheArchivedRowsOnceTheChunkCommits() throws Exception {
+            // Arrange
+            EntityManager mockedEntityManager = mock(EntityManager.class, RETURNS_DEEP_STUBS);
+            Cache cache = mockedEntityManager.getEntityManagerFactory().getCache();
+            BillArchiveWriter cacheWriter = new BillArchiveWriter(
+                    mock(BillingProcessArchiveRepository.class), mock(NamedParameterJdbcTemplate.class), mockedEntityManager);
+
+            ArchivedBill archivedBill = new ArchivedBill(7L, BillingProcessArchive.builder().build(), List.of(100L),
+                    List.of(40L, 41L), List.of(50L), List.of(60L));
+
+            // Act
+            cacheWriter.write(new Chunk<>(List.of(archivedBill)));
+
+            // Assert
+            verifyNoInteractions(cache);
+
+            // Stands in for the commit of the chunk transaction
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+
+            verify(cache).evict(BillingProcessSimulation.class, 40L);
+            verify(cache).evict(BillingProcessSimulation.class, 41L);
+            verify(cache).evict(BillingProcessAgreement.class, 50L);
+            verify(cache).evict(BillingProcessServiceRequestType.class, 60L);
+            verifyNoMoreInteractions(cache);
+        }
+    }
+
+    private Customer persistCustomer(String name) {
+        return entityManager.persist(Customer.builder()
+                .name("Customer " + name)
+                .email(name + "@gmail.com")
+                .build());
+    }
+
+    private ServiceRequest persistRequest(ServiceRequestState state) {
+        LocalDateTime registeredAt = PERIOD.atDay(10).atTime(9, 0);
+        return entityManager.persist(ServiceRequest.builder()
+                .description("Description")
+                .agreement(agreement)
+                .type(type)
+                .state(state)
+                .registeredAt(registeredAt)
+                .finishedAt(registeredAt.plusHours(1))
+                .billableMinutes(60)
+                .build());
+    }
+
+    // One simulation with one agreement and one line referencing the requests
+    private BillingProcessCustomer persistBill(Customer customer, List<ServiceRequest> serviceRequests) {
+        BillingProcessServiceRequestType line = BillingProcessServiceRequestType.builder()
+                .serviceRequestType(type)
+                .serviceRequests(new ArrayList<>(serviceRequests))
+                .totalHours(1.0)
+                .hourlyFee(60.0)
+                .totalAmountServiceRequestType(60.0)
+                .build();
+        BillingProcessAgreement billedAgreement = BillingProcessAgreement.builder()
+                .agreement(agreement)
+                .totalAmountAgreement(60.0)
+                .billingProcessServiceRequestTypeList(new ArrayList<>(List.of(line)))
+                .build();
+        BillingProcessSimulation simulation = BillingProcessSimulation.builder()
+                .totalAmount(60.0)
+                .simulatedAt(PERIOD.plusMonths(1).atDay(1).atStartOfDay())
+                .billingProcessAgreementList(new ArrayList<>(List.of(billedAgreement)))
+                .build();
+
+        return entityManager.persist(BillingProcessCustomer.builder()
+                .customer(customer)
+                .billingProcess(billingProcess)
+                .totalAmountCustomer(60.0)
+                .billingProcessSimulations(new ArrayList<>(List.of(simulation)))
+                .build());
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private List<Long> ids(String table) {
+        return jdbcTemplate.queryForList("SELECT id FROM " + table + " ORDER BY id", Long.class);
+    }
+}
@@ -0,0 +1,100 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents;
+
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.BillingProcessService;
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessCustomer;
+import com.marcosespeche.spring_batch_poc.entities.Customer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BillingProcessItemWriterTest {
+
+    @Mock
+    private BillingProcessService billingProcessService;
+
+    private BillingProcessItemWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new BillingProcessItemWriter(billingProcessService, new SimpleMeterRegistry(), 1L);
+    }
+
+    private static BillingProcessCustomer billingProcessCustomer(Long customerId) {
+        Customer customer = new Customer();
+        customer.setId(customerId);
+        return BillingProcessCustomer.builder().customer(customer).billingProcessSimulations(new ArrayList<>()).build();
+    }
+
+    @Nested
+    @DisplayName("write method")
+    class WriteTests {
+
+        @Test
+        void shouldNotWriteCustomersAlreadyBilled() throws Exception {
+            // Arrange
+            when(billingProcessService.findBilledCustomerIds(1L, List.of(10L))).thenReturn(Set.of(10L));
+
+            // Act
+            writer.write(new Chunk<>(billingProcessCustomer(10L)));
+
+            // Assert
+            verify(billingProcessService, never()).addCustomers(anyLong(), anyList());
+        }
+
+        @Test
+        void shouldRetryWhenCustomerIsBilledConcurrently() {
+            // Arrange
+            BillingProcessCustomer billingProcessCustomer = billingProcessCustomer(10L);
+            ConstraintViolationException violation = new ConstraintViolationException(
+                    "duplicate key", new SQLException("duplicate key"), "uk_billing_process_customer");
+
+            when(billingProcessService.findBilledCustomerIds(1L, List.of(10L))).thenReturn(Set.of());
+            doThrow(new DataIntegrityViolationException("duplicate key", violation))
+                    .when(billingProcessService).addCustomers(eq(1L), anyList());
+
+            // Act
+            ConcurrencyFailureException exception = assertThrows(ConcurrencyFailureException.class,
+                    () -> writer.write(new Chunk<>(billingProcessCustomer)));
+
+            // Assert
+            assertAll(
+                    () -> assertInstanceOf(DataIntegrityViolationException.class, exception.getCause()),
+                    () -> assertNull(billingProcessCustomer.getId(), "Generated ids should be cleared for the retry")
+            );
+        }
+
+        @Test
+        void shouldRethrowOtherIntegrityViolations() {
+            // Arrange
+            ConstraintViolationException violation = new ConstraintViolationException(
+                    "null value", new SQLException("null value"), "billing_process_customer_customer_not_null");
+
+            when(billingProcessService.findBilledCustomerIds(1L, List.of(10L))).thenReturn(Set.of());
+            doThrow(new DataIntegrityViolationException("null value", violation))
+                    .when(billingProcessService).addCustomers(eq(1L), anyList());
+
+            // Act & Assert
+            assertThrows(DataIntegrityViolationException.class, () -> writer.write(new Chunk<>(billingProcessCustomer(10L))));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents;
+
+import com.marcosespeche.spring_batch_poc.domain.customers.CustomerService;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.ServiceRequestService;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.CustomerServiceRequestCountDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BillingProcessPartitionerTest {
+
+    @Mock
+    private ServiceRequestService serviceRequestService;
+
+    @Mock
+    private CustomerService customerService;
+
+    @Nested
+    @DisplayName("partition method")
+    class PartitionTests {
+
+        @Test
+        void shouldBalancePartitionsByServiceRequestVolume() {
+            // Arrange
+            BillingProcessPartitioner partitioner = new BillingProcessPartitioner(serviceRequestService, customerService, "2025-12");
+
+            when(customerService.findAllIds())
+                    .thenReturn(List.of(1L, 2L, 3L, 4L, 5L, 6L));
+            when(serviceRequestService.countByCustomerAndPeriodAndServiceStateAndAgreementState(any(), any(), any()))
+                    .thenReturn(List.of(
+                            new CustomerServiceRequestCountDTO(1L, 1000L),
+                            new CustomerServiceRequestCountDTO(2L, 400L),
+                            new CustomerServiceRequestCountDTO(3L, 100L),
+                            new CustomerServiceRequestCountDTO(4L, 900L),
+                            new CustomerServiceRequestCountDTO(5L, 600L)
+                    ));
+
+            // Act
+            Map<String, ExecutionContext> partitions = partitioner.partition(2);
+
+            // Assert
+            ExecutionContext first = partitions.get("partition0");
+            ExecutionContext second = partitions.get("partition1");
+
+            assertAll(
+                    () -> assertEquals(2, partitions.size(), "Should create one partition per grid slot"),
+                    () -> assertEquals(1L, first.getLong(BillingProcessPartitioner.MIN_CUSTOMER_ID_KEY)),
+                    () -> assertEquals(3L, first.getLong(BillingProcessPartitioner.MAX_CUSTOMER_ID_KEY)),
+                    () -> assertEquals(4L, second.getLong(BillingProcessPartitioner.MIN_CUSTOMER_ID_KEY)),
+                    () -> assertEquals(6L, second.getLong(BillingProcessPartitioner.MAX_CUSTOMER_ID_KEY)),
+                    () -> assertEquals(1500L, first.getLong(BillingProcessPartitioner.SERVICE_REQUEST_COUNT_KEY), "Loads should be balanced"),
+                    () -> assertEquals(1501L, second.getLong(BillingProcessPartitioner.SERVICE_REQUEST_COUNT_KEY), "Loads should be balanced")
+            );
+        }
+
+        @Test
+        void shouldLeaveAtLeastOneCustomerPerPartition() {
+            // Arrange
+            BillingProcessPartitioner partitioner = new BillingProcessPartitioner(serviceRequestService, customerService, "2025-12");
+
+            when(customerService.findAllIds())
+                    .thenReturn(List.of(1L, 2L, 3L));
+            when(serviceRequestService.countByCustomerAndPeriodAndServiceStateAndAgreementState(any(), any(), any()))
+                    .thenReturn(List.of(new CustomerServiceRequestCountDTO(3L, 5000L)));
+
+            // Act
+            Map<String, ExecutionContext> partitions = partitioner.partition(3);
+
+            // Assert
+            assertAll(
+                    () -> assertEquals(3, partitions.size()),
+                    () -> assertTrue(partitions.values().stream().allMatch(context ->
+                            context.getLong(BillingProcessPartitioner.MIN_CUSTOMER_ID_KEY) == context.getLong(BillingProcessPartitioner.MAX_CUSTOMER_ID_KEY)),
+                            "Each partition should get one customer")
+            );
+        }
+
+        @Test
+        void shouldNotCreateMorePartitionsThanCustomers() {
+            // Arrange
+            BillingProcessPartitioner partitioner = new BillingProcessPartitioner(serviceRequestService, customerService, "2025-12");
+
+            when(customerService.findAllIds())
+                    .thenReturn(List.of(1L));
+            when(serviceRequestService.countByCustomerAndPeriodAndServiceStateAndAgreementState(any(), any(), any()))
+                    .thenReturn(List.of());
+
+            // Act
+            Map<String, ExecutionContext> partitions = partitioner.partition(4);
+
+            // Assert
+            assertEquals(1, partitions.size());
+        }
+    }
+}
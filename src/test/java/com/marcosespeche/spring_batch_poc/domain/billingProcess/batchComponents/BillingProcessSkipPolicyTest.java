@@ -0,0 +1,50 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents;
+
+import com.marcosespeche.spring_batch_poc.exceptions.InvalidBillingDataException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.DateTimeException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BillingProcessSkipPolicyTest {
+
+    private final BillingProcessSkipPolicy skipPolicy = new BillingProcessSkipPolicy(2);
+
+    @Nested
+    @DisplayName("shouldSkip method")
+    class ShouldSkipTests {
+
+        @Test
+        void shouldSkipInvalidBillingData() {
+            assertAll(
+                    () -> assertTrue(skipPolicy.shouldSkip(new InvalidBillingDataException("No fee"), 0)),
+                    () -> assertTrue(skipPolicy.shouldSkip(new InvalidBillingDataException("Finished before registered"), 1))
+            );
+        }
+
+        @Test
+        void shouldNotSkipProgrammingOrIntegrityErrors() {
+            assertAll(
+                    () -> assertFalse(skipPolicy.shouldSkip(new NullPointerException(), 0)),
+                    () -> assertFalse(skipPolicy.shouldSkip(new ArithmeticException("/ by zero"), 0)),
+                    () -> assertFalse(skipPolicy.shouldSkip(new DateTimeException("Corrupt timestamp"), 0)),
+                    () -> assertFalse(skipPolicy.shouldSkip(new DataIntegrityViolationException("Duplicate key"), 0))
+            );
+        }
+
+        @Test
+        void shouldNotSkipTransientErrors() {
+            assertFalse(skipPolicy.shouldSkip(new QueryTimeoutException("Timeout"), 0));
+        }
+
+        @Test
+        void shouldNotSkipWhenLimitIsReached() {
+            assertFalse(skipPolicy.shouldSkip(new InvalidBillingDataException("No fee"), 2));
+        }
+    }
+}
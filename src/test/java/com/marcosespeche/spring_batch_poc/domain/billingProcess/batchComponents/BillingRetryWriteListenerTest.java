@@ -0,0 +1,65 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents;
+
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.async.AsyncItem;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.deadLetters.BillingProcessDeadLetterService;
+import com.marcosespeche.spring_batch_poc.entities.BillingProcessCustomer;
+import com.marcosespeche.spring_batch_poc.entities.Customer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.batch.infrastructure.item.Chunk;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BillingRetryWriteListenerTest {
+
+    @Mock
+    private BillingProcessDeadLetterService billingProcessDeadLetterService;
+
+    private BillingRetryWriteListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new BillingRetryWriteListener(billingProcessDeadLetterService, 1L);
+    }
+
+    private static AsyncItem<Customer, BillingProcessCustomer> writtenItem(Long customerId) {
+        Customer customer = new Customer();
+        customer.setId(customerId);
+        return new AsyncItem<>(customer, CompletableFuture.completedFuture(BillingProcessCustomer.builder().customer(customer).build()));
+    }
+
+    @Nested
+    @DisplayName("afterWrite method")
+    class AfterWriteTests {
+
+        @Test
+        void shouldMarkDeadLettersOfWrittenCustomersAsReprocessed() {
+            // Arrange
+            Chunk<AsyncItem<Customer, BillingProcessCustomer>> chunk = new Chunk<>(List.of(writtenItem(10L), writtenItem(11L)));
+
+            // Act
+            listener.afterWrite(chunk);
+
+            // Assert
+            verify(billingProcessDeadLetterService).markReprocessed(1L, List.of(10L, 11L));
+        }
+
+        @Test
+        void shouldDelegateEmptyChunks() {
+            // Act
+            listener.afterWrite(new Chunk<>());
+
+            // Assert
+            verify(billingProcessDeadLetterService).markReprocessed(1L, List.of());
+        }
+    }
+}
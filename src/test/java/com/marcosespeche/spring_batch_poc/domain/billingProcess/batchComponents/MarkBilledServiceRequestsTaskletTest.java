@@ -0,0 +1,88 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.batch.core.job.parameters.JobParametersBuilder;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.step.StepExecution;
+import org.springframework.batch.infrastructure.repeat.RepeatStatus;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MarkBilledServiceRequestsTaskletTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private MarkBilledServiceRequestsTasklet tasklet;
+
+    private StepExecution stepExecution;
+
+    @BeforeEach
+    void setUp() {
+        tasklet = new MarkBilledServiceRequestsTasklet(namedParameterJdbcTemplate, 3);
+        stepExecution = MetaDataInstanceFactory.createStepExecution();
+    }
+
+    @Test
+    void shouldContinueAfterFullBatchAndRememberLastId() {
+        // Arrange
+        when(namedParameterJdbcTemplate.queryForList(anyString(), anyMap(), eq(Long.class))).thenReturn(List.of(4L, 5L, 9L));
+        when(namedParameterJdbcTemplate.update(anyString(), anyMap())).thenReturn(2);
+
+        // Act
+        RepeatStatus status = tasklet.execute(stepExecution.createStepContribution(), new ChunkContext(new StepContext(stepExecution)));
+
+        // Assert
+        assertAll(
+                () -> assertEquals(RepeatStatus.CONTINUABLE, status),
+                () -> assertEquals(9L, stepExecution.getExecutionContext().getLong(MarkBilledServiceRequestsTasklet.LAST_SERVICE_REQUEST_ID)),
+                () -> verify(namedParameterJdbcTemplate).update(anyString(), eq(Map.of("ids", List.of(4L, 5L, 9L))))
+        );
+    }
+
+    @Test
+    void shouldResumeAfterLastIdOnRestart() {
+        // Arrange
+        stepExecution.getExecutionContext().putLong(MarkBilledServiceRequestsTasklet.LAST_SERVICE_REQUEST_ID, 9L);
+        when(namedParameterJdbcTemplate.queryForList(anyString(), anyMap(), eq(Long.class))).thenReturn(List.of());
+
+        // Act
+        RepeatStatus status = tasklet.execute(stepExecution.createStepContribution(), new ChunkContext(new StepContext(stepExecution)));
+
+        // Assert
+        assertEquals(RepeatStatus.FINISHED, status);
+        verify(namedParameterJdbcTemplate).queryForList(anyString(), eq(Map.of("lastId", 9L, "batchSize", 3)), eq(Long.class));
+        verify(namedParameterJdbcTemplate, never()).update(anyString(), anyMap());
+    }
+
+    @Test
+    void shouldOnlyMarkRequestsOfBillingProcessInJobParameters() {
+        // Arrange
+        StepExecution billingStepExecution = MetaDataInstanceFactory.createStepExecution(
+                new JobParametersBuilder().addLong("billingProcessId", 42L).toJobParameters());
+        when(namedParameterJdbcTemplate.queryForList(anyString(), anyMap(), eq(Long.class))).thenReturn(List.of(4L));
+
+        // Act
+        RepeatStatus status = tasklet.execute(billingStepExecution.createStepContribution(), new ChunkContext(new StepContext(billingStepExecution)));
+
+        // Assert
+        assertEquals(RepeatStatus.FINISHED, status);
+        verify(namedParameterJdbcTemplate).queryForList(anyString(),
+                eq(Map.of("billingProcessId", 42L, "lastId", 0L, "batchSize", 3)), eq(Long.class));
+    }
+}
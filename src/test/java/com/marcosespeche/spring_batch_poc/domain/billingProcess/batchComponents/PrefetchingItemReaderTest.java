@@ -0,0 +1,159 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.batch.infrastructure.item.ItemStreamReader;
+import org.springframework.batch.infrastructure.item.support.AbstractItemCountingItemStreamItemReader;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefetchingItemReaderTest {
+
+    @Nested
+    @DisplayName("read method")
+    class ReadTests {
+
+        @Test
+        void shouldReadEveryItemInOrder() throws Exception {
+            // Arrange
+            PrefetchingItemReader<Integer> reader = new PrefetchingItemReader<>(new CountingListReader(items(12)), "test", 3);
+            reader.open(new ExecutionContext());
+
+            // Act
+            List<Integer> read = readAll(reader);
+            reader.close();
+
+            // Assert
+            assertEquals(items(12), read);
+        }
+
+        @Test
+        void shouldContinueAfterReadFailure() throws Exception {
+            // Arrange
+            PrefetchingItemReader<Integer> reader = new PrefetchingItemReader<>(new FailingOnceReader(items(5), 3), "test", 2);
+            reader.open(new ExecutionContext());
+
+            // Act
+            Integer first = reader.read();
+            Integer second = reader.read();
+            assertThrows(IllegalStateException.class, reader::read);
+            List<Integer> rest = readAll(reader);
+            reader.close();
+
+            // Assert
+            assertAll(
+                    () -> assertEquals(1, first),
+                    () -> assertEquals(2, second),
+                    () -> assertEquals(List.of(4, 5), rest)
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("restart")
+    class RestartTests {
+
+        @Test
+        void shouldResumeAfterLastItemHandedToTheStep() throws Exception {
+            // Arrange
+            ExecutionContext executionContext = new ExecutionContext();
+            PrefetchingItemReader<Integer> firstRun = new PrefetchingItemReader<>(new CountingListReader(items(10)), "test", 5);
+            firstRun.open(executionContext);
+            for (int i = 0; i < 4; i++) firstRun.read();
+            firstRun.update(executionContext);
+            firstRun.close();
+
+            PrefetchingItemReader<Integer> restarted = new PrefetchingItemReader<>(new CountingListReader(items(10)), "test", 5);
+
+            // Act
+            restarted.open(executionContext);
+            List<Integer> read = readAll(restarted);
+            restarted.close();
+
+            // Assert
+            assertEquals(List.of(5, 6, 7, 8, 9, 10), read);
+        }
+
+        @Test
+        void shouldResumeNonCountingDelegateBySkippingItems() throws Exception {
+            // Arrange
+            ExecutionContext executionContext = new ExecutionContext();
+            executionContext.putInt("test.read.count", 2);
+            PrefetchingItemReader<Integer> reader = new PrefetchingItemReader<>(new FailingOnceReader(items(4), -1), "test", 2);
+
+            // Act
+            reader.open(executionContext);
+            List<Integer> read = readAll(reader);
+            reader.close();
+
+            // Assert
+            assertEquals(List.of(3, 4), read);
+        }
+    }
+
+    private static List<Integer> items(int count) {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 1; i <= count; i++) items.add(i);
+        return items;
+    }
+
+    private static List<Integer> readAll(PrefetchingItemReader<Integer> reader) throws Exception {
+        List<Integer> read = new ArrayList<>();
+        Integer item;
+        while ((item = reader.read()) != null) read.add(item);
+        return read;
+    }
+
+    private static class CountingListReader extends AbstractItemCountingItemStreamItemReader<Integer> {
+
+        private final List<Integer> items;
+
+        CountingListReader(List<Integer> items) {
+            this.items = items;
+            setName("delegate");
+        }
+
+        @Override
+        protected Integer doRead() {
+            int index = getCurrentItemCount() - 1;
+            return index < items.size() ? items.get(index) : null;
+        }
+
+        @Override
+        protected void doOpen() {
+        }
+
+        @Override
+        protected void doClose() {
+        }
+    }
+
+    private static class FailingOnceReader implements ItemStreamReader<Integer> {
+
+        private final List<Integer> items;
+        private final int failingItem;
+        private boolean failed;
+        private int index;
+
+        FailingOnceReader(List<Integer> items, int failingItem) {
+            this.items = items;
+            this.failingItem = failingItem;
+        }
+
+        @Override
+        public Integer read() {
+            if (index >= items.size()) return null;
+            Integer item = items.get(index++);
+            if (item == failingItem && !failed) {
+                failed = true;
+                throw new IllegalStateException("Unreadable item " + item);
+            }
+            return item;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.batchComponents.async;
+
+import com.marcosespeche.spring_batch_poc.exceptions.InvalidBillingDataException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.core.step.StepExecution;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.batch.infrastructure.item.ItemWriter;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.core.retry.RetryPolicy;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncItemProcessorTest {
+
+    @Mock
+    private ItemWriter<String> delegateWriter;
+
+    private static final RetryPolicy TRANSIENT_RETRY_POLICY = RetryPolicy.builder()
+            .maxRetries(2)
+            .includes(TransientDataAccessException.class)
+            .delay(Duration.ofMillis(1))
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        StepSynchronizationManager.release();
+    }
+
+    @Nested
+    @DisplayName("process method")
+    class ProcessTests {
+
+        @Test
+        void shouldProcessItemOnAnotherThreadWithTheStepContext() throws Exception {
+            // Arrange
+            StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+            StepSynchronizationManager.register(stepExecution);
+
+            AsyncItemProcessor<Long, String> processor = new AsyncItemProcessor<>(
+                    item -> Thread.currentThread().getName() + ":" + StepSynchronizationManager.getContext().getStepName(),
+                    new SimpleAsyncTaskExecutor("async-test-"));
+
+            // Act
+            AsyncItem<Long, String> result = processor.process(1L);
+
+            // Assert
+            String value = result.get();
+            assertAll(
+                    () -> assertEquals(1L, result.item()),
+                    () -> assertTrue(value.startsWith("async-test-"), "Should run on the executor thread"),
+                    () -> assertTrue(value.endsWith(":" + stepExecution.getStepName()), "Step context should be registered")
+            );
+        }
+
+        @Test
+        void shouldKeepItemWhenProcessingFails() {
+            // Arrange
+            AsyncItemProcessor<Long, String> processor = new AsyncItemProcessor<>(
+                    item -> { throw new InvalidBillingDataException("Invalid customer " + item); },
+                    new SyncTaskExecutor());
+
+            // Act
+            AsyncItem<Long, String> result = processor.process(7L);
+
+            // Assert
+            assertAll(
+                    () -> assertTrue(result.failed()),
+                    () -> assertEquals(7L, result.item()),
+                    () -> assertThrows(InvalidBillingDataException.class, result::get)
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("process method with a retry policy")
+    class RetryTests {
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void shouldRetryTransientFailureAndWriteTheResult() throws Exception {
+            // Arrange
+            AtomicInteger attempts = new AtomicInteger();
+            AsyncItemProcessor<Long, String> processor = new AsyncItemProcessor<>(
+                    item -> {
+                        if (attempts.incrementAndGet() == 1) throw new QueryTimeoutException("Replica timeout");
+                        return "customer-" + item;
+                    },
+                    new SyncTaskExecutor(),
+                    TRANSIENT_RETRY_POLICY);
+            AsyncItemWriter<Long, String> writer = new AsyncItemWriter<>(delegateWriter);
+
+            // Act
+            AsyncItem<Long, String> result = processor.process(1L);
+            writer.write(new Chunk<>(List.of(result)));
+
+            // Assert
+            ArgumentCaptor<Chunk<String>> captor = ArgumentCaptor.forClass(Chunk.class);
+            verify(delegateWriter).write(captor.capture());
+            assertAll(
+                    () -> assertEquals(2, attempts.get()),
+                    () -> assertFalse(result.failed()),
+                    () -> assertEquals(List.of("customer-1"), captor.getValue().getItems())
+            );
+        }
+
+        @Test
+        void shouldNotRetryNonTransientFailure() {
+            // Arrange
+            AtomicInteger attempts = new AtomicInteger();
+            AsyncItemProcessor<Long, String> processor = new AsyncItemProcessor<>(
+                    item -> {
+                        attempts.incrementAndGet();
+                        throw new InvalidBillingDataException("Invalid customer " + item);
+                    },
+                    new SyncTaskExecutor(),
+                    TRANSIENT_RETRY_POLICY);
+
+            // Act
+            AsyncItem<Long, String> result = processor.process(1L);
+
+            // Assert
+            assertAll(
+                    () -> assertEquals(1, attempts.get()),
+                    () -> assertThrows(InvalidBillingDataException.class, result::get)
+            );
+        }
+
+        @Test
+        void shouldRethrowLastFailureWhenRetriesAreExhausted() {
+            // Arrange
+            AtomicInteger attempts = new AtomicInteger();
+            AsyncItemProcessor<Long, String> processor = new AsyncItemProcessor<>(
+                    item -> {
+                        attempts.incrementAndGet();
+                        throw new QueryTimeoutException("Replica timeout");
+                    },
+                    new SyncTaskExecutor(),
+                    TRANSIENT_RETRY_POLICY);
+
+            // Act
+            AsyncItem<Long, String> result = processor.process(1L);
+
+            // Assert
+            assertAll(
+                    () -> assertEquals(3, attempts.get()),
+                    () -> assertThrows(QueryTimeoutException.class, result::get)
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("AsyncItemWriter write method")
+    class WriteTests {
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void shouldWriteResultsAndDropFilteredItems() throws Exception {
+            // Arrange
+            AsyncItemProcessor<Long, String> processor = new AsyncItemProcessor<>(
+                    item -> item % 2 == 0 ? null : "customer-" + item,
+                    new SyncTaskExecutor());
+            AsyncItemWriter<Long, String> writer = new AsyncItemWriter<>(delegateWriter);
+
+            Chunk<AsyncItem<Long, String>> chunk = new Chunk<>(List.of(
+                    processor.process(1L), processor.process(2L), processor.process(3L)));
+
+            // Act
+            writer.write(chunk);
+
+            // Assert
+            ArgumentCaptor<Chunk<String>> captor = ArgumentCaptor.forClass(Chunk.class);
+            verify(delegateWriter).write(captor.capture());
+            assertEquals(List.of("customer-1", "customer-3"), captor.getValue().getItems());
+        }
+
+        @Test
+        void shouldRethrowProcessingFailureWithoutWriting() throws Exception {
+            // Arrange
+            AsyncItemProcessor<Long, String> processor = new AsyncItemProcessor<>(
+                    item -> { throw new InvalidBillingDataException("Invalid customer " + item); },
+                    new SyncTaskExecutor());
+            AsyncItemWriter<Long, String> writer = new AsyncItemWriter<>(delegateWriter);
+
+            Chunk<AsyncItem<Long, String>> chunk = new Chunk<>(List.of(processor.process(1L)));
+
+            // Act & Assert
+            assertThrows(InvalidBillingDataException.class, () -> writer.write(chunk));
+            verify(delegateWriter, never()).write(any());
+        }
+    }
+}
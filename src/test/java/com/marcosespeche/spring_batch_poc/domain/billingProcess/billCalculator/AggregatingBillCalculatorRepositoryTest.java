@@ -0,0 +1,183 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.billCalculator;
+
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.billCalculator.AggregatingBillCalculator.BillLine;
+import com.marcosespeche.spring_batch_poc.entities.*;
+import com.marcosespeche.spring_batch_poc.enums.AgreementState;
+import com.marcosespeche.spring_batch_poc.enums.ServiceRequestState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs BILL_LINES_SQL and BILL_LINE_MAPPER against the database; AggregatingBillCalculatorTest mocks both
+@DataJpaTest
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class AggregatingBillCalculatorRepositoryTest {
+
+    private static final YearMonth PERIOD = YearMonth.of(2025, 6);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private AggregatingBillCalculator calculator;
+
+    private Customer customer;
+
+    private Agreement agreement;
+
+    private ServiceRequestType development;
+
+    private ServiceRequestType support;
+
+    @BeforeEach
+    void setUp() {
+        calculator = new AggregatingBillCalculator(null, null, new NamedParameterJdbcTemplate(dataSource), entityManager.getEntityManager());
+
+        customer = persistCustomer("billed");
+        agreement = persistAgreement(customer, AgreementState.IN_COURSE);
+        development = persistType("Development", 60.0);
+        support = persistType("Support", 30.0);
+    }
+
+    @Nested
+    @DisplayName("findBillLines method")
+    class FindBillLinesTests {
+
+        @Test
+        void shouldGroupRequestsByAgreementAndType() {
+            // Arrange
+            LocalDateTime registeredAt = PERIOD.atDay(10).atTime(9, 0);
+            ServiceRequest stored = persistRequest(agreement, development, registeredAt, registeredAt.plusMinutes(90), 90);
+            // Not backfilled yet: measured from its timestamps, whole minutes
+            ServiceRequest measured = persistRequest(agreement, development, registeredAt, registeredAt.plusMinutes(30).plusSeconds(59), null);
+            ServiceRequest supportRequest = persistRequest(agreement, support, registeredAt, registeredAt.plusHours(1), 60);
+            entityManager.flush();
+
+            // Act
+            List<BillLine> billLines = calculator.findBillLines(customer.getId(), PERIOD, List.of(ServiceRequestState.DONE));
+
+            // Assert
+            assertEquals(List.of(
+                    new BillLine(agreement.getId(), development.getId(), 60.0, 120, null, List.of(stored.getId(), measured.getId())),
+                    new BillLine(agreement.getId(), support.getId(), 30.0, 60, null, List.of(supportRequest.getId()))
+            ), billLines);
+        }
+
+        @Test
+        void shouldOnlyReturnBillableRequestsOfTheCustomerInThePeriod() {
+            // Arrange
+            LocalDateTime registeredAt = PERIOD.atDay(10).atTime(9, 0);
+            ServiceRequest billable = persistRequest(agreement, development, registeredAt, registeredAt.plusHours(1), 60);
+
+            // Registered the month before
+            persistRequest(agreement, development, registeredAt.minusMonths(1), registeredAt.plusHours(1), 60);
+            // Finished after the period
+            persistRequest(agreement, development, registeredAt, registeredAt.plusMonths(1), 60);
+
+            ServiceRequest inProgress = persistRequest(agreement, development, registeredAt, null, null);
+            inProgress.setState(ServiceRequestState.IN_PROGRESS);
+
+            Agreement provisional = persistAgreement(customer, AgreementState.PROVISIONAL);
+            persistRequest(provisional, development, registeredAt, registeredAt.plusHours(1), 60);
+
+            Agreement otherCustomerAgreement = persistAgreement(persistCustomer("other"), AgreementState.IN_COURSE);
+            persistRequest(otherCustomerAgreement, development, registeredAt, registeredAt.plusHours(1), 60);
+            entityManager.flush();
+
+            // Act
+            List<BillLine> billLines = calculator.findBillLines(customer.getId(), PERIOD, List.of(ServiceRequestState.DONE));
+
+            // Assert
+            assertEquals(List.of(new BillLine(agreement.getId(), development.getId(), 60.0, 60, null, List.of(billable.getId()))), billLines);
+        }
+
+        @Test
+        void shouldReportRequestFinishedBeforeItWasRegistered() {
+            // Arrange
+            LocalDateTime registeredAt = PERIOD.atDay(10).atTime(9, 0);
+            persistRequest(agreement, development, registeredAt, registeredAt.plusHours(1), 60);
+            ServiceRequest invalid = persistRequest(agreement, development, registeredAt, registeredAt.minusHours(1), null);
+            entityManager.flush();
+
+            // Act
+            List<BillLine> billLines = calculator.findBillLines(customer.getId(), PERIOD, List.of(ServiceRequestState.DONE));
+
+            // Assert
+            assertEquals(1, billLines.size());
+            assertEquals(invalid.getId(), billLines.getFirst().invalidServiceRequestId());
+        }
+
+        @Test
+        void shouldReturnNoLinesWithoutBillableRequests() {
+            // Act
+            List<BillLine> billLines = calculator.findBillLines(customer.getId(), PERIOD, List.of(ServiceRequestState.DONE));
+
+            // Assert
+            assertTrue(billLines.isEmpty());
+        }
+    }
+
+    private Customer persistCustomer(String name) {
+        return entityManager.persist(Customer.builder()
+                .name("Customer " + name)
+                .email(name + "@gmail.com")
+                .build());
+    }
+
+    private Agreement persistAgreement(Customer agreementCustomer, AgreementState state) {
+        Project project = entityManager.persist(Project.builder()
+                .customer(agreementCustomer)
+                .name("Project of " + agreementCustomer.getName() + " " + state)
+                .description("Description")
+                .build());
+
+        return entityManager.persist(Agreement.builder()
+                .customer(agreementCustomer)
+                .project(project)
+                .state(state)
+                .startingPeriod(PERIOD.minusMonths(2))
+                .endingPeriod(PERIOD.plusMonths(2))
+                .build());
+    }
+
+    private ServiceRequestType persistType(String name, Double hourlyFee) {
+        return entityManager.persist(ServiceRequestType.builder()
+                .name(name)
+                .description("Description")
+                .hourlyFee(hourlyFee)
+                .build());
+    }
+
+    private ServiceRequest persistRequest(Agreement requestAgreement, ServiceRequestType type,
+                                          LocalDateTime registeredAt, LocalDateTime finishedAt, Integer billableMinutes) {
+        return entityManager.persist(ServiceRequest.builder()
+                .description("Description")
+                .agreement(requestAgreement)
+                .type(type)
+                .state(ServiceRequestState.DONE)
+                .registeredAt(registeredAt)
+                .finishedAt(finishedAt)
+                .billableMinutes(billableMinutes)
+                .build());
+    }
+}
@@ -0,0 +1,132 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.billCalculator;
+
+import com.marcosespeche.spring_batch_poc.domain.agreements.AgreementService;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.billCalculator.AggregatingBillCalculator.BillLine;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes.ServiceRequestTypeService;
+import com.marcosespeche.spring_batch_poc.entities.*;
+import com.marcosespeche.spring_batch_poc.enums.ServiceRequestState;
+import com.marcosespeche.spring_batch_poc.exceptions.InvalidBillingDataException;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AggregatingBillCalculatorTest {
+
+    @Mock
+    private AgreementService agreementService;
+
+    @Mock
+    private ServiceRequestTypeService serviceRequestTypeService;
+
+    @Mock
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private AggregatingBillCalculator calculator;
+
+    private final Customer customer = Customer.builder().id(1L).build();
+
+    @Nested
+    @DisplayName("simulateCustomerBill method")
+    class SimulateCustomerBillTests {
+
+        @Test
+        void shouldBuildOneEntryPerAgreementAndType() {
+            // Arrange
+            mockBillLines(List.of(
+                    new BillLine(1L, 10L, 60.0, 90, null, List.of(100L, 101L)),
+                    new BillLine(1L, 20L, 30.0, 60, null, List.of(102L)),
+                    new BillLine(2L, 10L, 60.0, 30, null, List.of(103L))));
+
+            when(agreementService.findAllByIds(anyCollection()))
+                    .thenReturn(Map.of(1L, Agreement.builder().id(1L).build(), 2L, Agreement.builder().id(2L).build()));
+            when(serviceRequestTypeService.findAllByIds(anyCollection()))
+                    .thenReturn(Map.of(10L, ServiceRequestType.builder().id(10L).build(), 20L, ServiceRequestType.builder().id(20L).build()));
+            when(entityManager.getReference(eq(ServiceRequest.class), anyLong()))
+                    .thenAnswer(invocation -> ServiceRequest.builder().id(invocation.getArgument(1)).build());
+
+            // Act
+            BillingProcessSimulation simulation = calculator.simulateCustomerBill(customer, YearMonth.now(), List.of(ServiceRequestState.DONE));
+
+            // Assert
+            List<BillingProcessAgreement> agreements = simulation.getBillingProcessAgreementList();
+            assertAll(
+                    () -> assertEquals(150.0, simulation.getTotalAmount()),
+                    () -> assertEquals(List.of(1L, 2L), agreements.stream().map(a -> a.getAgreement().getId()).toList()),
+                    () -> assertEquals(120.0, agreements.getFirst().getTotalAmountAgreement()),
+                    () -> assertEquals(2, agreements.getFirst().getBillingProcessServiceRequestTypeList().size()),
+                    () -> assertEquals(1.5, agreements.getFirst().getBillingProcessServiceRequestTypeList().getFirst().getTotalHours()),
+                    () -> assertEquals(List.of(100L, 101L), agreements.getFirst().getBillingProcessServiceRequestTypeList().getFirst()
+                            .getServiceRequests().stream().map(ServiceRequest::getId).toList())
+            );
+        }
+
+        @Test
+        void shouldReturnEmptySimulationWhenNothingToBill() {
+            // Arrange
+            mockBillLines(List.of());
+
+            // Act
+            BillingProcessSimulation simulation = calculator.simulateCustomerBill(customer, YearMonth.now(), List.of(ServiceRequestState.DONE));
+
+            // Assert
+            assertAll(
+                    () -> assertEquals(0.0, simulation.getTotalAmount()),
+                    () -> assertTrue(simulation.getBillingProcessAgreementList().isEmpty()),
+                    () -> verifyNoInteractions(agreementService, serviceRequestTypeService)
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("invalid billing data")
+    class InvalidBillingDataTests {
+
+        @Test
+        void shouldThrowExceptionWhenHourlyFeeIsMissing() {
+            // Arrange
+            mockBillLines(List.of(new BillLine(1L, 10L, null, 60, null, List.of(100L))));
+
+            // Act & Assert
+            assertThrows(InvalidBillingDataException.class,
+                    () -> calculator.simulateCustomerBill(customer, YearMonth.now(), List.of(ServiceRequestState.DONE)));
+        }
+
+        @Test
+        void shouldThrowExceptionWhenFinishedBeforeRegistered() {
+            // Arrange
+            mockBillLines(List.of(new BillLine(1L, 10L, 60.0, -60, 100L, List.of(100L))));
+
+            // Act & Assert
+            assertThrows(InvalidBillingDataException.class,
+                    () -> calculator.simulateCustomerBill(customer, YearMonth.now(), List.of(ServiceRequestState.DONE)));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mockBillLines(List<BillLine> billLines) {
+        when(namedParameterJdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(billLines);
+    }
+}
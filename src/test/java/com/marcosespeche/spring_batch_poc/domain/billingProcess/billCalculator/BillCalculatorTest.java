@@ -1,7 +1,194 @@
 package com.marcosespeche.spring_batch_poc.domain.billingProcess.billCalculator;
 
+import com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes.ServiceRequestTypeService;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.ServiceRequestService;
+import com.marcosespeche.spring_batch_poc.entities.*;
+import com.marcosespeche.spring_batch_poc.enums.AgreementState;
+import com.marcosespeche.spring_batch_poc.enums.ServiceRequestState;
+import com.marcosespeche.spring_batch_poc.exceptions.InvalidBillingDataException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
 
+@ExtendWith(MockitoExtension.class)
 class BillCalculatorTest {
 
-}
\ No newline at end of file
+    @Mock
+    private ServiceRequestService serviceRequestService;
+
+    @Mock
+    private ServiceRequestTypeService serviceRequestTypeService;
+
+    private BillCalculator sequentialCalculator;
+
+    private BillCalculator parallelCalculator;
+
+    @BeforeEach
+    void setUp() {
+        sequentialCalculator = new BillCalculator(serviceRequestService, serviceRequestTypeService, Integer.MAX_VALUE, 4);
+        parallelCalculator = new BillCalculator(serviceRequestService, serviceRequestTypeService, 1, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sequentialCalculator.shutdown();
+        parallelCalculator.shutdown();
+    }
+
+    @Nested
+    @DisplayName("simulateCustomerBill method")
+    class SimulateCustomerBillTests {
+
+        @Test
+        void shouldProduceSameTotalsInSequentialAndParallelMode() {
+            // Arrange
+            Customer customer = Customer.builder().id(1L).name("Customer").email("customer@gmail.com").build();
+            YearMonth period = YearMonth.now();
+            List<ServiceRequest> serviceRequests = buildServiceRequests(customer, 20, 3, 50);
+
+            when(serviceRequestService.findByCustomerIdAndPeriodAndSServiceStateAndAgreementState(any(), any(), any(), any()))
+                    .thenReturn(serviceRequests);
+            when(serviceRequestTypeService.findHourlyFee(anyLong()))
+                    .thenAnswer(invocation -> 10.0 + invocation.<Long>getArgument(0) * 0.37);
+
+            List<ServiceRequestState> states = List.of(ServiceRequestState.DONE);
+
+            // Act
+            BillingProcessSimulation sequential = sequentialCalculator.simulateCustomerBill(customer, period, states);
+            BillingProcessSimulation parallel = parallelCalculator.simulateCustomerBill(customer, period, states);
+
+            // Assert
+            assertAll(
+                    () -> assertEquals(sequential.getTotalAmount(), parallel.getTotalAmount(), "Totals should be identical"),
+                    () -> assertEquals(20, parallel.getBillingProcessAgreementList().size(), "One entry per agreement"),
+                    () -> assertEquals(
+                            sequential.getBillingProcessAgreementList().stream().map(a -> a.getAgreement().getId()).toList(),
+                            parallel.getBillingProcessAgreementList().stream().map(a -> a.getAgreement().getId()).toList(),
+                            "Agreements should be in the same order"),
+                    () -> assertEquals(
+                            sequential.getBillingProcessAgreementList().stream().map(BillingProcessAgreement::getTotalAmountAgreement).toList(),
+                            parallel.getBillingProcessAgreementList().stream().map(BillingProcessAgreement::getTotalAmountAgreement).toList(),
+                            "Agreement totals should be identical")
+            );
+        }
+
+        @Test
+        void shouldBillStoredMinutesWhenPresent() {
+            // Arrange
+            Customer customer = Customer.builder().id(1L).build();
+            List<ServiceRequest> serviceRequests = buildServiceRequests(customer, 1, 1, 2);
+            serviceRequests.getFirst().setBillableMinutes(120);
+
+            when(serviceRequestService.findByCustomerIdAndPeriodAndSServiceStateAndAgreementState(any(), any(), any(), any()))
+                    .thenReturn(serviceRequests);
+            when(serviceRequestTypeService.findHourlyFee(1L))
+                    .thenReturn(60.0);
+
+            // Act
+            BillingProcessSimulation simulation = sequentialCalculator.simulateCustomerBill(customer, YearMonth.now(), List.of(ServiceRequestState.DONE));
+
+            // Assert
+            assertEquals(135.0, simulation.getTotalAmount(), "120 stored minutes plus 15 minutes from the timestamps of the second request");
+        }
+
+        @Test
+        void shouldReturnEmptySimulationWhenNothingToBill() {
+            // Arrange
+            Customer customer = Customer.builder().id(1L).build();
+
+            when(serviceRequestService.findByCustomerIdAndPeriodAndSServiceStateAndAgreementState(any(), any(), any(), any()))
+                    .thenReturn(List.of());
+
+            // Act
+            BillingProcessSimulation simulation = parallelCalculator.simulateCustomerBill(customer, YearMonth.now(), List.of(ServiceRequestState.DONE));
+
+            // Assert
+            assertAll(
+                    () -> assertEquals(0.0, simulation.getTotalAmount()),
+                    () -> assertTrue(simulation.getBillingProcessAgreementList().isEmpty())
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("invalid billing data")
+    class InvalidBillingDataTests {
+
+        @Test
+        void shouldThrowExceptionWhenHourlyFeeIsMissing() {
+            // Arrange
+            Customer customer = Customer.builder().id(1L).build();
+
+            when(serviceRequestService.findByCustomerIdAndPeriodAndSServiceStateAndAgreementState(any(), any(), any(), any()))
+                    .thenReturn(buildServiceRequests(customer, 1, 1, 1));
+            when(serviceRequestTypeService.findHourlyFee(1L))
+                    .thenReturn(null);
+
+            // Act & Assert
+            assertThrows(InvalidBillingDataException.class,
+                    () -> sequentialCalculator.simulateCustomerBill(customer, YearMonth.now(), List.of(ServiceRequestState.DONE)));
+        }
+
+        @Test
+        void shouldThrowExceptionWhenFinishedBeforeRegistered() {
+            // Arrange
+            Customer customer = Customer.builder().id(1L).build();
+            List<ServiceRequest> serviceRequests = buildServiceRequests(customer, 1, 1, 1);
+            ServiceRequest serviceRequest = serviceRequests.getFirst();
+            serviceRequest.setFinishedAt(serviceRequest.getRegisteredAt().minusHours(1));
+
+            when(serviceRequestService.findByCustomerIdAndPeriodAndSServiceStateAndAgreementState(any(), any(), any(), any()))
+                    .thenReturn(serviceRequests);
+
+            // Act & Assert
+            assertThrows(InvalidBillingDataException.class,
+                    () -> sequentialCalculator.simulateCustomerBill(customer, YearMonth.now(), List.of(ServiceRequestState.DONE)));
+        }
+    }
+
+    private static List<ServiceRequest> buildServiceRequests(Customer customer, int agreements, int types, int requestsPerAgreement) {
+        List<ServiceRequestType> serviceRequestTypes = new ArrayList<>();
+        for (long typeId = 1; typeId <= types; typeId++) {
+            serviceRequestTypes.add(ServiceRequestType.builder().id(typeId).name("Type " + typeId).hourlyFee(0.0).build());
+        }
+
+        List<ServiceRequest> serviceRequests = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.now().withDayOfMonth(1).withHour(8);
+        long serviceRequestId = 1;
+
+        for (long agreementId = 1; agreementId <= agreements; agreementId++) {
+            Agreement agreement = Agreement.builder()
+                    .id(agreementId)
+                    .customer(customer)
+                    .state(AgreementState.IN_COURSE)
+                    .build();
+
+            for (int i = 0; i < requestsPerAgreement; i++) {
+                serviceRequests.add(ServiceRequest.builder()
+                        .id(serviceRequestId++)
+                        .agreement(agreement)
+                        .type(serviceRequestTypes.get(i % types))
+                        .state(ServiceRequestState.DONE)
+                        .registeredAt(start)
+                        .finishedAt(start.plusMinutes(7L * (i + 1) + agreementId))
+                        .build());
+            }
+        }
+        return serviceRequests;
+    }
+}
@@ -0,0 +1,67 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.locking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.core.job.parameters.JobParametersBuilder;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeaseJobExecutionListenerTest {
+
+    @Mock
+    private LeaseLock leaseLock;
+
+    @Mock
+    private JobExecution jobExecution;
+
+    private LeaseJobExecutionListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new LeaseJobExecutionListener(leaseLock);
+    }
+
+    @Nested
+    @DisplayName("afterJob method")
+    class AfterJobTests {
+
+        @Test
+        void shouldReleaseLeaseTheJobWasLaunchedUnder() {
+            // Arrange
+            Lease lease = new Lease("billing-archive", "owner", 7L);
+            when(jobExecution.getJobParameters()).thenReturn(new JobParametersBuilder()
+                    .addString(LeaseJobExecutionListener.LEASE_PARAMETER, "billing-archive", false)
+                    .addLong(LeaseJobExecutionListener.FENCING_TOKEN_PARAMETER, 7L, false)
+                    .toJobParameters());
+            when(leaseLock.leaseOf("billing-archive", 7L)).thenReturn(lease);
+
+            // Act
+            listener.afterJob(jobExecution);
+
+            // Assert
+            verify(leaseLock).release(lease);
+        }
+
+        @Test
+        void shouldDoNothingWhenJobWasLaunchedWithoutLease() {
+            // Arrange
+            when(jobExecution.getJobParameters()).thenReturn(new JobParametersBuilder()
+                    .addLong("billingProcessId", 1L)
+                    .toJobParameters());
+
+            // Act
+            listener.afterJob(jobExecution);
+
+            // Assert
+            verify(leaseLock, never()).release(any());
+        }
+    }
+}
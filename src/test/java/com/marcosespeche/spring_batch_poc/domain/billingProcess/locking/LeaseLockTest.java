@@ -0,0 +1,161 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.locking;
+
+import com.marcosespeche.spring_batch_poc.entities.SchedulerLease;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeaseLockTest {
+
+    private static final String LEASE_NAME = "monthly-billing-process";
+
+    @Mock
+    private SchedulerLeaseRepository schedulerLeaseRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LeaseLock leaseLock;
+
+    @BeforeEach
+    void setUp() {
+        leaseLock = new LeaseLock(schedulerLeaseRepository, transactionManager, Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        leaseLock.shutdown();
+    }
+
+    @Nested
+    @DisplayName("tryAcquire method")
+    class TryAcquireTests {
+
+        @Test
+        void shouldReturnEmptyWhenLeaseIsHeldByAnotherInstance() {
+            // Arrange
+            when(schedulerLeaseRepository.findByName(LEASE_NAME)).thenReturn(Optional.of(lease(3L)));
+            when(schedulerLeaseRepository.acquire(eq(LEASE_NAME), anyString(), any(), any())).thenReturn(0);
+
+            // Act
+            Optional<Lease> acquired = leaseLock.tryAcquire(LEASE_NAME);
+
+            // Assert
+            assertTrue(acquired.isEmpty());
+            verify(schedulerLeaseRepository, never()).release(any(), any(), any(), any());
+        }
+
+        @Test
+        void shouldReturnLeaseWithFencingTokenWithoutReleasingIt() {
+            // Arrange
+            when(schedulerLeaseRepository.findByName(LEASE_NAME)).thenReturn(Optional.of(lease(4L)));
+            when(schedulerLeaseRepository.acquire(eq(LEASE_NAME), anyString(), any(), any())).thenReturn(1);
+
+            // Act
+            Optional<Lease> acquired = leaseLock.tryAcquire(LEASE_NAME);
+
+            // Assert
+            assertAll(
+                    () -> assertTrue(acquired.isPresent()),
+                    () -> assertEquals(4L, acquired.get().fencingToken()),
+                    () -> verify(schedulerLeaseRepository, never()).release(any(), any(), any(), any())
+            );
+        }
+
+        @Test
+        void shouldCreateLeaseOnFirstUse() {
+            // Arrange
+            when(schedulerLeaseRepository.findByName(LEASE_NAME)).thenReturn(Optional.empty(), Optional.of(lease(1L)));
+            when(schedulerLeaseRepository.acquire(eq(LEASE_NAME), anyString(), any(), any())).thenReturn(1);
+
+            // Act
+            leaseLock.tryAcquire(LEASE_NAME);
+
+            // Assert
+            verify(schedulerLeaseRepository).saveAndFlush(argThat((SchedulerLease lease) -> lease.getFencingToken() == 0L));
+        }
+    }
+
+    @Nested
+    @DisplayName("release method")
+    class ReleaseTests {
+
+        @Test
+        void shouldReleaseLeaseRebuiltFromItsFencingToken() {
+            // Arrange
+            when(schedulerLeaseRepository.findByName(LEASE_NAME)).thenReturn(Optional.of(lease(4L)));
+            when(schedulerLeaseRepository.acquire(eq(LEASE_NAME), anyString(), any(), any())).thenReturn(1);
+            Lease acquired = leaseLock.tryAcquire(LEASE_NAME).orElseThrow();
+
+            // Act
+            leaseLock.release(leaseLock.leaseOf(LEASE_NAME, 4L));
+
+            // Assert
+            verify(schedulerLeaseRepository).release(eq(LEASE_NAME), eq(acquired.owner()), eq(4L), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("checkHeld method")
+    class CheckHeldTests {
+
+        @Test
+        void shouldThrowExceptionWhenLeaseWasTakenOver() {
+            // Arrange
+            Lease stale = new Lease(LEASE_NAME, "owner", 4L);
+            when(schedulerLeaseRepository.renew(eq(LEASE_NAME), eq("owner"), eq(4L), any(), any())).thenReturn(0);
+
+            // Act & Assert
+            assertThrows(IllegalStateException.class, () -> leaseLock.checkHeld(stale));
+        }
+    }
+
+    @Nested
+    @DisplayName("verifyHeld method")
+    class VerifyHeldTests {
+
+        @Test
+        void shouldPassWhenFencingTokenIsCurrent() {
+            // Arrange
+            when(schedulerLeaseRepository.isHeld(eq(LEASE_NAME), eq(4L), any())).thenReturn(true);
+
+            // Act & Assert
+            assertDoesNotThrow(() -> leaseLock.verifyHeld(LEASE_NAME, 4L));
+            verify(schedulerLeaseRepository, never()).renew(any(), any(), any(), any(), any());
+        }
+
+        @Test
+        void shouldThrowExceptionWhenLeaseWasTakenOver() {
+            // Arrange
+            when(schedulerLeaseRepository.isHeld(eq(LEASE_NAME), eq(4L), any())).thenReturn(false);
+
+            // Act & Assert
+            assertThrows(IllegalStateException.class, () -> leaseLock.verifyHeld(LEASE_NAME, 4L));
+        }
+    }
+
+    private SchedulerLease lease(Long fencingToken) {
+        return SchedulerLease.builder()
+                .name(LEASE_NAME)
+                .fencingToken(fencingToken)
+                .expiresAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.partitioning;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.Step;
+import org.springframework.batch.core.step.StepExecution;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionWorkerTest {
+
+    private static final PartitionRequest REQUEST = new PartitionRequest(1L, 10L, "billingProcessStep");
+
+    @Mock
+    private IPartitionRequestChannel channel;
+
+    @Mock
+    private JobRepository jobRepository;
+
+    @Mock
+    private Step step;
+
+    private PartitionWorker partitionWorker;
+
+    @BeforeEach
+    void setUp() {
+        partitionWorker = new PartitionWorker(channel, jobRepository, Map.of("billingProcessStep", step), 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        partitionWorker.shutdown();
+    }
+
+    @Nested
+    @DisplayName("poll method")
+    class PollTests {
+
+        @Test
+        void shouldMarkPartitionAndRequestFailedWhenStepThrows() throws Exception {
+            // Arrange
+            StepExecution stepExecution = mock(StepExecution.class);
+            when(stepExecution.getStatus()).thenReturn(BatchStatus.STARTING);
+            when(stepExecution.getStepName()).thenReturn("billingProcessStep:partition0");
+            when(jobRepository.getStepExecution(1L, 10L)).thenReturn(stepExecution);
+            when(channel.receive(anyString())).thenReturn(Optional.of(REQUEST), Optional.empty());
+            doThrow(new IllegalStateException("JobRepository unavailable")).when(step).execute(stepExecution);
+
+            // Act
+            partitionWorker.poll();
+
+            // Assert
+            verify(channel, timeout(1000)).finish(eq(REQUEST), anyString(), eq(false));
+            verify(stepExecution).setStatus(BatchStatus.FAILED);
+            verify(jobRepository).update(stepExecution);
+        }
+
+        @Test
+        void shouldNotExecuteReclaimedPartitionThatAlreadyFinished() throws Exception {
+            // Arrange
+            StepExecution stepExecution = mock(StepExecution.class);
+            when(stepExecution.getStatus()).thenReturn(BatchStatus.COMPLETED);
+            when(jobRepository.getStepExecution(1L, 10L)).thenReturn(stepExecution);
+            when(channel.receive(anyString())).thenReturn(Optional.of(REQUEST), Optional.empty());
+
+            // Act
+            partitionWorker.poll();
+
+            // Assert
+            verify(channel, timeout(1000)).finish(eq(REQUEST), anyString(), eq(true));
+            verify(step, never()).execute(any());
+        }
+
+        @Test
+        void shouldRecordSuccessfulPartition() throws Exception {
+            // Arrange
+            StepExecution stepExecution = mock(StepExecution.class);
+            when(stepExecution.getStatus()).thenReturn(BatchStatus.STARTING, BatchStatus.COMPLETED);
+            when(stepExecution.getStepName()).thenReturn("billingProcessStep:partition0");
+            when(jobRepository.getStepExecution(1L, 10L)).thenReturn(stepExecution);
+            when(channel.receive(anyString())).thenReturn(Optional.of(REQUEST), Optional.empty());
+
+            // Act
+            partitionWorker.poll();
+
+            // Assert
+            verify(channel, timeout(1000)).finish(eq(REQUEST), anyString(), eq(true));
+            verify(step).execute(stepExecution);
+            verify(jobRepository, never()).update(any(StepExecution.class));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.partitioning;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.partition.StepExecutionSplitter;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.StepExecution;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RemotePartitionHandlerTest {
+
+    @Mock
+    private JobRepository jobRepository;
+
+    @Mock
+    private StepExecutionSplitter stepExecutionSplitter;
+
+    @Mock
+    private IPartitionRequestChannel channel;
+
+    @Nested
+    @DisplayName("handle method")
+    class HandleTests {
+
+        @Test
+        void shouldSendOneRequestPerPartitionAndReturnFinishedExecutions() throws Exception {
+            // Arrange
+            StepExecution manager = mock(StepExecution.class);
+            StepExecution partition = mock(StepExecution.class);
+            StepExecution finishedPartition = mock(StepExecution.class);
+
+            when(manager.getJobExecutionId()).thenReturn(1L);
+            when(partition.getJobExecutionId()).thenReturn(1L);
+            when(partition.getId()).thenReturn(10L);
+            when(finishedPartition.getStatus()).thenReturn(BatchStatus.COMPLETED);
+            when(stepExecutionSplitter.split(manager, 2)).thenReturn(Set.of(partition));
+            when(jobRepository.getStepExecution(1L, 10L)).thenReturn(finishedPartition);
+
+            RemotePartitionHandler handler = new RemotePartitionHandler(
+                    "billingProcessStep", channel, jobRepository, 2,
+                    Duration.ofMillis(10), Duration.ofSeconds(1), Duration.ofSeconds(1));
+
+            // Act
+            Collection<StepExecution> result = handler.handle(stepExecutionSplitter, manager);
+
+            // Assert
+            InOrder inOrder = inOrder(channel);
+            inOrder.verify(channel).send(new PartitionRequest(1L, 10L, "billingProcessStep"));
+            inOrder.verify(channel).purge(1L);
+            assertAll(
+                    () -> assertEquals(1, result.size()),
+                    () -> assertTrue(result.contains(finishedPartition))
+            );
+        }
+
+        @Test
+        void shouldFailFastWhenNoWorkerStartsAnyPartition() throws Exception {
+            // Arrange
+            StepExecution manager = mock(StepExecution.class);
+            StepExecution partition = mock(StepExecution.class);
+            StepExecution unclaimedPartition = mock(StepExecution.class);
+
+            when(manager.getJobExecutionId()).thenReturn(1L);
+            when(partition.getJobExecutionId()).thenReturn(1L);
+            when(partition.getId()).thenReturn(10L);
+            when(unclaimedPartition.getStatus()).thenReturn(BatchStatus.STARTING);
+            when(stepExecutionSplitter.split(manager, 1)).thenReturn(Set.of(partition));
+            when(jobRepository.getStepExecution(1L, 10L)).thenReturn(unclaimedPartition);
+
+            RemotePartitionHandler handler = new RemotePartitionHandler(
+                    "billingProcessStep", channel, jobRepository, 1,
+                    Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofMinutes(1));
+
+            // Act
+            TimeoutException exception = assertThrows(TimeoutException.class, () -> handler.handle(stepExecutionSplitter, manager));
+
+            // Assert
+            assertEquals("No partition worker available", exception.getMessage());
+            verify(channel).purge(1L);
+        }
+
+        @Test
+        void shouldFailWhenPartitionsDoNotFinishInTime() throws Exception {
+            // Arrange
+            StepExecution manager = mock(StepExecution.class);
+            StepExecution partition = mock(StepExecution.class);
+            StepExecution runningPartition = mock(StepExecution.class);
+
+            when(manager.getJobExecutionId()).thenReturn(1L);
+            when(partition.getJobExecutionId()).thenReturn(1L);
+            when(partition.getId()).thenReturn(10L);
+            when(runningPartition.getStatus()).thenReturn(BatchStatus.STARTED);
+            when(stepExecutionSplitter.split(manager, 1)).thenReturn(Set.of(partition));
+            when(jobRepository.getStepExecution(1L, 10L)).thenReturn(runningPartition);
+
+            RemotePartitionHandler handler = new RemotePartitionHandler(
+                    "billingProcessStep", channel, jobRepository, 1,
+                    Duration.ofMillis(10), Duration.ofMillis(10), Duration.ofMillis(50));
+
+            // Act
+            TimeoutException exception = assertThrows(TimeoutException.class, () -> handler.handle(stepExecutionSplitter, manager));
+
+            // Assert
+            assertEquals("Remote partitions did not finish in time", exception.getMessage());
+            verify(channel).purge(1L);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.marcosespeche.spring_batch_poc.domain.billingProcess.retries;
+
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.BillingProcessService;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.deadLetters.BillingProcessDeadLetterService;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.dtos.ReadBillingRetryDTO;
+import com.marcosespeche.spring_batch_poc.entities.BillingRetryRequest;
+import com.marcosespeche.spring_batch_poc.enums.BillingRetryRequestState;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BillingRetryRequestServiceTest {
+
+    @Mock
+    private BillingRetryRequestRepository billingRetryRequestRepository;
+
+    @Mock
+    private BillingProcessService billingProcessService;
+
+    @Mock
+    private BillingProcessDeadLetterService billingProcessDeadLetterService;
+
+    private BillingRetryRequestService billingRetryRequestService;
+
+    @BeforeEach
+    void setUp() {
+        billingRetryRequestService = new BillingRetryRequestService(
+                billingRetryRequestRepository, billingProcessService, billingProcessDeadLetterService, Duration.ofMinutes(2));
+    }
+
+    @Nested
+    @DisplayName("request method")
+    class RequestTests {
+
+        @Test
+        void shouldStorePendingRequestWithoutLaunchingTheJob() {
+            // Arrange
+            when(billingProcessDeadLetterService.countPending(1L)).thenReturn(3L);
+            when(billingRetryRequestRepository.save(any(BillingRetryRequest.class))).thenAnswer(invocation -> {
+                BillingRetryRequest request = invocation.getArgument(0);
+                request.setId(9L);
+                return request;
+            });
+
+            // Act
+            ReadBillingRetryDTO result = billingRetryRequestService.request(1L);
+
+            // Assert
+            assertEquals(new ReadBillingRetryDTO(9L, 1L, 3L), result);
+
+            ArgumentCaptor<BillingRetryRequest> saved = ArgumentCaptor.forClass(BillingRetryRequest.class);
+            verify(billingRetryRequestRepository).save(saved.capture());
+            assertEquals(1L, saved.getValue().getBillingProcessId());
+            assertEquals(BillingRetryRequestState.PENDING, saved.getValue().getState());
+            assertNotNull(saved.getValue().getRequestedAt());
+        }
+
+        @Test
+        void shouldThrowExceptionWhenBillingProcessNotFound() {
+            // Arrange
+            when(billingProcessService.findById(1L)).thenThrow(new EntityNotFoundException("Billing process not found"));
+
+            // Act & Assert
+            assertThrows(EntityNotFoundException.class, () -> billingRetryRequestService.request(1L));
+            verify(billingRetryRequestRepository, never()).save(any());
+        }
+
+        @Test
+        void shouldThrowExceptionWhenThereAreNoFailedCustomers() {
+            // Arrange
+            when(billingProcessDeadLetterService.countPending(1L)).thenReturn(0L);
+
+            // Act & Assert
+            IllegalArgumentException exception = assertThrows(
+                    IllegalArgumentException.class,
+                    () -> billingRetryRequestService.request(1L));
+
+            assertEquals("The billing process has no failed customers to reprocess", exception.getMessage());
+            verify(billingRetryRequestRepository, never()).save(any());
+        }
+
+        @Test
+        void shouldThrowExceptionWhenARetryIsAlreadyWaitingToBeLaunched() {
+            // Arrange
+            when(billingProcessDeadLetterService.countPending(1L)).thenReturn(3L);
+            when(billingRetryRequestRepository.existsByBillingProcessIdAndStateIn(eq(1L), anyCollection())).thenReturn(true);
+
+            // Act & Assert
+            IllegalArgumentException exception = assertThrows(
+                    IllegalArgumentException.class,
+                    () -> billingRetryRequestService.request(1L));
+
+            assertEquals("A retry of the billing process is already waiting to be launched", exception.getMessage());
+            verify(billingRetryRequestRepository, never()).save(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("claim method")
+    class ClaimTests {
+
+        @Test
+        void shouldSkipRequestsClaimedFirstByAnotherInstance() {
+            // Arrange
+            BillingRetryRequest first = BillingRetryRequest.builder().id(1L).state(BillingRetryRequestState.PENDING).build();
+            BillingRetryRequest second = BillingRetryRequest.builder().id(2L).state(BillingRetryRequestState.PENDING).build();
+
+            when(billingRetryRequestRepository.findClaimable(any(), eq(BillingRetryRequestState.PENDING),
+                    eq(BillingRetryRequestState.CLAIMED), any(Limit.class))).thenReturn(List.of(first, second));
+            when(billingRetryRequestRepository.claim(eq(1L), any(), any(), any(), any())).thenReturn(0);
+            when(billingRetryRequestRepository.claim(eq(2L), any(), any(), any(), any())).thenReturn(1);
+
+            // Act
+            Optional<BillingRetryRequest> claimed = billingRetryRequestService.claim();
+
+            // Assert
+            assertEquals(Optional.of(second), claimed);
+        }
+
+        @Test
+        void shouldReturnEmptyWhenNothingIsClaimable() {
+            // Arrange
+            when(billingRetryRequestRepository.findClaimable(any(), any(), any(), any(Limit.class))).thenReturn(List.of());
+
+            // Act
+            Optional<BillingRetryRequest> claimed = billingRetryRequestService.claim();
+
+            // Assert
+            assertTrue(claimed.isEmpty());
+            verify(billingRetryRequestRepository, never()).claim(any(), any(), any(), any(), any());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.marcosespeche.spring_batch_poc.domain.customers;
 
+import com.marcosespeche.spring_batch_poc.domain.customers.dtos.ReadCustomerDTO;
 import com.marcosespeche.spring_batch_poc.entities.Customer;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -50,16 +51,53 @@ class CustomerRepositoryTest {
             entityManager.flush();
 
             // Act
-            Page<Customer> result = customerRepository.findByNameContainingIgnoreCase("software", PageRequest.of(0, 2));
+            Page<ReadCustomerDTO> result = customerRepository.findByNameContainingIgnoreCase("software", PageRequest.of(0, 2));
 
             // Assert
             assertAll(
                     () -> assertNotNull(result, "Result should not be null"),
                     () -> assertEquals(1, result.getTotalElements(), "Should only have 1 element"),
-                    () -> assertEquals("Software Factory 123", result.getContent().getFirst().getName(), "Name should match")
+                    () -> assertEquals("Software Factory 123", result.getContent().getFirst().name(), "Name should match")
             );
 
         }
+
+        @Test
+        public void shouldMatchWildcardsInNameLiterally() {
+            // Arrange
+            entityManager.persist(Customer.builder()
+                    .name("100% Natural")
+                    .email("natural@gmail.com")
+                    .build());
+
+            entityManager.persist(Customer.builder()
+                    .name("1000 Naturals")
+                    .email("naturals@gmail.com")
+                    .build());
+
+            entityManager.persist(Customer.builder()
+                    .name("Software_Factory")
+                    .email("software_factory@gmail.com")
+                    .build());
+
+            entityManager.persist(Customer.builder()
+                    .name("Software-Factory")
+                    .email("software-factory@gmail.com")
+                    .build());
+            entityManager.flush();
+
+            // Act
+            Page<ReadCustomerDTO> percent = customerRepository.findByNameContainingIgnoreCase("100%", PageRequest.of(0, 5));
+            Page<ReadCustomerDTO> underscore = customerRepository.findByNameContainingIgnoreCase("software_", PageRequest.of(0, 5));
+
+            // Assert
+            assertAll(
+                    () -> assertEquals(1, percent.getTotalElements(), "'%' should not match any text"),
+                    () -> assertEquals("100% Natural", percent.getContent().getFirst().name()),
+                    () -> assertEquals(1, underscore.getTotalElements(), "'_' should not match any character"),
+                    () -> assertEquals("Software_Factory", underscore.getContent().getFirst().name())
+            );
+        }
     }
 
     @Nested
@@ -86,13 +124,13 @@ class CustomerRepositoryTest {
             entityManager.flush();
 
             // Act
-            Page<Customer> result = customerRepository.findByNameContainingIgnoreCaseAndSoftDeleteDateIsNull("123", PageRequest.of(0, 2));
+            Page<ReadCustomerDTO> result = customerRepository.findByNameContainingIgnoreCaseAndSoftDeleteDateIsNull("123", PageRequest.of(0, 2));
 
             // Assert
             assertAll(
                     () -> assertNotNull(result, "Result should not be null"),
                     () -> assertEquals(1, result.getTotalElements(), "Should only have 1 element"),
-                    () -> assertEquals("Software Factory 123", result.getContent().getFirst().getName(), "Name should match")
+                    () -> assertEquals("Software Factory 123", result.getContent().getFirst().name(), "Name should match")
             );
         }
     }
@@ -1,5 +1,6 @@
 package com.marcosespeche.spring_batch_poc.domain.projects;
 
+import com.marcosespeche.spring_batch_poc.domain.projects.dtos.ReadProjectDTO;
 import com.marcosespeche.spring_batch_poc.entities.Customer;
 import com.marcosespeche.spring_batch_poc.entities.Project;
 import org.junit.jupiter.api.DisplayName;
@@ -77,14 +78,14 @@ class ProjectRepositoryTest {
             entityManager.flush();
 
             // Act
-            Page<Project> result = projectRepository.findByCustomerIdAndNameContainingIgnoreCase(customer1.getId(), "2", PageRequest.of(0, 2));
+            Page<ReadProjectDTO> result = projectRepository.findByCustomerIdAndNameContainingIgnoreCase(customer1.getId(), "2", PageRequest.of(0, 2));
 
             // Assert
             assertAll(
                     () -> assertNotNull(result, "Result should not be null"),
                     () -> assertEquals(1, result.getTotalElements(), "Total elements should be 1"),
-                    () -> assertEquals(project2.getName(), result.getContent().getFirst().getName(), "Names should match"),
-                    () -> assertEquals(project2.getCustomer().getName(), result.getContent().getFirst().getCustomer().getName(), "Customer name should match")
+                    () -> assertEquals(project2.getName(), result.getContent().getFirst().name(), "Names should match"),
+                    () -> assertEquals(project2.getId(), result.getContent().getFirst().id(), "IDs should match")
             );
         }
     }
@@ -138,14 +139,14 @@ class ProjectRepositoryTest {
             entityManager.flush();
 
             // Act
-            List<Project> result = projectRepository.findByCustomerIdAndNameContainingIgnoreCaseAndSoftDeleteDateIsNull(customer1.getId(), "project");
+            List<ReadProjectDTO> result = projectRepository.findByCustomerIdAndNameContainingIgnoreCaseAndSoftDeleteDateIsNull(customer1.getId(), "project");
 
             // Assert
             assertAll(
                     () -> assertNotNull(result, "Result should not be null"),
                     () -> assertEquals(1, result.size(), "Total elements should be 1"),
-                    () -> assertEquals(project1.getName(), result.getFirst().getName(), "Names should match"),
-                    () -> assertEquals(project1.getCustomer().getName(), result.getFirst().getCustomer().getName(), "Customer name should match")
+                    () -> assertEquals(project1.getName(), result.getFirst().name(), "Names should match"),
+                    () -> assertEquals(project1.getId(), result.getFirst().id(), "IDs should match")
             );
         }
     }
@@ -0,0 +1,53 @@
+package com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes;
+
+import com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes.dtos.ReadServiceRequestTypeDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceRequestTypeCacheTest {
+
+    @Nested
+    @DisplayName("get method")
+    class GetTests {
+
+        @Test
+        void shouldLoadOnceWhenEnabled() {
+            // Arrange
+            ServiceRequestTypeCache cache = new ServiceRequestTypeCache(true, 100, Duration.ofMinutes(10));
+            AtomicInteger loads = new AtomicInteger();
+
+            // Act
+            cache.get(1L, id -> type(id, loads));
+            ReadServiceRequestTypeDTO cached = cache.get(1L, id -> type(id, loads));
+
+            // Assert
+            assertEquals(1L, cached.id());
+            assertEquals(1, loads.get());
+        }
+
+        @Test
+        void shouldLoadEveryTimeWhenDisabled() {
+            // Arrange
+            ServiceRequestTypeCache cache = new ServiceRequestTypeCache(false, 100, Duration.ofMinutes(10));
+            AtomicInteger loads = new AtomicInteger();
+
+            // Act
+            cache.get(1L, id -> type(id, loads));
+            cache.get(1L, id -> type(id, loads));
+
+            // Assert
+            assertEquals(2, loads.get());
+        }
+    }
+
+    private static ReadServiceRequestTypeDTO type(Long id, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new ReadServiceRequestTypeDTO(id, "Development", "Software development", null, 20.5);
+    }
+}
@@ -1,5 +1,6 @@
 package com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes;
 
+import com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes.dtos.ReadServiceRequestTypeDTO;
 import com.marcosespeche.spring_batch_poc.entities.ServiceRequestType;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -99,13 +100,13 @@ class ServiceRequestTypeRepositoryTest {
             entityManager.flush();
 
             // Act
-            List<ServiceRequestType> result =
+            List<ReadServiceRequestTypeDTO> result =
                     repository.findByNameContainingIgnoreCaseAndSoftDeleteDateIsNull("dev");
 
             // Assert
             assertAll(
                     () -> assertEquals(1, result.size()),
-                    () -> assertEquals(activeName, result.getFirst().getName())
+                    () -> assertEquals(activeName, result.getFirst().name())
             );
         }
 
@@ -134,7 +135,7 @@ class ServiceRequestTypeRepositoryTest {
             Pageable pageable = PageRequest.of(0, 2);
 
             // Act
-            Page<ServiceRequestType> page =
+            Page<ReadServiceRequestTypeDTO> page =
                     repository.findByNameContainingIgnoreCase("DEV", pageable);
 
             // Assert
@@ -164,7 +165,7 @@ class ServiceRequestTypeRepositoryTest {
             Pageable pageable = PageRequest.of(0, 2);
 
             // Act
-            Page<ServiceRequestType> page =
+            Page<ReadServiceRequestTypeDTO> page =
                     repository.findByNameContainingIgnoreCase("", pageable);
 
             // Assert
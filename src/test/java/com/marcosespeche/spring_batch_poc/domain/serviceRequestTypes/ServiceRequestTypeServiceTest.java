@@ -1,5 +1,6 @@
 package com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes;
 
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.BillingPreviewCache;
 import com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes.dtos.CreateServiceRequestTypeDTO;
 import com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes.dtos.ReadServiceRequestTypeDTO;
 import com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes.dtos.UpdateServiceRequestTypeDTO;
@@ -15,8 +16,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,6 +36,12 @@ class ServiceRequestTypeServiceTest {
     @Spy
     private ServiceRequestTypeMapper serviceRequestTypeMapper = Mappers.getMapper(ServiceRequestTypeMapper.class);
 
+    @Spy
+    private ServiceRequestTypeCache serviceRequestTypeCache = new ServiceRequestTypeCache(true, 100, Duration.ofMinutes(10));
+
+    @Mock
+    private BillingPreviewCache billingPreviewCache;
+
     @InjectMocks
     private ServiceRequestTypeService serviceRequestTypeService;
 
@@ -264,4 +275,114 @@ class ServiceRequestTypeServiceTest {
         }
     }
 
-}
\ No newline at end of file
+    @Nested
+    @DisplayName("findById method")
+    class FindByIdTests {
+
+        @Test
+        void shouldHitRepositoryOnlyOnceForRepeatedLookups() {
+            // Arrange
+            Long id = 1L;
+            ServiceRequestType entity = new ServiceRequestType();
+            entity.setId(id);
+            entity.setName("Test type");
+            entity.setHourlyFee(20.5);
+
+            when(serviceRequestTypeRepository.findById(id))
+                    .thenReturn(Optional.of(entity));
+
+            // Act
+            ReadServiceRequestTypeDTO first = serviceRequestTypeService.findCachedById(id);
+            Double hourlyFee = serviceRequestTypeService.findHourlyFee(id);
+
+            // Assert
+            assertAll(
+                    () -> assertEquals("Test type", first.name(), "Name should match"),
+                    () -> assertEquals(20.5, hourlyFee, "Hourly fee should match")
+            );
+            verify(serviceRequestTypeRepository, times(1)).findById(id);
+        }
+
+        @Test
+        void shouldReloadAfterUpdate() {
+            // Arrange
+            Long id = 1L;
+            ServiceRequestType entity = new ServiceRequestType();
+            entity.setId(id);
+            entity.setName("Backend development");
+            entity.setDescription("Backend development");
+            entity.setHourlyFee(20.5);
+
+            when(serviceRequestTypeRepository.findById(id))
+                    .thenReturn(Optional.of(entity));
+
+            serviceRequestTypeService.findCachedById(id);
+
+            // Act
+            serviceRequestTypeService.update(id, new UpdateServiceRequestTypeDTO("Backend development", "Backend development", 30.0));
+            Double hourlyFee = serviceRequestTypeService.findHourlyFee(id);
+
+            // Assert
+            assertEquals(30.0, hourlyFee, "Hourly fee should be reloaded after update");
+            verify(serviceRequestTypeCache).evict(id);
+            verify(serviceRequestTypeRepository, times(3)).findById(id);
+        }
+
+        @Test
+        void shouldNotCacheFeeReadFromTheReplicaAfterUpdate() {
+            // Arrange
+            Long id = 1L;
+            ServiceRequestType entity = new ServiceRequestType();
+            entity.setId(id);
+            entity.setName("Backend development");
+            entity.setDescription("Backend development");
+            entity.setHourlyFee(20.5);
+
+            // The replica hasn't replayed the update yet
+            ServiceRequestType replicaCopy = new ServiceRequestType();
+            replicaCopy.setId(id);
+            replicaCopy.setName("Backend development");
+            replicaCopy.setDescription("Backend development");
+            replicaCopy.setHourlyFee(20.5);
+
+            when(serviceRequestTypeRepository.findById(id))
+                    .thenReturn(Optional.of(entity));
+
+            serviceRequestTypeService.findCachedById(id);
+            serviceRequestTypeService.update(id, new UpdateServiceRequestTypeDTO("Backend development", "Backend development", 30.0));
+
+            when(serviceRequestTypeRepository.findById(id))
+                    .thenReturn(Optional.of(replicaCopy), Optional.of(entity));
+
+            // Act
+            Double replicaFee = inReadOnlyTransaction(() -> serviceRequestTypeService.findHourlyFee(id));
+            Double hourlyFee = serviceRequestTypeService.findHourlyFee(id);
+
+            // Assert
+            assertEquals(20.5, replicaFee, "The replica may still return the old fee");
+            assertEquals(30.0, hourlyFee, "The old fee read from the replica should not be cached");
+        }
+
+        @Test
+        void shouldNotCacheMissingEntities() {
+            // Arrange
+            Long id = 999L;
+            when(serviceRequestTypeRepository.findById(id))
+                    .thenReturn(Optional.empty());
+
+            // Act & Assert
+            assertThrows(EntityNotFoundException.class, () -> serviceRequestTypeService.findCachedById(id));
+            assertThrows(EntityNotFoundException.class, () -> serviceRequestTypeService.findCachedById(id));
+            verify(serviceRequestTypeRepository, times(2)).findById(id);
+        }
+    }
+
+    private static <T> T inReadOnlyTransaction(Supplier<T> action) {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            return action.get();
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.marcosespeche.spring_batch_poc.domain.serviceRequests;
+
+import com.marcosespeche.spring_batch_poc.domain.agreements.AgreementService;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.BillingPreviewCache;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes.ServiceRequestTypeService;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.BulkStateTransitionDTO;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.ReadBulkStateTransitionDTO;
+import com.marcosespeche.spring_batch_poc.entities.*;
+import com.marcosespeche.spring_batch_poc.enums.AgreementState;
+import com.marcosespeche.spring_batch_poc.enums.ServiceRequestState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+// START_SQL and FINISH_SQL use UPDATE ... FROM ... RETURNING, which H2 doesn't support, so they run against PostgreSQL
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class ServiceRequestBulkServicePostgresTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private ServiceRequestBulkService bulkService;
+
+    private Agreement agreement;
+
+    private ServiceRequestType type;
+
+    @BeforeEach
+    void setUp() {
+        bulkService = new ServiceRequestBulkService(
+                mock(AgreementService.class), mock(ServiceRequestTypeService.class), new JdbcTemplate(dataSource),
+                new NamedParameterJdbcTemplate(dataSource), mock(PlatformTransactionManager.class),
+                mock(BillingPreviewCache.class), JsonMapper.builder().build(), 500);
+
+        Customer customer = entityManager.persist(Customer.builder()
+                .name("Customer")
+                .email("customer@gmail.com")
+                .build());
+
+        Project project = entityManager.persist(Project.builder()
+                .customer(customer)
+                .name("Project")
+                .description("Description")
+                .build());
+
+        agreement = entityManager.persist(Agreement.builder()
+                .customer(customer)
+                .project(project)
+                .state(AgreementState.IN_COURSE)
+                .acceptedAt(LocalDateTime.now())
+                .startingPeriod(YearMonth.now().minusMonths(1))
+                .endingPeriod(YearMonth.now().plusMonths(6))
+                .build());
+
+        type = entityManager.persist(ServiceRequestType.builder()
+                .name("Backend development")
+                .description("Description")
+                .hourlyFee(10.0)
+                .build());
+    }
+
+    @Nested
+    @DisplayName("transition method")
+    class TransitionTests {
+
+        @Test
+        void shouldStartOnlyRequestsThatAreToDo() {
+            // Arrange
+            ServiceRequest toDo = persistServiceRequest(ServiceRequestState.TO_DO, LocalDateTime.now());
+            ServiceRequest inProgress = persistServiceRequest(ServiceRequestState.IN_PROGRESS, LocalDateTime.now());
+
+            // Act
+            ReadBulkStateTransitionDTO result = bulkService.transition(
+                    new BulkStateTransitionDTO(List.of(toDo.getId(), inProgress.getId()), ServiceRequestState.IN_PROGRESS));
+
+            // Assert
+            assertEquals(List.of(toDo.getId()), result.updatedIds());
+            assertEquals(List.of(inProgress.getId()), result.failedIds());
+
+            entityManager.clear();
+            ServiceRequest started = entityManager.find(ServiceRequest.class, toDo.getId());
+            assertEquals(ServiceRequestState.IN_PROGRESS, started.getState());
+            assertNull(started.getFinishedAt());
+            assertNull(started.getBillableMinutes());
+        }
+
+        @Test
+        void shouldFinishOnlyRequestsThatAreInProgressAndStoreBillableMinutes() {
+            // Arrange
+            ServiceRequest worked = persistServiceRequest(ServiceRequestState.IN_PROGRESS, LocalDateTime.now().minusMinutes(90).minusSeconds(20));
+            ServiceRequest registeredInTheFuture = persistServiceRequest(ServiceRequestState.IN_PROGRESS, LocalDateTime.now().plusDays(1));
+            ServiceRequest toDo = persistServiceRequest(ServiceRequestState.TO_DO, LocalDateTime.now());
+
+            // Act
+            ReadBulkStateTransitionDTO result = bulkService.transition(new BulkStateTransitionDTO(
+                    List.of(worked.getId(), registeredInTheFuture.getId(), toDo.getId()), ServiceRequestState.DONE));
+
+            // Assert
+            // RETURNING gives no row order guarantee
+            assertEquals(Set.of(worked.getId(), registeredInTheFuture.getId()), Set.copyOf(result.updatedIds()));
+            assertEquals(List.of(toDo.getId()), result.failedIds());
+
+            entityManager.clear();
+            ServiceRequest finished = entityManager.find(ServiceRequest.class, worked.getId());
+            assertEquals(ServiceRequestState.DONE, finished.getState());
+            assertNotNull(finished.getFinishedAt());
+            assertEquals(90, finished.getBillableMinutes());
+
+            ServiceRequest finishedBeforeRegistration = entityManager.find(ServiceRequest.class, registeredInTheFuture.getId());
+            assertEquals(ServiceRequestState.DONE, finishedBeforeRegistration.getState());
+            assertNull(finishedBeforeRegistration.getBillableMinutes());
+
+            assertEquals(ServiceRequestState.TO_DO, entityManager.find(ServiceRequest.class, toDo.getId()).getState());
+        }
+    }
+
+    private ServiceRequest persistServiceRequest(ServiceRequestState state, LocalDateTime registeredAt) {
+        return entityManager.persistAndFlush(ServiceRequest.builder()
+                .agreement(agreement)
+                .type(type)
+                .description("Service request")
+                .state(state)
+                .registeredAt(registeredAt)
+                .build());
+    }
+}
@@ -0,0 +1,229 @@
+package com.marcosespeche.spring_batch_poc.domain.serviceRequests;
+
+import com.marcosespeche.spring_batch_poc.domain.agreements.AgreementService;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.BillingPreviewCache;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes.ServiceRequestTypeService;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.BulkServiceRequestResultDTO;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.BulkStateTransitionDTO;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.CreateServiceRequestDTO;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.ReadBulkServiceRequestDTO;
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.ReadBulkStateTransitionDTO;
+import com.marcosespeche.spring_batch_poc.entities.Agreement;
+import com.marcosespeche.spring_batch_poc.entities.ServiceRequestType;
+import com.marcosespeche.spring_batch_poc.enums.AgreementState;
+import com.marcosespeche.spring_batch_poc.enums.BulkItemStatus;
+import com.marcosespeche.spring_batch_poc.enums.ServiceRequestState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceRequestBulkServiceTest {
+
+    @Mock
+    private AgreementService agreementService;
+
+    @Mock
+    private ServiceRequestTypeService serviceRequestTypeService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private BillingPreviewCache billingPreviewCache;
+
+    private ServiceRequestBulkService bulkService;
+
+    @BeforeEach
+    void setUp() {
+        bulkService = new ServiceRequestBulkService(
+                agreementService, serviceRequestTypeService, jdbcTemplate, namedParameterJdbcTemplate, transactionManager,
+                billingPreviewCache, JsonMapper.builder().build(), 2);
+    }
+
+    @Nested
+    @DisplayName("createAll method")
+    class CreateAllTests {
+
+        @Test
+        void shouldInsertValidItemsAndRejectInvalidOnes() {
+            // Arrange
+            Agreement accepted = Agreement.builder().id(1L).state(AgreementState.ACCEPTED).build();
+            Agreement provisional = Agreement.builder().id(2L).state(AgreementState.PROVISIONAL).build();
+            ServiceRequestType type = ServiceRequestType.builder().id(10L).build();
+
+            when(agreementService.findAllByIds(anyCollection()))
+                    .thenAnswer(invocation -> Map.of(1L, accepted, 2L, provisional));
+            when(serviceRequestTypeService.findAllByIds(anyCollection()))
+                    .thenReturn(Map.of(10L, type));
+            mockGeneratedIds(100L);
+
+            List<CreateServiceRequestDTO> dtos = List.of(
+                    new CreateServiceRequestDTO(10L, 1L, "Backend development"),
+                    new CreateServiceRequestDTO(10L, 2L, "Backend development"),
+                    new CreateServiceRequestDTO(99L, 1L, "Frontend development"),
+                    new CreateServiceRequestDTO(10L, 1L, "Dev")
+            );
+
+            // Act
+            ReadBulkServiceRequestDTO result = bulkService.createAll(dtos);
+
+            // Assert
+            List<BulkServiceRequestResultDTO> results = result.results();
+            assertAll(
+                    () -> assertEquals(4, result.received()),
+                    () -> assertEquals(1, result.created()),
+                    () -> assertEquals(3, result.rejected()),
+                    () -> assertEquals(List.of(0, 1, 2, 3), results.stream().map(BulkServiceRequestResultDTO::index).toList()),
+                    () -> assertEquals(BulkItemStatus.CREATED, results.get(0).status()),
+                    () -> assertEquals(100L, results.get(0).id()),
+                    () -> assertEquals("Agreement is not available for creating service requests", results.get(1).error()),
+                    () -> assertEquals("Service Request Type not found", results.get(2).error()),
+                    () -> assertEquals("Description must contain between 5 and 500 characters", results.get(3).error()),
+                    () -> assertEquals(AgreementState.IN_COURSE, accepted.getState(), "Accepted agreement should move to in course"),
+                    () -> verify(agreementService).save(accepted),
+                    () -> verify(transactionManager, times(2)).commit(any())
+            );
+        }
+
+        @Test
+        void shouldRejectMalformedNdjsonLines() {
+            // Arrange
+            Agreement agreement = Agreement.builder().id(1L).state(AgreementState.IN_COURSE).build();
+            ServiceRequestType type = ServiceRequestType.builder().id(10L).build();
+
+            when(agreementService.findAllByIds(anyCollection()))
+                    .thenReturn(Map.of(1L, agreement));
+            when(serviceRequestTypeService.findAllByIds(anyCollection()))
+                    .thenReturn(Map.of(10L, type));
+            mockGeneratedIds(7L);
+
+            String body = """
+                    {"typeId": 10, "agreementId": 1, "description": "Backend development"}
+                    {not json
+
+                    """;
+
+            // Act
+            ReadBulkServiceRequestDTO result = bulkService.createAllFromNdjson(
+                    new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+            // Assert
+            assertAll(
+                    () -> assertEquals(2, result.received(), "Blank lines should be ignored"),
+                    () -> assertEquals(7L, result.results().get(0).id()),
+                    () -> assertEquals("Malformed or empty item", result.results().get(1).error())
+            );
+        }
+
+        @Test
+        void shouldRejectWholeBatchWhenInsertFails() {
+            // Arrange
+            Agreement agreement = Agreement.builder().id(1L).state(AgreementState.IN_COURSE).build();
+            ServiceRequestType type = ServiceRequestType.builder().id(10L).build();
+
+            when(agreementService.findAllByIds(anyCollection()))
+                    .thenReturn(Map.of(1L, agreement));
+            when(serviceRequestTypeService.findAllByIds(anyCollection()))
+                    .thenReturn(Map.of(10L, type));
+            when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class), any(KeyHolder.class)))
+                    .thenThrow(new IllegalStateException("Connection lost"));
+
+            // Act
+            ReadBulkServiceRequestDTO result = bulkService.createAll(List.of(
+                    new CreateServiceRequestDTO(10L, 1L, "Backend development"),
+                    new CreateServiceRequestDTO(10L, 1L, "Frontend development")));
+
+            // Assert
+            assertAll(
+                    () -> assertEquals(0, result.created()),
+                    () -> assertTrue(result.results().stream().allMatch(item -> item.error().contains("Connection lost"))),
+                    () -> verify(transactionManager).rollback(any())
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("transition method")
+    class TransitionTests {
+
+        @Test
+        void shouldReportIdsThatFailedThePrecondition() throws Exception {
+            // Arrange
+            ResultSet row = mock(ResultSet.class);
+            when(row.getLong(1)).thenReturn(1L, 3L);
+            when(row.getLong(2)).thenReturn(50L, 50L);
+
+            doAnswer(invocation -> {
+                RowCallbackHandler handler = invocation.getArgument(2);
+                handler.processRow(row);
+                handler.processRow(row);
+                return null;
+            }).when(namedParameterJdbcTemplate).query(anyString(), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+
+            // Act
+            ReadBulkStateTransitionDTO result = bulkService.transition(
+                    new BulkStateTransitionDTO(List.of(1L, 2L, 3L, 2L), ServiceRequestState.DONE));
+
+            // Assert
+            assertAll(
+                    () -> assertEquals(List.of(1L, 3L), result.updatedIds()),
+                    () -> assertEquals(List.of(2L), result.failedIds()),
+                    () -> verify(billingPreviewCache).evictCustomer(50L)
+            );
+        }
+
+        @Test
+        void shouldThrowExceptionWhenTargetStateIsNotSupported() {
+            // Arrange
+            BulkStateTransitionDTO dto = new BulkStateTransitionDTO(List.of(1L), ServiceRequestState.TO_DO);
+
+            // Act & Assert
+            assertThrows(IllegalArgumentException.class, () -> bulkService.transition(dto));
+            verifyNoInteractions(namedParameterJdbcTemplate);
+        }
+    }
+
+    private void mockGeneratedIds(Long firstId) {
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class), any(KeyHolder.class)))
+                .thenAnswer(invocation -> {
+                    BatchPreparedStatementSetter setter = invocation.getArgument(1);
+                    KeyHolder keyHolder = invocation.getArgument(2);
+                    for (int i = 0; i < setter.getBatchSize(); i++) {
+                        keyHolder.getKeyList().add(Map.<String, Object>of("id", firstId + i));
+                    }
+                    return new int[setter.getBatchSize()];
+                });
+    }
+}
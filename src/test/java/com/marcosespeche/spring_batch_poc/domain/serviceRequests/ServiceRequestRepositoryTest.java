@@ -1,5 +1,6 @@
 package com.marcosespeche.spring_batch_poc.domain.serviceRequests;
 
+import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.ReadServiceRequestDTO;
 import com.marcosespeche.spring_batch_poc.entities.*;
 import com.marcosespeche.spring_batch_poc.enums.AgreementState;
 import com.marcosespeche.spring_batch_poc.enums.ServiceRequestState;
@@ -128,7 +129,7 @@ class ServiceRequestRepositoryTest {
             entityManager.flush();
 
             // Act
-            Page<ServiceRequest> result = serviceRequestRepository.findByCustomerOrProject(
+            Page<ReadServiceRequestDTO> result = serviceRequestRepository.findByCustomerOrProject(
                     "ABC",
                     "ABC",
                     PageRequest.of(0, 2));
@@ -137,10 +138,10 @@ class ServiceRequestRepositoryTest {
             assertAll(
                     () -> assertNotNull(result),
                     () -> assertEquals(2, result.getTotalElements()),
-                    () -> assertEquals(customer1.getName(), result.getContent().getFirst().getAgreement().getCustomer().getName(), "Customer name should match"),
-                    () -> assertEquals(project1.getName(), result.getContent().getFirst().getAgreement().getProject().getName(), "Project name should match"),
-                    () -> assertEquals(customer2.getName(), result.getContent().getLast().getAgreement().getCustomer().getName(), "Customer name should match"),
-                    () -> assertEquals(project2.getName(), result.getContent().getLast().getAgreement().getProject().getName(), "Project name should match")
+                    () -> assertEquals(customer1.getName(), result.getContent().getFirst().customerName(), "Customer name should match"),
+                    () -> assertEquals(project1.getName(), result.getContent().getFirst().projectName(), "Project name should match"),
+                    () -> assertEquals(customer2.getName(), result.getContent().getLast().customerName(), "Customer name should match"),
+                    () -> assertEquals(project2.getName(), result.getContent().getLast().projectName(), "Project name should match")
             );
         }
     }
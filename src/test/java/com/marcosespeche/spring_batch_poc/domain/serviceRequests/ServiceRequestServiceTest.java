@@ -1,12 +1,16 @@
 package com.marcosespeche.spring_batch_poc.domain.serviceRequests;
 
 import com.marcosespeche.spring_batch_poc.domain.agreements.AgreementService;
+import com.marcosespeche.spring_batch_poc.domain.billingProcess.BillingPreviewCache;
 import com.marcosespeche.spring_batch_poc.domain.serviceRequestTypes.ServiceRequestTypeService;
 import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.CreateServiceRequestDTO;
 import com.marcosespeche.spring_batch_poc.domain.serviceRequests.dtos.ReadServiceRequestDTO;
 import com.marcosespeche.spring_batch_poc.entities.Agreement;
+import com.marcosespeche.spring_batch_poc.entities.Customer;
+import com.marcosespeche.spring_batch_poc.entities.ServiceRequest;
 import com.marcosespeche.spring_batch_poc.entities.ServiceRequestType;
 import com.marcosespeche.spring_batch_poc.enums.AgreementState;
+import com.marcosespeche.spring_batch_poc.enums.ServiceRequestState;
 import com.marcosespeche.spring_batch_poc.mappers.ServiceRequestMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -19,8 +23,10 @@ import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +44,9 @@ class ServiceRequestServiceTest {
     @Mock
     private ServiceRequestTypeService serviceRequestTypeService;
 
+    @Mock
+    private BillingPreviewCache billingPreviewCache;
+
     @InjectMocks
     private ServiceRequestService service;
 
@@ -143,4 +152,38 @@ class ServiceRequestServiceTest {
         }
     }
 
-}
\ No newline at end of file
+    @Nested
+    @DisplayName("finish method")
+    class FinishTest {
+
+        @Test
+        public void shouldStampFinishedAtAndBillableMinutes() {
+            // Arrange
+            Long id = 1L;
+            LocalDateTime registeredAt = LocalDateTime.now().minusMinutes(90).minusSeconds(30);
+            ServiceRequest serviceRequest = ServiceRequest.builder()
+                    .id(id)
+                    .description("Description")
+                    .registeredAt(registeredAt)
+                    .state(ServiceRequestState.IN_PROGRESS)
+                    .agreement(Agreement.builder().customer(Customer.builder().id(10L).build()).build())
+                    .type(ServiceRequestType.builder().id(1L).build())
+                    .build();
+
+            when(serviceRequestRepository.findById(id))
+                    .thenReturn(Optional.of(serviceRequest));
+
+            // Act
+            service.finish(id);
+
+            // Assert
+            assertAll(
+                    () -> assertEquals(ServiceRequestState.DONE, serviceRequest.getState()),
+                    () -> assertNotNull(serviceRequest.getFinishedAt(), "Finished date should be set"),
+                    () -> assertEquals(90, serviceRequest.getBillableMinutes(), "Only whole minutes should be billed"),
+                    () -> verify(billingPreviewCache).evictCustomer(10L)
+            );
+        }
+    }
+
+}